@@ -0,0 +1,136 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.xmlbeans.perf;
+
+import com.easypo.XmlCustomerBean;
+import com.easypo.XmlLineItemBean;
+import com.easypo.XmlPurchaseOrderDocumentBean;
+import com.easypo.XmlPurchaseOrderDocumentBean.PurchaseOrder;
+import com.easypo.XmlShipperBean;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typed access to the easypo purchase order schema - ported from the POTopDown, POReadAll,
+ * POValidate and POTopDownSave scenarios of the test/perf suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PurchaseOrderBenchmark {
+    private static final String LINE_ITEMS_PATH =
+        "declare namespace po='http://openuri.org/easypo'; $this/po:purchase-order/po:line-item[po:quantity > 1]";
+
+    @Param({"10", "1000"})
+    public int lineItems;
+
+    private XmlPurchaseOrderDocumentBean doc;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        doc = createPurchaseOrder(lineItems);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        doc.save(bos);
+        bytes = bos.toByteArray();
+    }
+
+    @Benchmark
+    public XmlPurchaseOrderDocumentBean topDown() {
+        return createPurchaseOrder(lineItems);
+    }
+
+    @Benchmark
+    public XmlPurchaseOrderDocumentBean parse() throws XmlException, IOException {
+        return XmlPurchaseOrderDocumentBean.Factory.parse(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public void readAll(Blackhole bh) {
+        PurchaseOrder po = doc.getPurchaseOrder();
+        XmlCustomerBean customer = po.getCustomer();
+        bh.consume(customer.getName());
+        bh.consume(customer.getAddress());
+        bh.consume(po.getDate());
+        for (int i = 0, size = po.sizeOfLineItemArray(); i < size; i++) {
+            XmlLineItemBean li = po.getLineItemArray(i);
+            bh.consume(li.getDescription());
+            bh.consume(li.getPerUnitOunces());
+            bh.consume(li.getPrice());
+            bh.consume(li.getQuantity());
+        }
+        XmlShipperBean shipper = po.getShipper();
+        bh.consume(shipper.getName());
+        bh.consume(shipper.getPerOunceRate());
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return doc.validate();
+    }
+
+    @Benchmark
+    public String xmlText() {
+        return doc.xmlText();
+    }
+
+    @Benchmark
+    public int save() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(bytes.length);
+        doc.save(bos);
+        return bos.size();
+    }
+
+    @Benchmark
+    public XmlObject[] selectPath() {
+        return doc.selectPath(LINE_ITEMS_PATH);
+    }
+
+    static XmlPurchaseOrderDocumentBean createPurchaseOrder(int lineItems) {
+        XmlPurchaseOrderDocumentBean doc = XmlPurchaseOrderDocumentBean.Factory.newInstance();
+        PurchaseOrder po = doc.addNewPurchaseOrder();
+
+        XmlCustomerBean customer = po.addNewCustomer();
+        customer.setName("Gladys Kravitz");
+        customer.setAddress("Anytown, PA");
+
+        po.setDate(Calendar.getInstance());
+
+        for (int i = 0; i < lineItems; i++) {
+            XmlLineItemBean li = po.addNewLineItem();
+            li.setDescription("Burnham's Celestial Handbook, Vol " + i);
+            li.setPerUnitOunces(new BigDecimal("5.0"));
+            li.setPrice(new BigDecimal("21.79"));
+            li.setQuantity(BigInteger.valueOf(1 + i % 3));
+        }
+
+        XmlShipperBean shipper = po.addNewShipper();
+        shipper.setName("UPS");
+        shipper.setPerOunceRate(new BigDecimal("0.74"));
+
+        return doc;
+    }
+}
@@ -0,0 +1,188 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.xmlbeans.perf;
+
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tranxml.tranXML.version40.CLMTransactionCodeList;
+import org.tranxml.tranXML.version40.CarLocationMessageDocument;
+import org.tranxml.tranXML.version40.CarLocationMessageDocument.CarLocationMessage;
+import org.tranxml.tranXML.version40.CodeList322;
+import org.tranxml.tranXML.version40.ETADocument.ETA;
+import org.tranxml.tranXML.version40.EquipmentStructureDocument.EquipmentStructure;
+import org.tranxml.tranXML.version40.EventStatusDocument.EventStatus;
+import org.tranxml.tranXML.version40.GeographicLocationDocument.GeographicLocation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CarLocationMessage of the sTRANXML test schemas, which is considerably larger and
+ * deeper nested than the purchase order - the same scenarios as in {@link PurchaseOrderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TranXmlBenchmark {
+    private static final String RESOURCE = "xbean/xmlcursor/CarLocationMessage.xml";
+    private static final String LOCATION_PATH =
+        "declare default element namespace 'http://www.tranxml.org/TranXML/Version4.0'; $this//GeographicLocation";
+
+    private CarLocationMessageDocument doc;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException, XmlException {
+        try (InputStream is = TranXmlBenchmark.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (is == null) {
+                throw new IOException("Resource " + RESOURCE + " not found");
+            }
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            for (int n; (n = is.read(buf)) >= 0; ) {
+                bos.write(buf, 0, n);
+            }
+            bytes = bos.toByteArray();
+        }
+        doc = parse();
+    }
+
+    @Benchmark
+    public CarLocationMessageDocument topDown() {
+        return createCarLocationMessage();
+    }
+
+    @Benchmark
+    public CarLocationMessageDocument parse() throws XmlException, IOException {
+        return CarLocationMessageDocument.Factory.parse(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public void readAll(Blackhole bh) {
+        CarLocationMessage clm = doc.getCarLocationMessage();
+        bh.consume(clm.getTransaction());
+        bh.consume(clm.getFleetID());
+        bh.consume(clm.getStandardCarrierAlphaCode());
+        for (int i = 0, size = clm.sizeOfEventStatusArray(); i < size; i++) {
+            EventStatus es = clm.getEventStatusArray(i);
+            if (es.isSetEquipmentStructure()) {
+                EquipmentStructure eq = es.getEquipmentStructure();
+                bh.consume(eq.getInitial());
+                bh.consume(eq.getEquipmentNumber());
+                bh.consume(eq.getLoadEmptyCode());
+            }
+            bh.consume(es.getDate());
+            bh.consume(es.getTime());
+            if (es.isSetEventStatusCode()) {
+                bh.consume(es.getEventStatusCode().getRailStatusCode());
+            }
+            bh.consume(es.getReasonCode());
+            readLocation(bh, es.getGeographicLocation());
+            bh.consume(es.getStandardCarrierAlphaCode());
+            if (es.isSetDestination()) {
+                readLocation(bh, es.getDestination().getGeographicLocation());
+            }
+            if (es.isSetETA()) {
+                ETA eta = es.getETA();
+                readLocation(bh, eta.getGeographicLocation());
+                bh.consume(eta.getDate());
+                bh.consume(eta.getTime());
+                bh.consume(eta.getETACode());
+            }
+            bh.consume(es.getAEIIndicatorCode());
+        }
+    }
+
+    private static void readLocation(Blackhole bh, GeographicLocation gl) {
+        if (gl != null) {
+            if (gl.isSetCityName()) {
+                bh.consume(gl.getCityName().getStringValue());
+            }
+            bh.consume(gl.getStateOrProvinceCode());
+        }
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return doc.validate();
+    }
+
+    @Benchmark
+    public String xmlText() {
+        return doc.xmlText();
+    }
+
+    @Benchmark
+    public int save() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(bytes.length);
+        doc.save(bos);
+        return bos.size();
+    }
+
+    @Benchmark
+    public XmlObject[] selectPath() {
+        return doc.selectPath(LOCATION_PATH);
+    }
+
+    /**
+     * Creates the same message as the CarLocationMessage.xml resource
+     */
+    static CarLocationMessageDocument createCarLocationMessage() {
+        CarLocationMessageDocument doc = CarLocationMessageDocument.Factory.newInstance();
+        CarLocationMessage clm = doc.addNewCarLocationMessage();
+        clm.setTransaction(CLMTransactionCodeList.CLM);
+        clm.setVersion("CLM");
+        clm.setFleetID("FLEETNAME");
+        clm.setStandardCarrierAlphaCode("CSXT");
+
+        Calendar date = Calendar.getInstance();
+        EventStatus es = clm.addNewEventStatus();
+
+        EquipmentStructure eq = es.addNewEquipmentStructure();
+        eq.setInitial("GATX");
+        eq.setEquipmentNumber("123456");
+        eq.setLoadEmptyCode(CodeList322.L);
+
+        es.setDate(date);
+        es.addNewTime().setCalendarValue(date);
+        es.addNewEventStatusCode().setRailStatusCode("P");
+        es.setReasonCode("Q12345");
+        createLocation(es.addNewGeographicLocation());
+        es.setStandardCarrierAlphaCode("CSXT");
+        createLocation(es.addNewDestination().addNewGeographicLocation());
+
+        ETA eta = es.addNewETA();
+        createLocation(eta.addNewGeographicLocation());
+        eta.setDate(date);
+        eta.addNewTime().setCalendarValue(date);
+        eta.setETACode("P");
+
+        es.setAEIIndicatorCode("Y");
+
+        return doc;
+    }
+
+    private static void createLocation(GeographicLocation gl) {
+        gl.addNewCityName().setStringValue("DALLAS");
+        gl.setStateOrProvinceCode("TX");
+    }
+}
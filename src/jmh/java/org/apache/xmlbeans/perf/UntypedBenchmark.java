@@ -0,0 +1,137 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.xmlbeans.perf;
+
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Untyped loading and cursor walking of generated documents - ported from the BisLoad and
+ * CursorWalk scenarios of the test/perf suite.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UntypedBenchmark {
+    @Param({"deep-attributes", "wide-elements", "wide-text", "wide-attributes"})
+    public String flavor;
+
+    @Param({"10000"})
+    public int size;
+
+    private byte[] bytes;
+    private XmlObject doc;
+
+    @Setup
+    public void setup() throws XmlException, IOException {
+        bytes = createXmlData(flavor, size).getBytes(StandardCharsets.UTF_8);
+        doc = load();
+    }
+
+    @Benchmark
+    public XmlObject load() throws XmlException, IOException {
+        return XmlObject.Factory.parse(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public int cursorWalk() {
+        int hash = 0;
+        try (XmlCursor cursor = doc.newCursor()) {
+            while (cursor.hasNextToken()) {
+                if (cursor.isStart()) {
+                    hash += 17;
+                } else if (cursor.isContainer() || cursor.isAttr()) {
+                    hash += cursor.getTextValue().length();
+                } else if (cursor.isText()) {
+                    hash += cursor.getChars().length();
+                }
+                cursor.toNextToken();
+            }
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public String xmlText() {
+        return doc.xmlText();
+    }
+
+    @Benchmark
+    public int save() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(bytes.length);
+        doc.save(bos);
+        return bos.size();
+    }
+
+    @Benchmark
+    public XmlObject[] selectPath() {
+        return doc.selectPath("$this//c");
+    }
+
+    /**
+     * Creates a document of about size chars in the given flavor
+     */
+    static String createXmlData(String flavor, int size) {
+        final String childStart = "<c>";
+        final String childEnd = "</c>";
+        final String childAttribStart = "<c att=\"attval\">";
+        final String textChunk = "1234567890qwertyuiopasdfghjklzxcvbnm";
+
+        StringBuilder sb = new StringBuilder(size);
+        sb.append("<r>");
+        switch (flavor) {
+            case "deep-elements":
+            case "deep-attributes": {
+                int children = (size - 7) / (flavor.endsWith("elements") ? 7 : 20);
+                String start = flavor.endsWith("elements") ? childStart : childAttribStart;
+                for (int i = 0; i < children; i++) {
+                    sb.append(start);
+                }
+                for (int i = 0; i < children; i++) {
+                    sb.append(childEnd);
+                }
+                break;
+            }
+            case "wide-elements":
+                for (int i = (size - 7) / 7; i > 0; i--) {
+                    sb.append(childStart).append(childEnd);
+                }
+                break;
+            case "wide-text":
+                for (int i = (size - 7) / 43; i > 0; i--) {
+                    sb.append(childStart).append(textChunk).append(childEnd);
+                }
+                break;
+            case "wide-attributes":
+                for (int i = (size - 7) / 20; i > 0; i--) {
+                    sb.append(childAttribStart).append(childEnd);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown flavor: " + flavor);
+        }
+        sb.append("</r>");
+        return sb.toString();
+    }
+}
@@ -15,16 +15,21 @@
 
 package org.apache.xmlbeans;
 
+import org.apache.xmlbeans.impl.common.ByteBufferInputStream;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Node;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Represents a searchable set of XML Schema component definitions.
@@ -196,6 +201,32 @@ public interface SchemaTypeLoader {
      */
     XmlObject parse(InputStream jiois, SchemaType type, XmlOptions options) throws XmlException, IOException;
 
+    /**
+     * Parses an instance of the given type from len bytes of the array, starting at off.
+     * The bytes are read in place, without copying them first.
+     */
+    default XmlObject parse(byte[] bytes, int off, int len, SchemaType type, XmlOptions options) throws XmlException, IOException {
+        return parse(new ByteArrayInputStream(bytes, off, len), type, options);
+    }
+
+    /**
+     * Parses an instance of the given type from the bytes between the position and the limit
+     * of the buffer.  The bytes are read in place, the position of the buffer isn't changed.
+     */
+    default XmlObject parse(ByteBuffer buffer, SchemaType type, XmlOptions options) throws XmlException, IOException {
+        return parse(new ByteBufferInputStream(buffer.duplicate()), type, options);
+    }
+
+    /**
+     * Parses an instance of the given type from a file, which is memory-mapped for parsing.
+     * The default implementation reads the file as a stream instead.
+     */
+    default XmlObject parse(Path path, SchemaType type, XmlOptions options) throws XmlException, IOException {
+        try (InputStream is = Files.newInputStream(path)) {
+            return parse(is, type, options);
+        }
+    }
+
     /**
      * Parses an instance of the given type.
      */
@@ -205,4 +205,12 @@ public interface SchemaTypeSystem extends SchemaTypeLoader
      * Saves this type system using a Filer
      */
     void save(Filer filer);
+
+    /**
+     * Saves this type system using a Filer and the given save options,
+     * e.g. {@link XmlOptions#setCompileXsbArchive()}
+     */
+    default void save(Filer filer, XmlOptions options) {
+        save(filer);
+    }
 }
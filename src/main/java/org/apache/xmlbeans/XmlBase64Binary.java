@@ -15,6 +15,10 @@
 
 package org.apache.xmlbeans;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
 /**
  * Corresponds to the XML Schema
  * <a target="_blank" href="http://www.w3.org/TR/xmlschema-2/#base64Binary">xs:base64Binary</a> type.
@@ -32,11 +36,32 @@ public interface XmlBase64Binary extends XmlAnySimpleType {
      **/
     byte[] getByteArrayValue();
 
+    /**
+     * Returns a stream over this value, which decodes the text of the
+     * document while it's read, instead of decoding the whole value first.
+     * Malformed text causes an IOException while reading.
+     * Returns null, if the value is nil.
+     */
+    InputStream getByteStreamValue();
+
+    /**
+     * Returns this value as a read-only buffer, without copying it.
+     */
+    ByteBuffer getByteBufferValue();
+
     /**
      * Sets this value as a byte array.
      */
     void setByteArrayValue(byte[] ba);
 
+    /**
+     * Sets this value from a stream, which is encoded while it's read.
+     * The encoded text is stored in the chunks, in which it's produced, and
+     * the bytes aren't kept, they're decoded from the text when they're read.
+     * The document is locked while the stream is read.
+     */
+    void setByteStreamValue(InputStream is) throws IOException;
+
 
     /**
      * A class with methods for creating instances
@@ -417,6 +417,34 @@ public interface XmlObject extends XmlTokenSource {
      */
     boolean isImmutable();
 
+    /**
+     * Freezes the whole document this object belongs to.  A frozen document can't be changed
+     * anymore - all setters and cursor modifications throw an IllegalStateException.
+     * In exchange, the typed values are computed upfront and the strongly typed getters
+     * don't synchronize on the document, so many threads can read it in parallel.
+     * Cursors, DOM nodes and streams on a frozen document still access it one at a time.
+     * <p>
+     * Freezing is a one-way street.  The frozen document needs to be handed over to the
+     * reading threads in a thread safe way, e.g. via a final field or a concurrent collection.
+     * An object without an underlying document is made immutable instead.
+     * <p>
+     * The default implementation throws an XmlRuntimeException, for implementations
+     * which don't support frozen documents.
+     *
+     * @see XmlOptions#setLoadFrozen()
+     */
+    default void freeze() {
+        throw new XmlRuntimeException("Freezing is not supported by " + getClass().getName());
+    }
+
+    /**
+     * @return true, if the document of this object has been frozen or this value is immutable
+     * @see #freeze()
+     */
+    default boolean isFrozen() {
+        return false;
+    }
+
     /**
      * Set the value/type of this XmlObject to be a copy of the source
      * XmlObject.  Because the type of the source may be different than this
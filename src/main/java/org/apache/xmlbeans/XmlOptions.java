@@ -64,7 +64,8 @@ import java.util.*;
  *   <td>{@code setDocumentType}<br>
  *       {@code setDocumentSourceName}<br>
  *       {@code setValidateOnSet}<br>
- *       {@code setUnsynchronized}</td>
+ *       {@code setUnsynchronized}<br>
+ *       {@code setBuildMode}</td>
  *   <td>{@code setLoad***}<br>
  *       {@code setEntityResolver}</td>
  *   <td>{@code setErrorListener}<br>
@@ -116,6 +117,7 @@ public class XmlOptions implements java.io.Serializable {
         LOAD_SAVE_CDATA_BOOKMARKS,
         LOAD_SUBSTITUTE_NAMESPACES,
         LOAD_TRIM_TEXT_BUFFER,
+        LOAD_COMPACT_TEXT,
         LOAD_ADDITIONAL_NAMESPACES,
         LOAD_MESSAGE_DIGEST,
         LOAD_USE_DEFAULT_RESOLVER,
@@ -141,6 +143,7 @@ public class XmlOptions implements java.io.Serializable {
         VALIDATE_STRICT,
         VALIDATE_TEXT_ONLY,
         UNSYNCHRONIZED,
+        LOAD_FROZEN,
         ENTITY_RESOLVER,
         BASE_URI,
         SCHEMA_CODE_PRINTER,
@@ -157,12 +160,19 @@ public class XmlOptions implements java.io.Serializable {
         XPATH_USE_SAXON,
         XPATH_USE_XMLBEANS,
         ATTRIBUTE_VALIDATION_COMPAT_MODE,
+        CHILD_INDEX_THRESHOLD,
+        COMPILE_PARALLELISM,
+        COMPILE_XSB_ARCHIVE,
+        BUILD_MODE,
+        STREAM_BATCH_SIZE,
 
     }
 
 
     public static final int DEFAULT_ENTITY_EXPANSION_LIMIT = 2048;
 
+    public static final int DEFAULT_CHILD_INDEX_THRESHOLD = 64;
+
     private static final XmlOptions EMPTY_OPTIONS;
 
     static {
@@ -836,6 +846,26 @@ public class XmlOptions implements java.io.Serializable {
         return hasOption(XmlOptionsKeys.LOAD_TRIM_TEXT_BUFFER);
     }
 
+    /**
+     * If this option is set, text which only consists of Latin-1 characters is
+     * stored with one byte per character instead of two.  This roughly halves
+     * the memory used by the text of mostly ASCII documents, at the cost of
+     * widening the characters each time the text is read.
+     *
+     * @see org.apache.xmlbeans.impl.schema.XmlObjectFactory#parse(java.io.File, XmlOptions)
+     */
+    public XmlOptions setLoadCompactText() {
+        return setLoadCompactText(true);
+    }
+
+    public XmlOptions setLoadCompactText(boolean b) {
+        return set(XmlOptionsKeys.LOAD_COMPACT_TEXT, b);
+    }
+
+    public boolean isLoadCompactText() {
+        return hasOption(XmlOptionsKeys.LOAD_COMPACT_TEXT);
+    }
+
     /**
      * Set additional namespace mappings to be added when parsing
      * a document.
@@ -1089,6 +1119,27 @@ public class XmlOptions implements java.io.Serializable {
         return (Set<String>) get(XmlOptionsKeys.COMPILE_MDEF_NAMESPACES);
     }
 
+    /**
+     * Sets the number of threads, which the schema compiler uses for the phases, which work
+     * on the input schemas or the compiled types independently, i.e. the validation of the
+     * input schemas and the particle restriction checks.
+     * The errors are reported in the same order as in a sequential compilation, and the
+     * resulting type system is the same.
+     * The default value is 1, i.e. the whole compilation runs on the calling thread.
+     *
+     * @param compileParallelism the number of threads used by the compiler
+     * @return this
+     * @see XmlBeans#compileXsd
+     */
+    public XmlOptions setCompileParallelism(int compileParallelism) {
+        return set(XmlOptionsKeys.COMPILE_PARALLELISM, compileParallelism);
+    }
+
+    public int getCompileParallelism() {
+        Integer parallelism = (Integer) get(XmlOptionsKeys.COMPILE_PARALLELISM);
+        return parallelism == null ? 1 : parallelism;
+    }
+
     public XmlOptions setCompilePartialTypesystem() {
         return setCompilePartialTypesystem(true);
     }
@@ -1102,6 +1153,26 @@ public class XmlOptions implements java.io.Serializable {
         return flag != null && flag;
     }
 
+    /**
+     * If this option is set, the compiled schema components are saved into a single
+     * archive resource instead of one .xsb resource per component.
+     * The archive is memory-mapped when the type system is loaded from the file system,
+     * otherwise it's read with a single resource lookup.
+     *
+     * @see XmlBeans#compileXmlBeans
+     */
+    public XmlOptions setCompileXsbArchive() {
+        return setCompileXsbArchive(true);
+    }
+
+    public XmlOptions setCompileXsbArchive(boolean b) {
+        return set(XmlOptionsKeys.COMPILE_XSB_ARCHIVE, b);
+    }
+
+    public boolean isCompileXsbArchive() {
+        return hasOption(XmlOptionsKeys.COMPILE_XSB_ARCHIVE);
+    }
+
     /**
      * If this option is set when an instance is created, then value
      * facets will be checked on each call to a setter or getter
@@ -1191,6 +1262,24 @@ public class XmlOptions implements java.io.Serializable {
         return hasOption(XmlOptionsKeys.UNSYNCHRONIZED);
     }
 
+    /**
+     * If this option is set, the loaded document is frozen, i.e. it can't be changed anymore
+     * and its typed values can be read by multiple threads without synchronization.
+     *
+     * @see XmlObject#freeze()
+     */
+    public XmlOptions setLoadFrozen() {
+        return setLoadFrozen(true);
+    }
+
+    public XmlOptions setLoadFrozen(boolean b) {
+        return set(XmlOptionsKeys.LOAD_FROZEN, b);
+    }
+
+    public boolean isLoadFrozen() {
+        return hasOption(XmlOptionsKeys.LOAD_FROZEN);
+    }
+
     /**
      * If this option is set when compiling a schema, then the given
      * EntityResolver will be consulted in order to resolve any
@@ -1453,6 +1542,70 @@ public class XmlOptions implements java.io.Serializable {
         return flag != null && flag;
     }
 
+    /**
+     * Sets the number of child elements from which on the store builds an index of the child
+     * elements of a parent, when they are accessed by position, e.g. by the generated
+     * {@code getXxxArray(int)} and {@code sizeOfXxxArray()} methods.
+     * Without the index, each positional access walks the children of the parent.
+     * The index is dropped on the next structural change of the document.
+     * The default value is 64, a value of 0 disables the index.
+     *
+     * @param childIndexThreshold the minimum number of child elements to build an index for
+     * @return this
+     */
+    public XmlOptions setChildIndexThreshold(int childIndexThreshold) {
+        return set(XmlOptionsKeys.CHILD_INDEX_THRESHOLD, childIndexThreshold);
+    }
+
+    public int getChildIndexThreshold() {
+        Integer threshold = (Integer) get(XmlOptionsKeys.CHILD_INDEX_THRESHOLD);
+        return threshold == null ? DEFAULT_CHILD_INDEX_THRESHOLD : threshold;
+    }
+
+    /**
+     * If set, the generated {@code addNewXxx()} and {@code setXxx()} methods link new elements
+     * directly into the document, like the parser does, instead of moving them there with a
+     * temporary cursor.  The option is meant for documents, which are created with
+     * {@code newInstance} and then filled by the generated methods, e.g. to build a response.
+     * The document can be read, navigated and modified as usual in the meantime.
+     *
+     * @see SchemaTypeLoader#newInstance(SchemaType, XmlOptions)
+     */
+    public XmlOptions setBuildMode() {
+        return setBuildMode(true);
+    }
+
+    public XmlOptions setBuildMode(boolean b) {
+        return set(XmlOptionsKeys.BUILD_MODE, b);
+    }
+
+    public boolean isBuildMode() {
+        return hasOption(XmlOptionsKeys.BUILD_MODE);
+    }
+
+    /**
+     * Sets the number of events, which an {@link javax.xml.stream.XMLStreamReader} created by
+     * {@code newXMLStreamReader} reads at once from the document.  The document is locked
+     * once per batch instead of once per call, and the events of a batch are served from a buffer,
+     * which refers to the text of the document without copying it.
+     * A change of the document is detected when the next batch is read, until then the buffered
+     * events show the document as it was when they were read.
+     * <p>
+     * Frozen documents are read in batches of 64 events, unless a batch size is set.
+     * A value of 1 or less reads the events one by one.
+     *
+     * @param batchSize the number of events to read at once
+     * @return this
+     * @see XmlObject#freeze()
+     */
+    public XmlOptions setStreamBatchSize(int batchSize) {
+        return set(XmlOptionsKeys.STREAM_BATCH_SIZE, batchSize);
+    }
+
+    public Integer getStreamBatchSize() {
+        return (Integer) get(XmlOptionsKeys.STREAM_BATCH_SIZE);
+    }
+
     public enum BeanMethod {
         GET, XGET, IS_SET, IS_NIL, IS_NIL_IDX, SET, SET_NIL, SET_NIL_IDX, XSET, UNSET,
         GET_ARRAY, XGET_ARRAY, GET_IDX, XGET_IDX, XSET_ARRAY, XSET_IDX,
@@ -0,0 +1,80 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.xmlbeans.impl.common;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An input stream over the remaining bytes of a byte buffer, which doesn't copy the buffer
+ * contents.  Reading advances the position of the buffer, so pass a duplicate if the
+ * position of the caller's buffer needs to be kept.
+ */
+public final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer _buffer;
+    private int _mark;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        _buffer = buffer;
+        _mark = buffer.position();
+    }
+
+    @Override
+    public int read() {
+        return _buffer.hasRemaining() ? (_buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!_buffer.hasRemaining()) {
+            return -1;
+        }
+        int n = Math.min(len, _buffer.remaining());
+        _buffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        int k = (int) Math.max(0, Math.min(n, _buffer.remaining()));
+        _buffer.position(_buffer.position() + k);
+        return k;
+    }
+
+    @Override
+    public int available() {
+        return _buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        _mark = _buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        // like ByteArrayInputStream, reset to the start without a mark
+        _buffer.position(_mark);
+    }
+}
@@ -15,16 +15,143 @@
 
 package org.apache.xmlbeans.impl.common;
 
+import org.apache.xmlbeans.XmlRuntimeException;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
 /**
  * Whenever multiple locks must be acquired within the implementation of
- * XML Beans, this GlobalLock is acquired first, and then released when all
- * the acutally-needed locks have been acquired.  This prevents deadlocks.
+ * XML Beans, they are acquired in a global order, see {@link #synchronizedOn}.
+ * Only if two monitors have the same order, this GlobalLock is acquired first,
+ * and then released when all the acutally-needed locks have been acquired.
+ * This prevents deadlocks.
  */ 
 public class GlobalLock
 {
     private static final Mutex GLOBAL_MUTEX = new Mutex();
-    
-    public static void acquire() throws InterruptedException { GLOBAL_MUTEX.acquire(); }
+
+    // locale orders start beyond the identity hash codes, so a locale never ties with another monitor
+    private static final AtomicLong NEXT_LOCK_ORDER = new AtomicLong(1L << 32);
+
+    private static final LongAdder ORDERED = new LongAdder();
+    private static final LongAdder FALLBACK = new LongAdder();
+    private static final LongAdder CONTENDED = new LongAdder();
+    private static final LongAdder CONTENDED_NANOS = new LongAdder();
+
+    public static void acquire() throws InterruptedException
+    {
+        FALLBACK.increment();
+        if (!GLOBAL_MUTEX.tryToAcquire())
+        {
+            CONTENDED.increment();
+            long start = System.nanoTime();
+            GLOBAL_MUTEX.acquire();
+            CONTENDED_NANOS.add(System.nanoTime() - start);
+        }
+    }
+
     public static void tryToAcquire() { GLOBAL_MUTEX.tryToAcquire(); }
     public static void release() { GLOBAL_MUTEX.release(); }
+
+    /**
+     * @return a new unique lock order for a {@link XmlLocale}
+     */
+    public static long nextLockOrder()
+    {
+        return NEXT_LOCK_ORDER.getAndIncrement();
+    }
+
+    /**
+     * Runs the action while holding the monitors of two different objects.
+     * The monitors are acquired in the order of their {@link XmlLocale#lockOrder() lock order},
+     * respectively the identity hash code for other monitors, so threads working on the same
+     * pair of documents can't deadlock each other, while independent pairs don't block each other.
+     */
+    public static <T> T synchronizedOn(Object monitor1, Object monitor2, Supplier<T> action)
+    {
+        long order1 = lockOrder(monitor1);
+        long order2 = lockOrder(monitor2);
+
+        if (order1 != order2)
+        {
+            ORDERED.increment();
+            Object first = order1 < order2 ? monitor1 : monitor2;
+            Object second = order1 < order2 ? monitor2 : monitor1;
+            synchronized (first)
+            {
+                synchronized (second)
+                {
+                    return action.get();
+                }
+            }
+        }
+
+        // can't tell the order apart: use the global lock as tie-breaker
+        boolean acquired = false;
+        try
+        {
+            acquire();
+            acquired = true;
+
+            synchronized (monitor1)
+            {
+                synchronized (monitor2)
+                {
+                    release();
+                    acquired = false;
+
+                    return action.get();
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            throw new XmlRuntimeException(e);
+        }
+        finally
+        {
+            if (acquired)
+                release();
+        }
+    }
+
+    private static long lockOrder(Object monitor)
+    {
+        return (monitor instanceof XmlLocale)
+            ? ((XmlLocale) monitor).lockOrder()
+            : System.identityHashCode(monitor) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @return the number of monitor pairs, which were acquired in their lock order
+     */
+    public static long getOrderedCount() { return ORDERED.sum(); }
+
+    /**
+     * @return the number of times the global lock was acquired
+     */
+    public static long getFallbackCount() { return FALLBACK.sum(); }
+
+    /**
+     * @return the number of times a thread had to wait for the global lock
+     */
+    public static long getContendedCount() { return CONTENDED.sum(); }
+
+    /**
+     * @return the total time in nanoseconds, which threads have waited for the global lock
+     */
+    public static long getContendedNanos() { return CONTENDED_NANOS.sum(); }
+
+    /**
+     * Resets the lock statistics
+     */
+    public static void resetStatistics()
+    {
+        ORDERED.reset();
+        FALLBACK.reset();
+        CONTENDED.reset();
+        CONTENDED_NANOS.reset();
+    }
 }
@@ -52,6 +52,18 @@ public final class SAXHelper {
         return xmlReader;
     }
 
+    /**
+     * Returns a key for the security and DTD settings {@link #newXMLReader(XmlOptions)} applies.
+     * Readers created with options of the same key are configured identically and can be reused
+     * for each other.
+     */
+    public static String readerProfile(XmlOptions options) {
+        return (options.isLoadDTDGrammar() ? "G" : "-") +
+               (options.isLoadExternalDTD() ? "E" : "-") +
+               (options.disallowDocTypeDeclaration() ? "D" : "-") +
+               options.getEntityExpansionLimit();
+    }
+
     public static final EntityResolver IGNORING_ENTITY_RESOLVER =
         (publicId, systemId) -> new InputSource(new StringReader(""));
 
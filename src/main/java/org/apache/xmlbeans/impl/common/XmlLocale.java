@@ -21,7 +21,19 @@ public interface XmlLocale
 {
     boolean sync   ( );
     boolean noSync ( );
+
+    /**
+     * @return true, if the documents of the locale can't be changed anymore
+     */
+    default boolean isFrozen ( ) { return false; }
     
     void enter ( );
     void exit  ( );
+
+    /**
+     * @return the unique order, in which the monitors of locales are acquired,
+     * see {@link GlobalLock#nextLockOrder()}.  Other implementations are ordered
+     * like any other monitor, by their identity hash code.
+     */
+    default long lockOrder ( ) { return System.identityHashCode(this) & 0xFFFFFFFFL; }
 }
\ No newline at end of file
@@ -63,6 +63,55 @@ public class XmlWhitespace
         return collapse(v, XmlWhitespace.WS_COLLAPSE);
     }
 
+    /**
+     * Applies the white space rule in place, like {@link #collapse(String, int)},
+     * but without creating intermediate strings.
+     *
+     * @return the length of the normalized text, which starts at off
+     */
+    public static int collapse(char[] buf, int off, int len, int wsr)
+    {
+        if (wsr == SchemaType.WS_PRESERVE || wsr == SchemaType.WS_UNSPECIFIED)
+            return len;
+
+        int end = off + len;
+
+        if (wsr == SchemaType.WS_REPLACE)
+        {
+            for (int i = off; i < end; i++)
+            {
+                char ch = buf[i];
+                if (ch == '\n' || ch == '\t' || ch == '\r')
+                    buf[i] = ' ';
+            }
+            return len;
+        }
+
+        int j = off;
+        boolean pendingSpace = false;
+
+        for (int i = off; i < end; i++)
+        {
+            char ch = buf[i];
+            if (ch == ' ' || ch == '\n' || ch == '\t' || ch == '\r')
+            {
+                // leading white space is dropped
+                pendingSpace = j > off;
+            }
+            else
+            {
+                if (pendingSpace)
+                {
+                    buf[j++] = ' ';
+                    pendingSpace = false;
+                }
+                buf[j++] = ch;
+            }
+        }
+
+        return j - off;
+    }
+
     /**
      * The algorithm used by apply_wscanon: sometimes used in impls.
      */
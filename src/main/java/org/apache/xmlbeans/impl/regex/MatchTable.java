@@ -0,0 +1,421 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.xmlbeans.impl.regex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A table driven matcher for XML Schema patterns.
+ * <p>
+ * XML Schema patterns have no back references, anchors or look-arounds and always need
+ * to match the whole target, so there's no need for backtracking.  The operation flow is
+ * converted into a NFA, whose states are the char consuming operations.  For ASCII input
+ * the NFA is additionally turned into a DFA transition table.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+final class MatchTable {
+    private static final int MAX_STATES = 512;
+    private static final int MAX_DFA_STATES = 256;
+    private static final int ASCII = 128;
+
+    // NFA - the accepting state has the index nofstates
+    private final int nofstates;
+    private final int words;
+    private final int[] kinds;
+    private final int[] chars;
+    private final RangeToken[] ranges;
+    private final long[][] follows;
+    private final long[] startSet;
+    private final boolean singleLine;
+
+    // DFA for ASCII input, null if there would be too many states
+    private int[][] dfaNext;
+    private long[][] dfaSets;
+    private boolean[] dfaAccept;
+    private Map<BitSetKey, Integer> dfaIndex;
+
+    /**
+     * @return the table for the given operation flow, or null if the flow contains operations,
+     * which can't be expressed by the table
+     */
+    static MatchTable build(Op op, int options) {
+        // an empty flow only matches the empty string, which the backtracking matcher handles
+        if (op == null
+            || (options & RegularExpression.XMLSCHEMA_MODE) == 0
+            || (options & RegularExpression.IGNORE_CASE) != 0) {
+            return null;
+        }
+
+        Builder b = new Builder();
+        if (!b.collect(op)) {
+            return null;
+        }
+
+        MatchTable table = new MatchTable(b, op, (options & RegularExpression.SINGLE_LINE) != 0);
+        table.buildDfa();
+        return table;
+    }
+
+    private MatchTable(Builder b, Op op, boolean singleLine) {
+        this.nofstates = b.stateOps.size();
+        this.words = (this.nofstates + 1 + 63) / 64;
+        this.singleLine = singleLine;
+        this.kinds = new int[this.nofstates];
+        this.chars = new int[this.nofstates];
+        this.ranges = new RangeToken[this.nofstates];
+        this.follows = new long[this.nofstates][];
+
+        for (int s = 0; s < this.nofstates; s++) {
+            Op sop = b.stateOps.get(s);
+            int pos = b.statePos.get(s);
+            switch (sop.type) {
+                case Op.CHAR:
+                    this.kinds[s] = Op.CHAR;
+                    this.chars[s] = sop.getData();
+                    break;
+                case Op.STRING:
+                    this.kinds[s] = Op.CHAR;
+                    this.chars[s] = sop.getString().charAt(pos);
+                    break;
+                case Op.DOT:
+                    this.kinds[s] = Op.DOT;
+                    break;
+                default:
+                    this.kinds[s] = Op.RANGE;
+                    this.ranges[s] = sop.getToken();
+                    break;
+            }
+
+            long[] follow = new long[this.words];
+            if (sop.type == Op.STRING && pos < sop.getString().length() - 1) {
+                // the chars of a string are consecutive states
+                setBit(follow, s + 1);
+            } else {
+                b.closure(sop.next, follow, this.nofstates);
+            }
+            this.follows[s] = follow;
+        }
+
+        this.startSet = new long[this.words];
+        b.closure(op, this.startSet, this.nofstates);
+    }
+
+    private void buildDfa() {
+        List<long[]> sets = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        Map<BitSetKey, Integer> index = new HashMap<>();
+
+        sets.add(this.startSet);
+        index.put(new BitSetKey(this.startSet), 0);
+
+        for (int d = 0; d < sets.size(); d++) {
+            int[] row = new int[ASCII];
+            for (int ch = 0; ch < ASCII; ch++) {
+                long[] next = new long[this.words];
+                if (!step(sets.get(d), ch, next)) {
+                    row[ch] = -1;
+                    continue;
+                }
+                BitSetKey key = new BitSetKey(next);
+                Integer id = index.get(key);
+                if (id == null) {
+                    if (sets.size() >= MAX_DFA_STATES) {
+                        // stay with the NFA
+                        return;
+                    }
+                    id = sets.size();
+                    sets.add(next);
+                    index.put(key, id);
+                }
+                row[ch] = id;
+            }
+            rows.add(row);
+        }
+
+        this.dfaNext = rows.toArray(new int[0][]);
+        this.dfaSets = sets.toArray(new long[0][]);
+        this.dfaAccept = new boolean[this.dfaSets.length];
+        for (int d = 0; d < this.dfaSets.length; d++) {
+            this.dfaAccept[d] = testBit(this.dfaSets[d], this.nofstates);
+        }
+        this.dfaIndex = index;
+    }
+
+    /**
+     * Checks whether the whole range of the target matches.
+     */
+    boolean matches(RegularExpression.ExpressionTarget target, int start, int limit) {
+        int state = this.dfaNext == null ? -1 : 0;
+        long[] set = this.startSet;
+        long[] buf1 = null, buf2 = null;
+
+        for (int i = start; i < limit; ) {
+            int ch = target.charAt(i++);
+
+            if (state >= 0) {
+                if (ch < ASCII) {
+                    state = this.dfaNext[state][ch];
+                    if (state < 0) {
+                        return false;
+                    }
+                    continue;
+                }
+                set = this.dfaSets[state];
+                state = -1;
+            }
+
+            if (REUtil.isHighSurrogate(ch) && i < limit) {
+                ch = REUtil.composeFromSurrogates(ch, target.charAt(i++));
+            }
+
+            if (buf1 == null) {
+                buf1 = new long[this.words];
+                buf2 = new long[this.words];
+            }
+            long[] next = set == buf1 ? buf2 : buf1;
+            if (!step(set, ch, next)) {
+                return false;
+            }
+            set = next;
+
+            if (ch >= ASCII && this.dfaIndex != null) {
+                // try to get back to the DFA after non-ASCII chars
+                Integer d = this.dfaIndex.get(new BitSetKey(set));
+                if (d != null) {
+                    state = d;
+                }
+            }
+        }
+
+        return state >= 0 ? this.dfaAccept[state] : testBit(set, this.nofstates);
+    }
+
+    private boolean step(long[] set, int ch, long[] next) {
+        Arrays.fill(next, 0);
+        boolean any = false;
+
+        for (int w = 0; w < set.length; w++) {
+            for (long bits = set[w]; bits != 0; bits &= bits - 1) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (s < this.nofstates && accepts(s, ch)) {
+                    long[] follow = this.follows[s];
+                    for (int j = 0; j < follow.length; j++) {
+                        next[j] |= follow[j];
+                    }
+                    any = true;
+                }
+            }
+        }
+
+        return any;
+    }
+
+    private boolean accepts(int s, int ch) {
+        switch (this.kinds[s]) {
+            case Op.CHAR:
+                return ch == this.chars[s];
+            case Op.DOT:
+                return this.singleLine || !isEOLChar(ch);
+            default:
+                return this.ranges[s].match(ch);
+        }
+    }
+
+    private static boolean isEOLChar(int ch) {
+        return ch == RegularExpression.LINE_FEED || ch == RegularExpression.CARRIAGE_RETURN
+            || ch == RegularExpression.LINE_SEPARATOR || ch == RegularExpression.PARAGRAPH_SEPARATOR;
+    }
+
+    private static void setBit(long[] set, int bit) {
+        set[bit >> 6] |= 1L << bit;
+    }
+
+    private static boolean testBit(long[] set, int bit) {
+        return (set[bit >> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Collects the char consuming operations as NFA states
+     */
+    private static final class Builder {
+        final List<Op> stateOps = new ArrayList<>();
+        final List<Integer> statePos = new ArrayList<>();
+        private final Map<Op, Integer> ids = new IdentityHashMap<>();
+
+        boolean collect(Op op) {
+            Set<Op> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<Op> stack = new ArrayDeque<>();
+            stack.push(op);
+
+            while (!stack.isEmpty()) {
+                op = stack.pop();
+                if (!seen.add(op)) {
+                    continue;
+                }
+
+                switch (op.type) {
+                    case Op.CHAR:
+                        int data = op.getData();
+                        // the backtracking matcher compares single chars, so leave surrogates to it
+                        if (data > 0xffff || (data >= 0xd800 && data <= 0xdfff)) {
+                            return false;
+                        }
+                        addState(op, 0);
+                        break;
+
+                    case Op.STRING:
+                        String str = op.getString();
+                        for (int i = 0; i < str.length(); i++) {
+                            char ch = str.charAt(i);
+                            if (ch >= 0xd800 && ch <= 0xdfff) {
+                                return false;
+                            }
+                            addState(op, i);
+                        }
+                        break;
+
+                    case Op.DOT:
+                    case Op.RANGE:
+                    case Op.NRANGE:
+                        addState(op, 0);
+                        break;
+
+                    case Op.CAPTURE:
+                        break;
+
+                    case Op.UNION:
+                        for (int i = 0; i < op.size(); i++) {
+                            push(stack, op.elementAt(i));
+                        }
+                        break;
+
+                    case Op.CLOSURE:
+                    case Op.NONGREEDYCLOSURE:
+                    case Op.QUESTION:
+                    case Op.NONGREEDYQUESTION:
+                        push(stack, op.getChild());
+                        break;
+
+                    default:
+                        return false;
+                }
+
+                if (this.stateOps.size() > MAX_STATES) {
+                    return false;
+                }
+
+                push(stack, op.next);
+            }
+
+            return true;
+        }
+
+        private static void push(Deque<Op> stack, Op op) {
+            if (op != null) {
+                stack.push(op);
+            }
+        }
+
+        private void addState(Op op, int pos) {
+            if (pos == 0) {
+                this.ids.put(op, this.stateOps.size());
+            }
+            this.stateOps.add(op);
+            this.statePos.add(pos);
+        }
+
+        /**
+         * Adds the states reachable from op without consuming a char
+         */
+        void closure(Op op, long[] set, int accept) {
+            closure(op, set, accept, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+
+        private void closure(Op op, long[] set, int accept, Set<Op> visited) {
+            for (; ; ) {
+                if (op == null) {
+                    setBit(set, accept);
+                    return;
+                }
+                if (!visited.add(op)) {
+                    return;
+                }
+
+                switch (op.type) {
+                    case Op.STRING:
+                        if (op.getString().isEmpty()) {
+                            op = op.next;
+                            continue;
+                        }
+                        setBit(set, this.ids.get(op));
+                        return;
+
+                    case Op.CHAR:
+                    case Op.DOT:
+                    case Op.RANGE:
+                    case Op.NRANGE:
+                        setBit(set, this.ids.get(op));
+                        return;
+
+                    case Op.CAPTURE:
+                        op = op.next;
+                        continue;
+
+                    case Op.UNION:
+                        for (int i = 0; i < op.size(); i++) {
+                            closure(op.elementAt(i), set, accept, visited);
+                        }
+                        return;
+
+                    default:
+                        // closures and questions - either take the child or skip it
+                        closure(op.getChild(), set, accept, visited);
+                        op = op.next;
+                }
+            }
+        }
+    }
+
+    private static final class BitSetKey {
+        private final long[] bits;
+        private final int hash;
+
+        BitSetKey(long[] bits) {
+            this.bits = bits;
+            this.hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BitSetKey && Arrays.equals(this.bits, ((BitSetKey) o).bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
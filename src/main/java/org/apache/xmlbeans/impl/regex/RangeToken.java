@@ -521,6 +521,15 @@ final class RangeToken extends Token implements java.io.Serializable {
 
     private static final int MAPSIZE = 256;
 
+    /**
+     * Creates the lookup map ahead of matching.
+     */
+    void prepareMap() {
+        if (this.map == null) {
+            this.createMap();
+        }
+    }
+
     private void createMap() {
         int asize = MAPSIZE / 32;                 // 32 is the number of bits in `int'.
         // CHANGE(radup) we need a new map, since this is not synchronized
@@ -506,6 +506,8 @@ public class RegularExpression implements java.io.Serializable {
 
             case Token.RANGE:
             case Token.NRANGE:
+                // create the lookup map upfront, so it's published along with the operations
+                ((RangeToken)tok).prepareMap();
                 ret = Op.createRange(tok);
                 ret.next = next;
                 break;
@@ -683,18 +685,17 @@ public class RegularExpression implements java.io.Serializable {
      * @return Offset of the start position in <VAR>target</VAR>; or -1 if not match.
      */
     public boolean matches(char[] target, int start, int end, Match match) {
-
-        synchronized (this) {
-            if (this.operations == null)
-                this.prepare();
-            if (this.context == null)
-                this.context = new Context();
-        }
-        Context con = null;
-        synchronized (this.context) {
-            con = this.context.inuse ? new Context() : this.context;
+        this.ensurePrepared();
+        Context con = Context.acquire();
+        try {
             con.reset(target, start, end, this.numberOfClosures);
+            return this.matches(con, target, match);
+        } finally {
+            con.release();
         }
+    }
+
+    private boolean matches(Context con, char[] target, Match match) {
         if (match != null) {
             match.setNumberOfGroups(this.nofparen);
             match.setSource(target);
@@ -707,6 +708,9 @@ public class RegularExpression implements java.io.Serializable {
         con.match = match;
 
         if (RegularExpression.isSet(this.options, XMLSCHEMA_MODE)) {
+            if (con.match == null && this.table != null) {
+                return this.table.matches(con.target, con.start, con.limit);
+            }
             int matchEnd = this. match(con, this.operations, con.start, 1, this.options);
             //System.err.println("DEBUG: matchEnd="+matchEnd);
             if (matchEnd == con.limit) {
@@ -714,7 +718,6 @@ public class RegularExpression implements java.io.Serializable {
                     con.match.setBeginning(0, con.start);
                     con.match.setEnd(0, matchEnd);
                 }
-                con.setInUse(false);
                 return true;
             }
             return false;
@@ -732,10 +735,8 @@ public class RegularExpression implements java.io.Serializable {
                     con.match.setBeginning(0, o);
                     con.match.setEnd(0, o+this.fixedString.length());
                 }
-                con.setInUse(false);
                 return true;
             }
-            con.setInUse(false);
             return false;
         }
 
@@ -748,7 +749,6 @@ public class RegularExpression implements java.io.Serializable {
             int o = this.fixedStringTable.matches(target, con.start, con.limit);
             if (o < 0) {
                 //System.err.println("Non-match in fixed-string search.");
-                con.setInUse(false);
                 return false;
             }
         }
@@ -819,10 +819,8 @@ public class RegularExpression implements java.io.Serializable {
                 con.match.setBeginning(0, matchStart);
                 con.match.setEnd(0, matchEnd);
             }
-            con.setInUse(false);
             return true;
         } else {
-            con.setInUse(false);
             return false;
         }
     }
@@ -868,18 +866,17 @@ public class RegularExpression implements java.io.Serializable {
      * @return Offset of the start position in <VAR>target</VAR>; or -1 if not match.
      */
     public boolean matches(String  target, int start, int end, Match match) {
-
-        synchronized (this) {
-            if (this.operations == null)
-                this.prepare();
-            if (this.context == null)
-                this.context = new Context();
-        }
-        Context con = null;
-        synchronized (this.context) {
-            con = this.context.inuse ? new Context() : this.context;
+        this.ensurePrepared();
+        Context con = Context.acquire();
+        try {
             con.reset(target, start, end, this.numberOfClosures);
+            return this.matches(con, target, match);
+        } finally {
+            con.release();
         }
+    }
+
+    private boolean matches(Context con, String target, Match match) {
         if (match != null) {
             match.setNumberOfGroups(this.nofparen);
             match.setSource(target);
@@ -892,6 +889,9 @@ public class RegularExpression implements java.io.Serializable {
         con.match = match;
 
         if (RegularExpression.isSet(this.options, XMLSCHEMA_MODE)) {
+            if (con.match == null && this.table != null) {
+                return this.table.matches(con.target, con.start, con.limit);
+            }
             if (DEBUG) {
                 System.err.println("target string="+target);
             }
@@ -905,7 +905,6 @@ public class RegularExpression implements java.io.Serializable {
                     con.match.setBeginning(0, con.start);
                     con.match.setEnd(0, matchEnd);
                 }
-                con.setInUse(false);
                 return true;
             }
             return false;
@@ -923,10 +922,8 @@ public class RegularExpression implements java.io.Serializable {
                     con.match.setBeginning(0, o);
                     con.match.setEnd(0, o+this.fixedString.length());
                 }
-                con.setInUse(false);
                 return true;
             }
-            con.setInUse(false);
             return false;
         }
 
@@ -939,7 +936,6 @@ public class RegularExpression implements java.io.Serializable {
             int o = this.fixedStringTable.matches(target, con.start, con.limit);
             if (o < 0) {
                 //System.err.println("Non-match in fixed-string search.");
-                con.setInUse(false);
                 return false;
             }
         }
@@ -1010,10 +1006,8 @@ public class RegularExpression implements java.io.Serializable {
                 con.match.setBeginning(0, matchStart);
                 con.match.setEnd(0, matchEnd);
             }
-            con.setInUse(false);
             return true;
         } else {
-            con.setInUse(false);
             return false;
         }
     }
@@ -1548,19 +1542,17 @@ public class RegularExpression implements java.io.Serializable {
         int start = target.getBeginIndex();
         int end = target.getEndIndex();
 
-
-
-        synchronized (this) {
-            if (this.operations == null)
-                this.prepare();
-            if (this.context == null)
-                this.context = new Context();
-        }
-        Context con = null;
-        synchronized (this.context) {
-            con = this.context.inuse ? new Context() : this.context;
+        this.ensurePrepared();
+        Context con = Context.acquire();
+        try {
             con.reset(target, start, end, this.numberOfClosures);
+            return this.matches(con, target, match);
+        } finally {
+            con.release();
         }
+    }
+
+    private boolean matches(Context con, CharacterIterator target, Match match) {
         if (match != null) {
             match.setNumberOfGroups(this.nofparen);
             match.setSource(target);
@@ -1573,6 +1565,9 @@ public class RegularExpression implements java.io.Serializable {
         con.match = match;
 
         if (RegularExpression.isSet(this.options, XMLSCHEMA_MODE)) {
+            if (con.match == null && this.table != null) {
+                return this.table.matches(con.target, con.start, con.limit);
+            }
             int matchEnd = this.match(con, this.operations, con.start, 1, this.options);
             //System.err.println("DEBUG: matchEnd="+matchEnd);
             if (matchEnd == con.limit) {
@@ -1580,7 +1575,6 @@ public class RegularExpression implements java.io.Serializable {
                     con.match.setBeginning(0, con.start);
                     con.match.setEnd(0, matchEnd);
                 }
-                con.setInUse(false);
                 return true;
             }
             return false;
@@ -1598,10 +1592,8 @@ public class RegularExpression implements java.io.Serializable {
                     con.match.setBeginning(0, o);
                     con.match.setEnd(0, o+this.fixedString.length());
                 }
-                con.setInUse(false);
                 return true;
             }
-            con.setInUse(false);
             return false;
         }
 
@@ -1614,7 +1606,6 @@ public class RegularExpression implements java.io.Serializable {
             int o = this.fixedStringTable.matches(target, con.start, con.limit);
             if (o < 0) {
                 //System.err.println("Non-match in fixed-string search.");
-                con.setInUse(false);
                 return false;
             }
         }
@@ -1685,10 +1676,8 @@ public class RegularExpression implements java.io.Serializable {
                 con.match.setBeginning(0, matchStart);
                 con.match.setEnd(0, matchEnd);
             }
-            con.setInUse(false);
             return true;
         } else {
-            con.setInUse(false);
             return false;
         }
     }
@@ -1721,7 +1710,8 @@ public class RegularExpression implements java.io.Serializable {
     transient int minlength;
     transient Op operations = null;
     transient int numberOfClosures;
-    transient Context context = null;
+    transient MatchTable table = null;
+    private transient volatile boolean prepared = false;
     transient RangeToken firstChar = null;
 
     transient String fixedString = null;
@@ -1992,6 +1982,9 @@ public class RegularExpression implements java.io.Serializable {
     }
 
     static final class Context {
+        // contexts are confined to the matching thread, so the expressions don't need to be synchronized
+        private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
         int start;
         int limit;
         int length;
@@ -2008,11 +2001,38 @@ public class RegularExpression implements java.io.Serializable {
         Context() {
         }
 
+        /**
+         * @return the context of the current thread, or a new one if that is already in use
+         */
+        static Context acquire() {
+            Context con = CONTEXT.get();
+            return con.inuse ? new Context() : con;
+        }
+
+        /**
+         * Releases the context and the references to the matched target
+         */
+        void release() {
+            this.inuse = false;
+            this.match = null;
+            this.target = null;
+            if (this.stringTarget != null) {
+                this.stringTarget.resetTarget(null);
+            }
+            if (this.charArrayTarget != null) {
+                this.charArrayTarget.resetTarget(null);
+            }
+            if (this.characterIteratorTarget != null) {
+                this.characterIteratorTarget.resetTarget(null);
+            }
+        }
+
         private void resetCommon(int nofclosures) {
             this.length = this.limit-this.start;
-            setInUse(true);
+            this.inuse = true;
             this.match = null;
-            if (this.closureContexts == null || this.closureContexts.length != nofclosures) {
+            // the closure contexts are shared by the expressions matched on this thread
+            if (this.closureContexts == null || this.closureContexts.length < nofclosures) {
                 this.closureContexts = new ClosureContext[nofclosures];
             }
             for (int i = 0;  i < nofclosures;  i ++)  {
@@ -2063,8 +2083,21 @@ public class RegularExpression implements java.io.Serializable {
             this.limit = limit;
             this.resetCommon(nofclosures);
         }
-        synchronized void setInUse(boolean inUse) {
-            this.inuse = inUse;
+    }
+
+    /**
+     * Prepares for matching once.  The volatile flag publishes the compiled operations to
+     * other threads, so matching doesn't need to synchronize afterwards.
+     */
+    private void ensurePrepared() {
+        if (!this.prepared) {
+            synchronized (this) {
+                if (!this.prepared) {
+                    if (this.operations == null)
+                        this.prepare();
+                    this.prepared = true;
+                }
+            }
         }
     }
 
@@ -2092,6 +2125,7 @@ public class RegularExpression implements java.io.Serializable {
             int fresult = this.tokentree.analyzeFirstCharacter(firstChar, this.options);
             if (fresult == Token.FC_TERMINAL) {
                 firstChar.compactRanges();
+                firstChar.prepareMap();
                 this.firstChar = firstChar;
                 if (DEBUG)
                     System.err.println("DEBUG: Use the first character optimization: "+firstChar);
@@ -2137,6 +2171,10 @@ public class RegularExpression implements java.io.Serializable {
                 }
             }
         }
+
+        if (!this.hasBackReferences) {
+            this.table = MatchTable.build(this.operations, this.options);
+        }
     }
 
     /**
@@ -2265,7 +2303,8 @@ public class RegularExpression implements java.io.Serializable {
         this.hasBackReferences = rp.hasBackReferences;
 
         this.operations = null;
-        this.context = null;
+        this.table = null;
+        this.prepared = false;
     }
     /**
      *
@@ -26,6 +26,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
 @SuppressWarnings("unchecked")
 public class AbstractDocumentFactory<T> extends ElementFactory<T> {
@@ -71,6 +73,39 @@ public class AbstractDocumentFactory<T> extends ElementFactory<T> {
         return (T) getTypeLoader().parse(is, getType(), options);
     }
 
+    /**
+     * @param bytes the array, whose bytes from off to off+len are parsed in place
+     */
+    public T parse(byte[] bytes, int off, int len) throws XmlException, IOException {
+        return (T) getTypeLoader().parse(bytes, off, len, getType(), null);
+    }
+
+    public T parse(byte[] bytes, int off, int len, XmlOptions options) throws XmlException, IOException {
+        return (T) getTypeLoader().parse(bytes, off, len, getType(), options);
+    }
+
+    /**
+     * @param buffer the buffer, whose remaining bytes are parsed in place
+     */
+    public T parse(ByteBuffer buffer) throws XmlException, IOException {
+        return (T) getTypeLoader().parse(buffer, getType(), null);
+    }
+
+    public T parse(ByteBuffer buffer, XmlOptions options) throws XmlException, IOException {
+        return (T) getTypeLoader().parse(buffer, getType(), options);
+    }
+
+    /**
+     * @param path the file from which to load an xml document, it's memory-mapped for parsing
+     */
+    public T parse(Path path) throws XmlException, IOException {
+        return (T) getTypeLoader().parse(path, getType(), null);
+    }
+
+    public T parse(Path path, XmlOptions options) throws XmlException, IOException {
+        return (T) getTypeLoader().parse(path, getType(), options);
+    }
+
     public T parse(Reader r) throws XmlException, IOException {
         return (T) getTypeLoader().parse(r, getType(), null);
     }
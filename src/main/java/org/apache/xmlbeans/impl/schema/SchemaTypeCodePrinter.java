@@ -1460,6 +1460,12 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
         emit("check_orphaned();");
     }
 
+    void emitGetterPreamble() throws IOException {
+        emit("synchronized (read_monitor()) {");
+        indent();
+        emit("check_orphaned();");
+    }
+
     void emitImplementationPostamble() throws IOException {
         outdent();
         emit("}");
@@ -1593,7 +1599,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
         emit("public java.util.List<" + wrappedType + "> " + (xget ? "xget" : "get") + propertyName + "List() {");
         startBlock();
 
-        emitImplementationPreamble();
+        emitGetterPreamble();
 
         emit("return new org.apache.xmlbeans.impl.values.JavaList" + ((xmltype || xget) ? "Xml" : "") + "Object<>(");
         indent();
@@ -1663,7 +1669,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
                 }
                 emit("public " + type + " get" + propertyName + "() {");
                 startBlock();
-                emitImplementationPreamble();
+                emitGetterPreamble();
 
                 emitGetTarget(setIdentifier, identifier, isAttr, "0", NOTHING, jtargetType);
 
@@ -1691,7 +1697,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
                 }
                 emit("public " + xtype + " xget" + propertyName + "() {");
                 startBlock();
-                emitImplementationPreamble();
+                emitGetterPreamble();
                 emitGetTarget(setIdentifier, identifier, isAttr, "0", NOTHING, xtype);
 
                 if (isAttr && (prop.hasDefault() == SchemaProperty.CONSISTENTLY ||
@@ -1715,7 +1721,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
                 }
                 emit("public boolean isNil" + propertyName + "() {");
                 startBlock();
-                emitImplementationPreamble();
+                emitGetterPreamble();
                 emitGetTarget(setIdentifier, identifier, isAttr, "0", NOTHING, xtype);
 
                 emit("return target != null && target.isNil();");
@@ -1733,7 +1739,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
             emit("public boolean isSet" + propertyName + "() {");
 
             startBlock();
-            emitImplementationPreamble();
+            emitGetterPreamble();
 
             if (isAttr) {
                 emit("return get_store().find_attribute_user(" + identifier + ") != null;");
@@ -1779,7 +1785,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
                 }
                 emit("public " + type + " get" + arrayName + "(int i) {");
                 startBlock();
-                emitImplementationPreamble();
+                emitGetterPreamble();
 
                 emitGetTarget(setIdentifier, identifier, isAttr, "i", THROW_EXCEPTION, jtargetType);
                 emit("return " + printJGetValue(javaType, type, (SchemaTypeImpl) prop.getType()) + ";");
@@ -1812,7 +1818,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
                 }
                 emit("public " + xtype + " xget" + arrayName + "(int i) {");
                 startBlock();
-                emitImplementationPreamble();
+                emitGetterPreamble();
                 emitGetTarget(setIdentifier, identifier, isAttr, "i", THROW_EXCEPTION, xtype);
                 emit("return target;");
                 emitImplementationPostamble();
@@ -1827,7 +1833,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
                 }
                 emit("public boolean isNil" + arrayName + "(int i) {");
                 startBlock();
-                emitImplementationPreamble();
+                emitGetterPreamble();
                 emitGetTarget(setIdentifier, identifier, isAttr, "i", THROW_EXCEPTION, xtype);
                 emit("return target.isNil();");
                 emitImplementationPostamble();
@@ -1842,7 +1848,7 @@ public final class SchemaTypeCodePrinter implements SchemaCodePrinter {
                 }
                 emit("public int sizeOf" + arrayName + "() {");
                 startBlock();
-                emitImplementationPreamble();
+                emitGetterPreamble();
                 emit("return get_store().count_elements(" + setIdentifier + ");");
                 emitImplementationPostamble();
                 endBlock();
@@ -16,6 +16,7 @@
 package org.apache.xmlbeans.impl.schema;
 
 import org.apache.xmlbeans.*;
+import org.apache.xmlbeans.impl.common.ByteBufferInputStream;
 import org.apache.xmlbeans.impl.common.QNameHelper;
 import org.apache.xmlbeans.impl.store.Locale;
 import org.apache.xmlbeans.impl.xpath.XPathFactory;
@@ -28,7 +29,12 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -165,6 +171,28 @@ public abstract class SchemaTypeLoaderBase implements SchemaTypeLoader {
         }
     }
 
+    public XmlObject parse(Path path, SchemaType type, XmlOptions options) throws XmlException, IOException {
+        String fileName = path.toUri().normalize().toString();
+        if (options == null) {
+            options = new XmlOptions();
+            options.setDocumentSourceName(fileName);
+        } else if (options.getDocumentSourceName() == null) {
+            options = new XmlOptions(options);
+            options.setDocumentSourceName(fileName);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                // a byte buffer can't map more than 2 GB
+                try (InputStream is = Channels.newInputStream(channel)) {
+                    return parse(is, type, options);
+                }
+            }
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), type, options);
+        }
+    }
+
     public XmlObject parse(URL url, SchemaType type, XmlOptions options) throws XmlException, IOException {
         if (options == null) {
             options = new XmlOptions();
@@ -240,6 +268,18 @@ public abstract class SchemaTypeLoaderBase implements SchemaTypeLoader {
         return result;
     }
 
+    public XmlObject parse(byte[] bytes, int off, int len, SchemaType type, XmlOptions options) throws XmlException, IOException {
+        // the parser decodes the bytes itself, so they're handed over without an intermediate buffer
+        return parse(new ByteArrayInputStream(bytes, off, len), type, options);
+    }
+
+    public XmlObject parse(ByteBuffer buffer, SchemaType type, XmlOptions options) throws XmlException, IOException {
+        if (buffer.hasArray()) {
+            return parse(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), type, options);
+        }
+        return parse(new ByteBufferInputStream(buffer.duplicate()), type, options);
+    }
+
     public XmlObject parse(Reader jior, SchemaType type, XmlOptions options) throws XmlException, IOException {
         XmlFactoryHook hook = XmlFactoryHook.ThreadContext.getHook();
 
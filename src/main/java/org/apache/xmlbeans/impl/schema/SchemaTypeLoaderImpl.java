@@ -25,6 +25,8 @@ import javax.xml.namespace.QName;
 import java.io.InputStream;
 import java.lang.ref.SoftReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.apache.xmlbeans.impl.schema.SchemaTypeSystemImpl.METADATA_PACKAGE_GEN;
 
@@ -46,82 +48,122 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
     private Map<String, Object> _classnameCache;
     private final String _metadataPath;
 
+    private final LongAdder _cacheHits = new LongAdder();
+    private final LongAdder _cacheNegativeHits = new LongAdder();
+    private final LongAdder _cacheMisses = new LongAdder();
+    private final LongAdder _cacheEvictions = new LongAdder();
+
     public static String METADATA_PACKAGE_LOAD = METADATA_PACKAGE_GEN;
     private static final Object CACHED_NOT_FOUND = new Object();
 
+    // the maximum entries of each component cache, 0 or less for unbounded caches
+    private static final int CACHE_SIZE = initCacheSize();
+    // the number of entries, which are inspected for a negative entry before evicting
+    private static final int EVICTION_SCAN = 8;
+
     private static final String[] basePackage = {"org.apache.xmlbeans.metadata", "schemaorg_apache_xmlbeans"};
     private static final String[] baseSchemas = {"sXMLCONFIG", "sXMLLANG", "sXMLSCHEMA", "sXMLTOOLS"};
 
 
     private static class SchemaTypeLoaderCache extends SystemCache {
-        // The following maintains a cache of SchemaTypeLoaders per ClassLoader per Thread.
+        // The following maintains a cache of SchemaTypeLoaders per ClassLoader, which is shared
+        // by all threads, so new (virtual) threads don't need to build their own loaders.
         // I use soft references to allow the garbage collector to reclaim the type loaders
         // and/or class loaders at will.
+        //
+        // There are usually only a few context class loaders, so the entries are kept in an array,
+        // which is replaced on each change. Lookups only read the volatile array and don't lock.
 
-        private final ThreadLocal<List<SoftReference<SchemaTypeLoaderImpl>>> _cachedTypeSystems = ThreadLocal.withInitial(ArrayList::new);
+        @SuppressWarnings("unchecked")
+        private volatile SoftReference<SchemaTypeLoaderImpl>[] _cachedTypeSystems = new SoftReference[0];
 
-        @Override
-        public void clearThreadLocals() {
-            _cachedTypeSystems.remove();
+        public SchemaTypeLoader getFromTypeLoaderCache(ClassLoader cl) {
+            for (SoftReference<SchemaTypeLoaderImpl> ref : _cachedTypeSystems) {
+                SchemaTypeLoaderImpl tl = ref.get();
+                if (tl != null && tl._classLoader == cl) {
+                    return tl;
+                }
+            }
 
-            super.clearThreadLocals();
+            return null;
         }
 
-        public SchemaTypeLoader getFromTypeLoaderCache(ClassLoader cl) {
-            List<SoftReference<SchemaTypeLoaderImpl>> a = _cachedTypeSystems.get();
+        public void addToTypeLoaderCache(SchemaTypeLoader stl, ClassLoader cl) {
+            assert (stl instanceof SchemaTypeLoaderImpl) &&
+                   ((SchemaTypeLoaderImpl) stl)._classLoader == cl;
 
-            int candidate = -1;
-            SchemaTypeLoaderImpl result = null;
+            synchronized (this) {
+                SoftReference<SchemaTypeLoaderImpl>[] old = _cachedTypeSystems;
+                List<SoftReference<SchemaTypeLoaderImpl>> a = new ArrayList<>(old.length + 1);
 
-            for (int i = 0; i < a.size(); i++) {
-                SchemaTypeLoaderImpl tl = a.get(i).get();
+                // Make sure this entry is at the top and drop the reclaimed entries.
+                // If another thread won the race for the same class loader, keep its entry.
+                for (SoftReference<SchemaTypeLoaderImpl> ref : old) {
+                    SchemaTypeLoaderImpl tl = ref.get();
+                    if (tl != null && tl._classLoader == cl) {
+                        return;
+                    }
+                }
 
-                if (tl == null) {
-                    a.remove(i--);
-                } else if (tl._classLoader == cl) {
-                    candidate = i;
-                    result = tl;
-                    break;
+                a.add(new SoftReference<>((SchemaTypeLoaderImpl) stl));
+                for (SoftReference<SchemaTypeLoaderImpl> ref : old) {
+                    if (ref.get() != null) {
+                        a.add(ref);
+                    }
                 }
+
+                //noinspection unchecked
+                _cachedTypeSystems = a.toArray(new SoftReference[0]);
             }
+        }
 
-            // Make sure the most recently accessed entry is at the beginning of the array
+        /**
+         * Drops the type loader of the given class loader and the reclaimed entries,
+         * so the class loader isn't kept alive by the cache, e.g. on undeploying a web app.
+         */
+        public void removeFromTypeLoaderCache(ClassLoader cl) {
+            synchronized (this) {
+                SoftReference<SchemaTypeLoaderImpl>[] old = _cachedTypeSystems;
+                List<SoftReference<SchemaTypeLoaderImpl>> a = new ArrayList<>(old.length);
+                for (SoftReference<SchemaTypeLoaderImpl> ref : old) {
+                    SchemaTypeLoaderImpl tl = ref.get();
+                    if (tl != null && tl._classLoader != cl) {
+                        a.add(ref);
+                    }
+                }
 
-            if (candidate > 0) {
-                SoftReference<SchemaTypeLoaderImpl> t = a.get(0);
-                a.set(0, a.get(candidate));
-                a.set(candidate, t);
+                if (a.size() != old.length) {
+                    //noinspection unchecked
+                    _cachedTypeSystems = a.toArray(new SoftReference[0]);
+                }
             }
-
-            return result;
         }
 
-        public void addToTypeLoaderCache(SchemaTypeLoader stl, ClassLoader cl) {
-            assert (stl instanceof SchemaTypeLoaderImpl) &&
-                   ((SchemaTypeLoaderImpl) stl)._classLoader == cl;
+        @Override
+        public void clearThreadLocals() {
+            // the cache is shared by all threads, so only the loader of this thread's context is released
+            removeFromTypeLoaderCache(Thread.currentThread().getContextClassLoader());
 
-            List<SoftReference<SchemaTypeLoaderImpl>> a = _cachedTypeSystems.get();
-            // Make sure this entry is at the top of the stack
-            if (!a.isEmpty()) {
-                SoftReference<SchemaTypeLoaderImpl> t = a.get(0);
-                a.set(0, new SoftReference<>((SchemaTypeLoaderImpl) stl));
-                a.add(t);
-            } else {
-                a.add(new SoftReference<>((SchemaTypeLoaderImpl) stl));
-            }
+            super.clearThreadLocals();
         }
     }
 
     public static SchemaTypeLoaderImpl getContextTypeLoader() {
         ClassLoader cl = Thread.currentThread().getContextClassLoader();
-        SchemaTypeLoaderImpl result = (SchemaTypeLoaderImpl)
-            SystemCache.get().getFromTypeLoaderCache(cl);
+        SystemCache cache = SystemCache.get();
+        SchemaTypeLoaderImpl result = (SchemaTypeLoaderImpl) cache.getFromTypeLoaderCache(cl);
 
         if (result == null) {
             result =
                 new SchemaTypeLoaderImpl(
                     new SchemaTypeLoader[]{BuiltinSchemaTypeSystem.get()}, null, cl, null);
-            SystemCache.get().addToTypeLoaderCache(result, cl);
+            cache.addToTypeLoaderCache(result, cl);
+
+            // use the loader of the thread, which was faster
+            SchemaTypeLoaderImpl cached = (SchemaTypeLoaderImpl) cache.getFromTypeLoaderCache(cl);
+            if (cached != null) {
+                result = cached;
+            }
         }
 
         return result;
@@ -244,17 +286,108 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
      * Initializes the caches.
      */
     private void initCaches() {
+        // loading a type system can recursively load other type systems, so this map stays
+        // synchronized - a concurrent map doesn't allow recursive updates in computeIfAbsent
         _classpathTypeSystems = Collections.synchronizedMap(new HashMap<>());
-        _classLoaderTypeSystems = Collections.synchronizedMap(new HashMap<>());
-        _elementCache = Collections.synchronizedMap(new HashMap<>());
-        _attributeCache = Collections.synchronizedMap(new HashMap<>());
-        _modelGroupCache = Collections.synchronizedMap(new HashMap<>());
-        _attributeGroupCache = Collections.synchronizedMap(new HashMap<>());
-        _idConstraintCache = Collections.synchronizedMap(new HashMap<>());
-        _typeCache = Collections.synchronizedMap(new HashMap<>());
-        _documentCache = Collections.synchronizedMap(new HashMap<>());
-        _attributeTypeCache = Collections.synchronizedMap(new HashMap<>());
-        _classnameCache = Collections.synchronizedMap(new HashMap<>());
+        _classLoaderTypeSystems = new ConcurrentHashMap<>();
+        _elementCache = new ConcurrentHashMap<>();
+        _attributeCache = new ConcurrentHashMap<>();
+        _modelGroupCache = new ConcurrentHashMap<>();
+        _attributeGroupCache = new ConcurrentHashMap<>();
+        _idConstraintCache = new ConcurrentHashMap<>();
+        _typeCache = new ConcurrentHashMap<>();
+        _documentCache = new ConcurrentHashMap<>();
+        _attributeTypeCache = new ConcurrentHashMap<>();
+        _classnameCache = new ConcurrentHashMap<>();
+    }
+
+    private <K> Object cacheGet(Map<K, Object> cache, K key) {
+        Object cached = cache.get(key);
+        if (cached == null) {
+            _cacheMisses.increment();
+        } else if (cached == CACHED_NOT_FOUND) {
+            _cacheNegativeHits.increment();
+        } else {
+            _cacheHits.increment();
+        }
+        return cached;
+    }
+
+    private <K> void cachePut(Map<K, Object> cache, K key, Object value) {
+        if (CACHE_SIZE > 0 && cache.size() >= CACHE_SIZE) {
+            evict(cache);
+        }
+        cache.put(key, value);
+    }
+
+    private <K> void evict(Map<K, Object> cache) {
+        // arbitrary names from untrusted input mostly end up as negative entries, so these are
+        // dropped first.  Otherwise, instead of tracking the usage, simply drop an arbitrary entry
+        K victim = null;
+        Iterator<Map.Entry<K, Object>> it = cache.entrySet().iterator();
+        for (int i = 0; i < EVICTION_SCAN && it.hasNext(); i++) {
+            Map.Entry<K, Object> e = it.next();
+            if (victim == null || e.getValue() == CACHED_NOT_FOUND) {
+                victim = e.getKey();
+                if (e.getValue() == CACHED_NOT_FOUND) {
+                    break;
+                }
+            }
+        }
+        if (victim != null && cache.remove(victim) != null) {
+            _cacheEvictions.increment();
+        }
+    }
+
+    private static int initCacheSize() {
+        String size = SystemProperties.getProperty("xmlbean.typeloadercachesize", "0");
+        try {
+            int cacheSize = Integer.parseInt(size);
+            if (cacheSize >= 0) {
+                return cacheSize;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        XBeanDebug.LOG.atWarn().log("Invalid xmlbean.typeloadercachesize {} - using default", size);
+        return 0;
+    }
+
+    /**
+     * @return the number of component lookups, which were found in the caches of this loader
+     */
+    public long getCacheHits() {
+        return _cacheHits.sum();
+    }
+
+    /**
+     * @return the number of component lookups, which were cached as not found
+     */
+    public long getCacheNegativeHits() {
+        return _cacheNegativeHits.sum();
+    }
+
+    /**
+     * @return the number of component lookups, which needed to search the type systems
+     */
+    public long getCacheMisses() {
+        return _cacheMisses.sum();
+    }
+
+    /**
+     * @return the number of entries, which were evicted from the caches.
+     * Each cache is bounded by the "xmlbean.typeloadercachesize" system property (defaults to 0, i.e. unbounded)
+     */
+    public long getCacheEvictions() {
+        return _cacheEvictions.sum();
+    }
+
+    /**
+     * @return the number of entries currently held in the component caches
+     */
+    public int getCacheSize() {
+        return _elementCache.size() + _attributeCache.size() + _modelGroupCache.size() +
+               _attributeGroupCache.size() + _idConstraintCache.size() + _typeCache.size() +
+               _documentCache.size() + _attributeTypeCache.size() + _classnameCache.size();
     }
 
     SchemaTypeSystemImpl typeSystemForComponent(String searchdir, QName name) {
@@ -323,7 +456,9 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
         if (result == null) {
             XBeanDebug.LOG.atTrace().log("Type system {}} not cached - consulting field", name);
             result = SchemaTypeSystemImpl.forName(name, _classLoader);
-            _classLoaderTypeSystems.put(name, result);
+            if (result != null) {
+                _classLoaderTypeSystems.put(name, result);
+            }
         }
         return result;
     }
@@ -354,10 +489,10 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
     }
 
     public SchemaType.Ref findTypeRef(QName name) {
-        // The maps are synchronized, we use two accesses to the cache (one read and one write), but the code in-between
+        // The maps are concurrent, we use two accesses to the cache (one read and one write), but the code in-between
         // is not synchronized. The assumption is that the underlying datastructures (the search path and the classloader)
         // do not change, so two threads running the code in parallel will come up with the same result.
-        Object cached = _typeCache.get(name);
+        Object cached = cacheGet(_typeCache, name);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -375,7 +510,7 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered type " + QNameHelper.pretty(name) + " but does not return it";
                 }
             }
-            _typeCache.put(name, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_typeCache, name, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
@@ -383,7 +518,7 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
     public SchemaType typeForClassname(String classname) {
         classname = classname.replace('$', '.');
 
-        Object cached = _classnameCache.get(classname);
+        Object cached = cacheGet(_classnameCache, classname);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -401,13 +536,13 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered type " + classname + " but does not return it";
                 }
             }
-            _classnameCache.put(classname, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_classnameCache, classname, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
 
     public SchemaType.Ref findDocumentTypeRef(QName name) {
-        Object cached = _documentCache.get(name);
+        Object cached = cacheGet(_documentCache, name);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -425,13 +560,13 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered element " + QNameHelper.pretty(name) + " but does not contain document type";
                 }
             }
-            _documentCache.put(name, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_documentCache, name, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
 
     public SchemaType.Ref findAttributeTypeRef(QName name) {
-        Object cached = _attributeTypeCache.get(name);
+        Object cached = cacheGet(_attributeTypeCache, name);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -449,13 +584,13 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered attribute " + QNameHelper.pretty(name) + " but does not contain attribute type";
                 }
             }
-            _attributeTypeCache.put(name, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_attributeTypeCache, name, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
 
     public SchemaGlobalElement.Ref findElementRef(QName name) {
-        Object cached = _elementCache.get(name);
+        Object cached = cacheGet(_elementCache, name);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -473,13 +608,13 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered element " + QNameHelper.pretty(name) + " but does not return it";
                 }
             }
-            _elementCache.put(name, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_elementCache, name, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
 
     public SchemaGlobalAttribute.Ref findAttributeRef(QName name) {
-        Object cached = _attributeCache.get(name);
+        Object cached = cacheGet(_attributeCache, name);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -497,13 +632,13 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered attribute " + QNameHelper.pretty(name) + " but does not return it";
                 }
             }
-            _attributeCache.put(name, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_attributeCache, name, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
 
     public SchemaModelGroup.Ref findModelGroupRef(QName name) {
-        Object cached = _modelGroupCache.get(name);
+        Object cached = cacheGet(_modelGroupCache, name);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -521,13 +656,13 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered model group " + QNameHelper.pretty(name) + " but does not return it";
                 }
             }
-            _modelGroupCache.put(name, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_modelGroupCache, name, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
 
     public SchemaAttributeGroup.Ref findAttributeGroupRef(QName name) {
-        Object cached = _attributeGroupCache.get(name);
+        Object cached = cacheGet(_attributeGroupCache, name);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -545,13 +680,13 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered attribute group " + QNameHelper.pretty(name) + " but does not return it";
                 }
             }
-            _attributeGroupCache.put(name, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_attributeGroupCache, name, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
 
     public SchemaIdentityConstraint.Ref findIdentityConstraintRef(QName name) {
-        Object cached = _idConstraintCache.get(name);
+        Object cached = cacheGet(_idConstraintCache, name);
         if (cached == CACHED_NOT_FOUND) {
             return null;
         }
@@ -569,7 +704,7 @@ public class SchemaTypeLoaderImpl extends SchemaTypeLoaderBase {
                     assert (result != null) : "Type system registered identity constraint " + QNameHelper.pretty(name) + " but does not return it";
                 }
             }
-            _idConstraintCache.put(name, result == null ? CACHED_NOT_FOUND : result);
+            cachePut(_idConstraintCache, name, result == null ? CACHED_NOT_FOUND : result);
         }
         return result;
     }
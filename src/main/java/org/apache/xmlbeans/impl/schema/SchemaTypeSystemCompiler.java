@@ -24,9 +24,14 @@ import org.apache.xmlbeans.impl.xb.xsdschema.SchemaDocument.Schema;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 
 public class SchemaTypeSystemCompiler {
     public static class Parameters {
@@ -182,7 +187,7 @@ public class SchemaTypeSystemCompiler {
         }
 
         if (stsi != null && !stsi.isIncomplete() && filer != null) {
-            stsi.save(filer);
+            stsi.save(filer, options);
             generateTypes(stsi, filer, options);
         }
 
@@ -207,8 +212,11 @@ public class SchemaTypeSystemCompiler {
         // construct the state
         StscState state = StscState.start();
         boolean validate = (options == null || !options.isCompileNoValidation());
+        int parallelism = (options == null) ? 1 : options.getCompileParallelism();
+        ForkJoinPool pool = (parallelism > 1) ? new ForkJoinPool(parallelism) : null;
         try {
             state.setErrorListener(errorWatcher);
+            state.setCompilePool(pool);
             state.setBindingConfig(config);
             state.setOptions(options);
             state.setGivenTypeSystemName(name);
@@ -225,13 +233,24 @@ public class SchemaTypeSystemCompiler {
 
             // load all the xsd files into it
             if (validate) {
-                XmlOptions validateOptions = new XmlOptions().setErrorListener(errorWatcher);
-                if (options != null && options.isValidateTreatLaxAsSkip()) {
-                    validateOptions.setValidateTreatLaxAsSkip();
+                boolean laxAsSkip = options != null && options.isValidateTreatLaxAsSkip();
+                // the schemas are validated independently, each one into its own error list,
+                // which are then reported in the order of the schemas
+                boolean[] valid = new boolean[schemas.length];
+                List<Supplier<List<XmlError>>> validations = new ArrayList<>(schemas.length);
+                for (int i = 0; i < schemas.length; i++) {
+                    final int index = i;
+                    validations.add(() -> {
+                        List<XmlError> errors = new ArrayList<>();
+                        valid[index] = validateSchema(schemas[index], laxAsSkip, errors);
+                        return errors;
+                    });
                 }
-                for (Schema schema : schemas) {
-                    if (schema.validate(validateOptions)) {
-                        validSchemas.add(schema);
+                List<List<XmlError>> results = state.invokeAll(validations);
+                for (int i = 0; i < schemas.length; i++) {
+                    errorWatcher.addAll(results.get(i));
+                    if (valid[i]) {
+                        validSchemas.add(schemas[i]);
                     }
                 }
             } else {
@@ -289,9 +308,20 @@ public class SchemaTypeSystemCompiler {
             return StscState.get().sts();
         } finally {
             StscState.end();
+            if (pool != null) {
+                pool.shutdown();
+            }
         }
     }
 
+    private static boolean validateSchema(Schema schema, boolean laxAsSkip, Collection<XmlError> errors) {
+        XmlOptions validateOptions = new XmlOptions().setErrorListener(errors);
+        if (laxAsSkip) {
+            validateOptions.setValidateTreatLaxAsSkip();
+        }
+        return schema.validate(validateOptions);
+    }
+
     /**
      * Get the list of Schemas to be recompiled, based on the list of Schemas that
      * were modified.
@@ -388,14 +418,15 @@ public class SchemaTypeSystemCompiler {
             success = false;
         }
 
-        for (SchemaType type : types) {
-            if (type.isBuiltinType()) {
-                continue;
-            }
-            if (type.getFullJavaName() == null) {
-                continue;
-            }
+        types.removeIf(type -> type.isBuiltinType() || type.getFullJavaName() == null);
+
+        // custom printers aren't expected to be thread-safe
+        int parallelism = (options == null) ? 1 : options.getCompileParallelism();
+        if (parallelism > 1 && options.getSchemaCodePrinter() == null && types.size() > 1) {
+            return generateTypesParallel(types, filer, options, parallelism) && success;
+        }
 
+        for (SchemaType type : types) {
             String fjn = type.getFullJavaName();
 
             try (Writer writer = filer.createSourceFile(fjn)) {
@@ -419,4 +450,59 @@ public class SchemaTypeSystemCompiler {
 
         return success;
     }
+
+    /**
+     * Prints the types on a pool into memory - the filer is only used by the calling thread,
+     * so the source files are created in the same order as by the sequential generation.
+     */
+    private static boolean generateTypesParallel(List<SchemaType> types, Filer filer, XmlOptions options, int parallelism) {
+        boolean success = true;
+        // only keep a few printed types ahead of the writer, as the sources of big schemas take quite some memory
+        int window = parallelism * 4;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Deque<ForkJoinTask<String[]>> pending = new ArrayDeque<>();
+            int next = 0;
+            for (SchemaType type : types) {
+                while (pending.size() < window && next < types.size()) {
+                    SchemaType toPrint = types.get(next++);
+                    pending.add(pool.submit(() -> printSources(toPrint, options)));
+                }
+
+                String[] sources = pending.remove().join();
+                success &= writeSource(filer, type.getFullJavaName(), sources[0]);
+                success &= writeSource(filer, type.getFullJavaImplName(), sources[1]);
+            }
+        } catch (UncheckedIOException e) {
+            System.err.println("IO Error " + e.getCause());
+            success = false;
+        } finally {
+            pool.shutdown();
+        }
+        return success;
+    }
+
+    private static String[] printSources(SchemaType type, XmlOptions options) {
+        // the printer keeps the state of the current type, so each type gets its own
+        SchemaTypeCodePrinter printer = new SchemaTypeCodePrinter();
+        StringWriter intf = new StringWriter();
+        StringWriter impl = new StringWriter();
+        try {
+            printer.printType(intf, type, options);
+            printer.printTypeImpl(impl, type, options);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String[]{intf.toString(), impl.toString()};
+    }
+
+    private static boolean writeSource(Filer filer, String typename, String source) {
+        try (Writer writer = filer.createSourceFile(typename)) {
+            writer.write(source);
+            return true;
+        } catch (IOException e) {
+            System.err.println("IO Error " + e);
+            return false;
+        }
+    }
 }
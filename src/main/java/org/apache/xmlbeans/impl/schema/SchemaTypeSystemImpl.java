@@ -29,6 +29,11 @@ import javax.xml.namespace.QName;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.IntFunction;
@@ -140,6 +145,11 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
     private SchemaTypePool _localHandles;
     private Filer _filer;
 
+    // the packed .xsb files, if the type system was saved with an archive
+    private volatile XsbArchive _archive;
+    // collects the .xsb files while saving an archive
+    private XsbArchive.Builder _archiveBuilder;
+
     // top-level annotations
     private List<SchemaAnnotation> _annotations;
 
@@ -190,6 +200,7 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
             throw e;
         }
         XBeanDebug.LOG.atTrace().log("Finished loading type system {}", _name);
+        scheduleWarmUp();
     }
 
     public SchemaTypeSystemImpl(Class<?> indexclass) {
@@ -206,6 +217,7 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
             throw e;
         }
         XBeanDebug.LOG.atTrace().log("Finished loading type system {}", _name);
+        scheduleWarmUp();
     }
 
     public static SchemaTypeSystemImpl forName(String name, ClassLoader loader) {
@@ -236,6 +248,8 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
         XBeanDebug.LOG.atTrace().log("Reading unresolved handles for type system {}", _name);
         XsbReader reader = null;
         try {
+            openArchive();
+
             // Read the index file, which starts with a header.
             reader = new XsbReader(getTypeSystem(), "index", FILETYPE_SCHEMAINDEX);
 
@@ -292,6 +306,29 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
         }
     }
 
+    private void openArchive() {
+        String resourcename = getBasePackage() + XsbArchive.ARCHIVE_NAME;
+        try {
+            _archive = XsbArchive.open(_resourceLoader, resourcename);
+        } catch (IOException e) {
+            throw new SchemaTypeLoaderException("XML-BEANS compiled schema: Could not read compiled schema archive " + resourcename + " - " + e.getMessage(), _name, null, SchemaTypeLoaderException.IO_EXCEPTION, e);
+        }
+        if (_archive != null) {
+            XBeanDebug.LOG.atTrace().log("Using compiled schema archive {} with {} components", resourcename, _archive.getHandles().size());
+        }
+    }
+
+    void saveArchive() {
+        String resourcename = getBasePackage() + XsbArchive.ARCHIVE_NAME;
+        try (OutputStream os = getSaverStream(resourcename, null)) {
+            _archiveBuilder.writeTo(os);
+        } catch (IOException e) {
+            throw new SchemaTypeLoaderException(e.getMessage(), getName(), null, SchemaTypeLoaderException.IO_EXCEPTION, e);
+        } finally {
+            _archiveBuilder = null;
+        }
+    }
+
     void saveIndex() {
         String handle = "index";
         XsbReader saver = new XsbReader(getTypeSystem(), handle);
@@ -721,6 +758,21 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
     }
 
     public void save(Filer filer) {
+        save(filer, null);
+    }
+
+    /**
+     * Saves the type system like {@link #save(Filer)}.
+     * <p>
+     * With {@link XmlOptions#setCompileXsbArchive()} the .xsb files of the components and the index
+     * are packed into a single archive resource.  The pointer files for the lookup of the type system
+     * are still saved individually.
+     *
+     * @param filer   the filer for the .xsb files
+     * @param options the save options, may be null
+     */
+    @Override
+    public void save(Filer filer, XmlOptions options) {
         if (_incomplete) {
             throw new IllegalStateException("Incomplete SchemaTypeSystems cannot be saved.");
         }
@@ -729,6 +781,7 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
             throw new IllegalArgumentException("filer must not be null");
         }
         _filer = filer;
+        _archiveBuilder = XmlOptions.maskNull(options).isCompileXsbArchive() ? new XsbArchive.Builder() : null;
 
         _localHandles.startWriteMode();
         saveTypesRecursively(globalTypes());
@@ -745,6 +798,9 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
         saveAttributeGroups(redefinedAttributeGroups());
 
         saveIndex();
+        if (_archiveBuilder != null) {
+            saveArchive();
+        }
         savePointers();
     }
 
@@ -916,9 +972,8 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
     static final byte[] SINGLE_ZERO_BYTE = {0};
 
     public SchemaType typeForHandle(String handle) {
-        synchronized (_resolvedHandles) {
-            return (SchemaType) _resolvedHandles.get(handle);
-        }
+        Object resolved = _resolvedHandles.get(handle);
+        return resolved instanceof SchemaType ? (SchemaType) resolved : null;
     }
 
     public SchemaType typeForClassname(String classname) {
@@ -927,12 +982,52 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
     }
 
     public SchemaComponent resolveHandle(String handle) {
-        SchemaComponent result;
+        for (; ; ) {
+            Object resolved = _resolvedHandles.get(handle);
+            if (resolved instanceof SchemaComponent) {
+                return (SchemaComponent) resolved;
+            }
+
+            if (resolved == null) {
+                PendingHandle pending = new PendingHandle();
+                if (_resolvedHandles.putIfAbsent(handle, pending) != null) {
+                    // another thread started loading meanwhile
+                    continue;
+                }
+                try {
+                    return loadHandle(handle);
+                } finally {
+                    // on failure, the waiting threads try it on their own
+                    _resolvedHandles.remove(handle, pending);
+                    pending._done.countDown();
+                }
+            }
 
-        synchronized (_resolvedHandles) {
-            result = _resolvedHandles.get(handle);
+            // A thread, which is already loading a handle, doesn't wait for other threads,
+            // as they might wait for a handle loaded by this thread.  It loads the handle
+            // on its own, like it's done for handles, which refer to each other.
+            if (LOADING_DEPTH.get()[0] > 0) {
+                return loadHandle(handle);
+            }
+
+            try {
+                ((PendingHandle) resolved)._done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return loadHandle(handle);
+            }
         }
-        if (result == null) {
+    }
+
+    /**
+     * Reads the component from the .xsb resource and registers it, if it's the first result for the handle
+     */
+    private SchemaComponent loadHandle(String handle) {
+        int[] depth = LOADING_DEPTH.get();
+        depth[0]++;
+
+        SchemaComponent result;
+        try {
             XsbReader reader = new XsbReader(getTypeSystem(), handle, 0xFFFF);
             int filetype = reader.getActualFiletype();
             switch (filetype) {
@@ -963,19 +1058,29 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
                 default:
                     throw new IllegalStateException("Illegal handle type");
             }
-
-            synchronized (_resolvedHandles) {
-                if (!_resolvedHandles.containsKey(handle)) {
-                    _resolvedHandles.put(handle, result);
-                } else {
-                    result = _resolvedHandles.get(handle);
-                }
+        } finally {
+            if (--depth[0] == 0) {
+                LOADING_DEPTH.remove();
             }
         }
-        return result;
+
+        final SchemaComponent loaded = result;
+        return (SchemaComponent) _resolvedHandles.compute(handle,
+            (h, prev) -> prev instanceof SchemaComponent ? prev : loaded);
+    }
+
+    /**
+     * Marks a handle, which is currently loaded by another thread
+     */
+    private static final class PendingHandle {
+        private final CountDownLatch _done = new CountDownLatch(1);
     }
 
-    private final Map<String, SchemaComponent> _resolvedHandles = new HashMap<>();
+    // the nesting of handles, which are loaded by the current thread
+    private static final ThreadLocal<int[]> LOADING_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    // the values are the resolved components or PendingHandle markers
+    private final ConcurrentMap<String, Object> _resolvedHandles = new ConcurrentHashMap<>();
     private boolean _allNonGroupHandlesResolved = false;
 
     public void resolve() {
@@ -1003,6 +1108,71 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
         _allNonGroupHandlesResolved = true;
     }
 
+    /**
+     * Resolves all handles of this type system in parallel, so the components don't need to be
+     * loaded lazily when they are first used.  Call this at startup, before the type system is
+     * used by requests.
+     *
+     * @param pool the pool, which loads the components, or null for the common pool
+     * @return the number of components, which were loaded by the warm-up
+     */
+    public int warmUp(ForkJoinPool pool) {
+        long start = System.nanoTime();
+        int before = resolvedHandleCount();
+
+        // the global components, the model and attribute groups and the local types
+        Set<SchemaComponent.Ref> refs = new LinkedHashSet<>();
+        refs.addAll(_globalElements.values());
+        refs.addAll(_globalAttributes.values());
+        refs.addAll(_globalTypes.values());
+        refs.addAll(_documentTypes.values());
+        refs.addAll(_attributeTypes.values());
+        refs.addAll(_identityConstraints.values());
+        refs.addAll(_modelGroups.values());
+        refs.addAll(_attributeGroups.values());
+        refs.addAll(_typeRefsByClassname.values());
+
+        // a parallel stream, which is started within a pool task, runs on that pool
+        (pool == null ? ForkJoinPool.commonPool() : pool)
+            .submit(() -> refs.parallelStream().forEach(SchemaComponent.Ref::getComponent))
+            .join();
+        _allNonGroupHandlesResolved = true;
+
+        int loaded = resolvedHandleCount() - before;
+        XBeanDebug.LOG.atDebug().log("Warmed up type system {}: loaded {} components in {} ms",
+            _name, loaded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return loaded;
+    }
+
+    private int resolvedHandleCount() {
+        int count = 0;
+        for (Object resolved : _resolvedHandles.values()) {
+            if (resolved instanceof SchemaComponent) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * If the "xmlbean.warmup" system property is set to true, the type systems of the generated
+     * classes are warmed up in the background as soon as they are loaded.
+     * <p>
+     * This is called from the static initializer of the TypeSystemHolder, so the warm-up must not
+     * be waited for - the loaded components may refer to the holder, which is not yet initialized.
+     */
+    private void scheduleWarmUp() {
+        if ("true".equals(SystemProperties.getProperty("xmlbean.warmup", "false"))) {
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    warmUp(null);
+                } catch (RuntimeException e) {
+                    XBeanDebug.LOG.atWarn().withThrowable(e).log("Warm-up of type system {} failed", _name);
+                }
+            });
+        }
+    }
+
 
     public boolean isNamespaceDefined(String namespace) {
         return _namespaces.contains(namespace);
@@ -1158,6 +1328,9 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
     }
 
     OutputStream getSaverStream(String name, String handle) {
+        if (_archiveBuilder != null && handle != null && name.equals(getBasePackage() + handle + ".xsb")) {
+            return _archiveBuilder.newEntry(handle);
+        }
         try {
             return _filer.createBinaryFile(name);
         } catch (IOException e) {
@@ -1168,4 +1341,13 @@ public class SchemaTypeSystemImpl extends SchemaTypeLoaderBase implements Schema
     InputStream getLoaderStream(String resourcename) {
         return _resourceLoader.getResourceAsStream(resourcename);
     }
+
+    /**
+     * @return the stream of the .xsb data of the component, taken from the archive if there's one
+     */
+    InputStream getComponentStream(String handle) {
+        XsbArchive archive = _archive;
+        InputStream is = (archive == null) ? null : archive.getInputStream(handle);
+        return (is != null) ? is : getLoaderStream(getBasePackage() + handle + ".xsb");
+    }
 }
@@ -22,6 +22,7 @@ import org.apache.xmlbeans.impl.common.XBeanDebug;
 import javax.xml.namespace.QName;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.function.Supplier;
 
 public class StscChecker {
     public static void checkAll() {
@@ -35,14 +36,31 @@ public class StscChecker {
         allSeenTypes.addAll(Arrays.asList(state.globalTypes()));
 
         for (int i = 0; i < allSeenTypes.size(); i++) {
-            SchemaType gType = allSeenTypes.get(i);
+            allSeenTypes.addAll(Arrays.asList(allSeenTypes.get(i).getAnonymousTypes()));
+        }
+
+        // the particle restriction checks only read the types, so they can run in parallel.
+        // Their errors are collected per type and reported together with the other checks
+        // of the type.
+        List<Supplier<List<XmlError>>> restrictionChecks = new ArrayList<>(allSeenTypes.size());
+        for (SchemaType gType : allSeenTypes) {
             // option to turn off particle restriction checking
             // Don't check doc types for restriction.
             if (!state.noPvr() && !gType.isDocumentType()) {
-                checkRestriction((SchemaTypeImpl) gType);
+                restrictionChecks.add(() -> {
+                    List<XmlError> errors = new ArrayList<>();
+                    checkRestriction((SchemaTypeImpl) gType, errors);
+                    return errors;
+                });
+            } else {
+                restrictionChecks.add(Collections::emptyList);
             }
-            checkFields((SchemaTypeImpl) gType);
-            allSeenTypes.addAll(Arrays.asList(gType.getAnonymousTypes()));
+        }
+        List<List<XmlError>> restrictionErrors = state.invokeAll(restrictionChecks);
+
+        for (int i = 0; i < allSeenTypes.size(); i++) {
+            state.getErrorListener().addAll(restrictionErrors.get(i));
+            checkFields((SchemaTypeImpl) allSeenTypes.get(i));
         }
 
         checkSubstitutionGroups(state.globalElements());
@@ -306,16 +324,22 @@ public class StscChecker {
      * (Everything else can and should be done in StscResolver, because we can give more detailed line # info there
      */
     public static boolean checkRestriction(SchemaTypeImpl sType) {
-        if (sType.getDerivationType() == SchemaType.DT_RESTRICTION && !sType.isSimpleType()) {
-            StscState state = StscState.get();
+        return checkRestriction(sType, StscState.get().getErrorListener());
+    }
 
+    /**
+     * Same as {@link #checkRestriction(SchemaTypeImpl)}, but reports to the given errors instead of the
+     * current {@link StscState}, so that it can be called from other threads
+     */
+    static boolean checkRestriction(SchemaTypeImpl sType, Collection<XmlError> errorListener) {
+        if (sType.getDerivationType() == SchemaType.DT_RESTRICTION && !sType.isSimpleType()) {
             // we don't remember very precise line number information, but it's better than nothin.
             XmlObject location = sType.getParseObject();
 
             SchemaType baseType = sType.getBaseType();
             assert (baseType != null);
             if (baseType.isSimpleType()) {
-                state.error(XmlErrorCodes.SCHEMA_COMPLEX_TYPE$COMPLEX_CONTENT,
+                StscState.addError(errorListener, XmlErrorCodes.SCHEMA_COMPLEX_TYPE$COMPLEX_CONTENT,
                     new Object[]{QNameHelper.pretty(baseType.getName())},
                     location);
                 return false;
@@ -337,7 +361,7 @@ public class StscChecker {
                                     bType = bType.getContentBasedOnType();
                                 }
                                 if (bType != null && !bType.isAssignableFrom(cType)) {
-                                    state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$SC_NOT_DERIVED,
+                                    StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$SC_NOT_DERIVED,
                                         null, location);
                                     return false;
                                 }
@@ -347,14 +371,14 @@ public class StscChecker {
                         case SchemaType.MIXED_CONTENT:
                             // 5.1.2 The {base type definition} must be mixed and have a particle which is �emptiable� as defined in Particle Emptiable (�3.9.6).
                             if (baseType.getContentModel() != null && !baseType.getContentModel().isSkippable()) {
-                                state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$SC_AND_MIXED_EMPTIABLE,
+                                StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$SC_AND_MIXED_EMPTIABLE,
                                     null, location);
                                 return false;
                             }
                             break;
 
                         default:
-                            state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$SC_AND_SIMPLE_TYPE_OR_MIXED,
+                            StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$SC_AND_SIMPLE_TYPE_OR_MIXED,
                                 null, location);
                             return false;
                     }
@@ -370,13 +394,13 @@ public class StscChecker {
                         case SchemaType.ELEMENT_CONTENT:
                             // 5.2.2 The {content type} of the {base type definition} must be elementOnly or mixed and have a particle which is �emptiable� as defined in Particle Emptiable (�3.9.6).
                             if (baseType.getContentModel() != null && !baseType.getContentModel().isSkippable()) {
-                                state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$EMPTY_AND_ELEMENT_OR_MIXED_EMPTIABLE,
+                                StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$EMPTY_AND_ELEMENT_OR_MIXED_EMPTIABLE,
                                     null, location);
                                 return false;
                             }
                             break;
                         default:
-                            state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$EMPTY_AND_NOT_SIMPLE,
+                            StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$EMPTY_AND_NOT_SIMPLE,
                                 null, location);
                             return false;
                     }
@@ -385,7 +409,7 @@ public class StscChecker {
                 case SchemaType.MIXED_CONTENT:
                     // 5.3 If the {content type} of the {base type definition} is mixed...
                     if (baseType.getContentType() != SchemaType.MIXED_CONTENT) {
-                        state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_MIXED,
+                        StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_MIXED,
                             null, location);
                         return false;
                     }
@@ -394,12 +418,12 @@ public class StscChecker {
                 case SchemaType.ELEMENT_CONTENT:
                     // 5.3 ... or the {content type} of the complex type definition itself is element-only,...
                     if (baseType.getContentType() == SchemaType.EMPTY_CONTENT) {
-                        state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_EMPTY,
+                        StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_EMPTY,
                             null, location);
                         return false;
                     }
                     if (baseType.getContentType() == SchemaType.SIMPLE_CONTENT) {
-                        state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_SIMPLE,
+                        StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_SIMPLE,
                             null, location);
                         return false;
                     }
@@ -415,7 +439,7 @@ public class StscChecker {
                     } else if (baseModel == null || derivedModel == null) {
                         XBeanDebug.LOG.atTrace().withThrowable(new Exception("Stacktrace"))
                             .log("Null models that weren't caught by EMPTY_CONTENT: {} ({}), {} ({})", baseType, baseModel, sType, derivedModel);
-                        state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_VALID, null, location);
+                        StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_VALID, null, location);
                         return false;
                     }
 
@@ -427,9 +451,9 @@ public class StscChecker {
                         // to the collection that it later changes its mind about, or it may (inadvertently)
                         // forget to describe an error into the collection....
                         if (errors.isEmpty()) {
-                            state.error(XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_VALID, null, location);
+                            StscState.addError(errorListener, XmlErrorCodes.COMPLEX_TYPE_RESTRICTION$ELEMENT_OR_MIXED_AND_VALID, null, location);
                         } else {
-                            state.getErrorListener().add(errors.get(errors.size() - 1));
+                            errorListener.add(errors.get(errors.size() - 1));
                         }
                         //state.getErrorListener().addAll(errors);
                         return false; // KHK: should return false, right?
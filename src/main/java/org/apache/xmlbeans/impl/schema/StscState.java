@@ -31,7 +31,11 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * This class represents the state of the SchemaTypeSystemCompiler as it's
@@ -77,6 +81,8 @@ public class StscState {
     private boolean _allowPartial = false;
     private int _recoveredErrors = 0;
 
+    private ForkJoinPool _compilePool;
+
     private SchemaTypeLoader _importingLoader;
 
     private final Map<String, SchemaContainer> _containers = new LinkedHashMap<>();
@@ -487,6 +493,40 @@ public class StscState {
         }
     }
 
+    /**
+     * Sets the pool for the parallel compilation phases, null to run all of them on the
+     * compiling thread.
+     */
+    public void setCompilePool(ForkJoinPool compilePool) {
+        _compilePool = compilePool;
+    }
+
+    /**
+     * Runs the given tasks on the compile pool, or one after the other if there's no pool.
+     * The tasks are executed on other threads, so they must neither use {@link #get()} nor
+     * report errors to this state.
+     *
+     * @return the results in the order of the tasks
+     */
+    <T> List<T> invokeAll(List<Supplier<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (_compilePool == null || tasks.size() < 2) {
+            for (Supplier<T> task : tasks) {
+                results.add(task.get());
+            }
+            return results;
+        }
+
+        List<ForkJoinTask<T>> running = new ArrayList<>(tasks.size());
+        for (Supplier<T> task : tasks) {
+            running.add(_compilePool.submit((Callable<T>) task::get));
+        }
+        for (ForkJoinTask<T> task : running) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
     /**
      * May return null if there is no custom entity resolver.
      */
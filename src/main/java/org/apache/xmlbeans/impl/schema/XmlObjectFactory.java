@@ -24,6 +24,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
 /**
  * Factory class for creating new instances.  Note that if
@@ -146,6 +148,10 @@ public class XmlObjectFactory<T> extends DocumentFactory<T> {
      *  a document, resulting in a smaller memory footprint.</td>
      *  <td>{@link XmlOptions#setLoadTrimTextBuffer}</td>
      * </tr>
+     * <tr>
+     *  <td>To store Latin-1 text with one byte per character.</td>
+     *  <td>{@link XmlOptions#setLoadCompactText}</td>
+     * </tr>
      * </table>
      *
      * @param xmlAsString The string to parse.
@@ -254,6 +260,10 @@ public class XmlObjectFactory<T> extends DocumentFactory<T> {
      *  a document, resulting in a smaller memory footprint.</td>
      *  <td>{@link XmlOptions#setLoadTrimTextBuffer}</td>
      * </tr>
+     * <tr>
+     *  <td>Store Latin-1 text with one byte per character.</td>
+     *  <td>{@link XmlOptions#setLoadCompactText}</td>
+     * </tr>
      * </table>
      */
     @Override
@@ -269,6 +279,54 @@ public class XmlObjectFactory<T> extends DocumentFactory<T> {
         return (T)XmlBeans.getContextTypeLoader().parse(xsr, getInnerType(), options);
     }
 
+    /**
+     * Decodes and parses len bytes of the given array, starting at off, as XML.
+     */
+    @Override
+    public T parse(byte[] bytes, int off, int len) throws XmlException, IOException {
+        return (T)XmlBeans.getContextTypeLoader().parse(bytes, off, len, getInnerType(), null);
+    }
+
+    /**
+     * Decodes and parses len bytes of the given array, starting at off, as XML.
+     */
+    @Override
+    public T parse(byte[] bytes, int off, int len, XmlOptions options) throws XmlException, IOException {
+        return (T)XmlBeans.getContextTypeLoader().parse(bytes, off, len, getInnerType(), options);
+    }
+
+    /**
+     * Decodes and parses the remaining bytes of the given {@link ByteBuffer} as XML.
+     */
+    @Override
+    public T parse(ByteBuffer buffer) throws XmlException, IOException {
+        return (T)XmlBeans.getContextTypeLoader().parse(buffer, getInnerType(), null);
+    }
+
+    /**
+     * Decodes and parses the remaining bytes of the given {@link ByteBuffer} as XML.
+     */
+    @Override
+    public T parse(ByteBuffer buffer, XmlOptions options) throws XmlException, IOException {
+        return (T)XmlBeans.getContextTypeLoader().parse(buffer, getInnerType(), options);
+    }
+
+    /**
+     * Parses the given file as XML, which is memory-mapped for parsing.
+     */
+    @Override
+    public T parse(Path path) throws XmlException, IOException {
+        return (T)XmlBeans.getContextTypeLoader().parse(path, getInnerType(), null);
+    }
+
+    /**
+     * Parses the given file as XML, which is memory-mapped for parsing.
+     */
+    @Override
+    public T parse(Path path, XmlOptions options) throws XmlException, IOException {
+        return (T)XmlBeans.getContextTypeLoader().parse(path, getInnerType(), options);
+    }
+
     /**
      * Parses the given {@link Reader} as XML.
      */
@@ -0,0 +1,213 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.xmlbeans.impl.schema;
+
+import org.apache.xmlbeans.ResourceLoader;
+import org.apache.xmlbeans.impl.common.ByteBufferInputStream;
+import org.apache.xmlbeans.impl.common.IOUtil;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A packed archive of the .xsb files of a type system's components.
+ * <p>
+ * Instead of one classpath resource per component, the archive contains an index of the component
+ * handles followed by one data blob with the unchanged .xsb contents of each component.
+ * The archive is memory-mapped, if it's located in the file system, otherwise it's read once
+ * into memory.  The components are read from slices of the blob without copying.
+ * <p>
+ * Layout: magic, version (short), number of entries (int), entries (handle (UTF), offset (int),
+ * length (int)), data - the offsets are relative to the start of the data.
+ */
+public final class XsbArchive {
+    public static final int ARCHIVE_MAGIC = 0xDA7ABA5E;
+    public static final int ARCHIVE_VERSION = 1;
+
+    /**
+     * The name of the archive resource, relative to the base package of the type system
+     */
+    public static final String ARCHIVE_NAME = "components.xsba";
+
+    private final ByteBuffer _data;
+    private final Map<String, int[]> _entries;
+
+    private XsbArchive(ByteBuffer buffer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer.duplicate()))) {
+            if (in.readInt() != ARCHIVE_MAGIC) {
+                throw new IOException("Not a compiled schema archive: wrong magic cookie");
+            }
+            int version = in.readUnsignedShort();
+            if (version != ARCHIVE_VERSION) {
+                throw new IOException("Unsupported compiled schema archive version " + version);
+            }
+            int count = in.readInt();
+            Map<String, int[]> entries = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                String handle = in.readUTF();
+                entries.put(handle, new int[]{in.readInt(), in.readInt()});
+            }
+            _entries = entries;
+            _data = sliceFrom(buffer, buffer.limit() - in.available());
+        }
+
+        for (Map.Entry<String, int[]> e : _entries.entrySet()) {
+            int[] pos = e.getValue();
+            if (pos[0] < 0 || pos[1] < 0 || pos[0] > _data.limit() - pos[1]) {
+                throw new IOException("Corrupt compiled schema archive entry " + e.getKey());
+            }
+        }
+    }
+
+    /**
+     * Reads the archive from the given buffer, which is used directly for the component data
+     */
+    public static XsbArchive read(ByteBuffer buffer) throws IOException {
+        return new XsbArchive(buffer);
+    }
+
+    /**
+     * Memory-maps the archive file
+     */
+    public static XsbArchive map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new XsbArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the whole archive into memory
+     */
+    public static XsbArchive read(InputStream is) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        IOUtil.copyCompletely(is, bos);
+        return new XsbArchive(ByteBuffer.wrap(bos.toByteArray()));
+    }
+
+    /**
+     * Opens the archive resource of a type system
+     *
+     * @return the archive or null, if the type system was saved without an archive
+     */
+    static XsbArchive open(ResourceLoader loader, String resourceName) throws IOException {
+        if (loader instanceof ClassLoaderResourceLoader) {
+            // map the archive, if it's not packed into a jar
+            URL url = ((ClassLoaderResourceLoader) loader)._classLoader.getResource(resourceName);
+            if (url == null) {
+                return null;
+            }
+            if ("file".equals(url.getProtocol())) {
+                try {
+                    return map(Paths.get(url.toURI()));
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // fall back to the stream
+                }
+            }
+        }
+
+        InputStream is = loader.getResourceAsStream(resourceName);
+        if (is == null) {
+            return null;
+        }
+        try {
+            return read(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * @return the handles of the archived components in the order they were saved
+     */
+    public Set<String> getHandles() {
+        return Collections.unmodifiableSet(_entries.keySet());
+    }
+
+    /**
+     * @return a read-only view of the component data or null, if the component isn't contained
+     */
+    public ByteBuffer getBuffer(String handle) {
+        int[] pos = _entries.get(handle);
+        if (pos == null) {
+            return null;
+        }
+        ByteBuffer bb = _data.duplicate();
+        bb.limit(pos[0] + pos[1]).position(pos[0]);
+        return bb.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a stream over the component data or null, if the component isn't contained
+     */
+    public InputStream getInputStream(String handle) {
+        ByteBuffer bb = getBuffer(handle);
+        return bb == null ? null : new ByteBufferInputStream(bb);
+    }
+
+    private static ByteBuffer sliceFrom(ByteBuffer buffer, int position) {
+        ByteBuffer bb = buffer.duplicate();
+        bb.position(position);
+        return bb.slice();
+    }
+
+    /**
+     * Collects the components during the save of a type system and writes them as archive
+     */
+    static final class Builder {
+        private final Map<String, byte[]> _components = new LinkedHashMap<>();
+
+        /**
+         * @return the stream for the .xsb contents of the component, which is added on close
+         */
+        OutputStream newEntry(String handle) {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    _components.put(handle, toByteArray());
+                }
+            };
+        }
+
+        boolean isEmpty() {
+            return _components.isEmpty();
+        }
+
+        void writeTo(OutputStream os) throws IOException {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+            out.writeInt(ARCHIVE_MAGIC);
+            out.writeShort(ARCHIVE_VERSION);
+            out.writeInt(_components.size());
+            int offset = 0;
+            for (Map.Entry<String, byte[]> e : _components.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeInt(offset);
+                out.writeInt(e.getValue().length);
+                offset += e.getValue().length;
+            }
+            for (byte[] data : _components.values()) {
+                out.write(data);
+            }
+            out.close();
+        }
+    }
+}
@@ -58,7 +58,7 @@ class XsbReader {
     public XsbReader(SchemaTypeSystemImpl typeSystem, String handle, int filetype) {
         this.typeSystem = typeSystem;
         String resourcename = typeSystem.getBasePackage()  + handle + ".xsb";
-        InputStream rawinput = typeSystem.getLoaderStream(resourcename);
+        InputStream rawinput = typeSystem.getComponentStream(handle);
         if (rawinput == null) {
             throw new SchemaTypeLoaderException("XML-BEANS compiled schema: Could not locate compiled schema resource " + resourcename, typeSystem.getName(), handle, SchemaTypeLoaderException.NO_RESOURCE);
         }
@@ -203,9 +203,9 @@ abstract class CharNode implements DomImpl.Dom, Node, CharacterData {
         assert _src instanceof Xobj :
             "this method is to only be used for nodes backed up by Xobjs";
         Xobj src = (Xobj) _src;
-        return src._charNodesValue == null ? true :
-            src._charNodesAfter == null ? false :
-                CharNode.isOnList(src._charNodesAfter, this);
+        return src.charNodesValue() == null ? true :
+            src.charNodesAfter() == null ? false :
+                CharNode.isOnList(src.charNodesAfter(), this);
     }
 
     public void dump(PrintStream o, Object ref) {
@@ -14,9 +14,17 @@
  */
 package org.apache.xmlbeans.impl.store;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
+/**
+ * Manages the text of the store.  A text is given as a triple of a source, an offset and a count of chars.
+ * The source is either a char[], a String, a byte[] with Latin-1 chars or a {@link CharJoin} of two sources.
+ */
 public final class CharUtil {
     public CharUtil(int charBufSize) {
         _charBufSize = charBufSize;
@@ -51,6 +59,8 @@ public final class CharUtil {
 
         if (src instanceof char[]) {
             sb.append((char[]) src, off, cch);
+        } else if (src instanceof byte[]) {
+            sb.append(new String((byte[]) src, off, cch, StandardCharsets.ISO_8859_1));
         } else if (src instanceof String) {
             String s = (String) src;
 
@@ -75,6 +85,11 @@ public final class CharUtil {
         if (src instanceof char[]) {
             char[] cs = (char[]) src;
             System.arraycopy(cs, off, chars, start, cch);
+        } else if (src instanceof byte[]) {
+            byte[] bs = (byte[]) src;
+            for (int i = 0; i < cch; i++) {
+                chars[start + i] = (char) (bs[off + i] & 0xFF);
+            }
         } else if (src instanceof String) {
             ((String) src).getChars(off, off + cch, chars, start);
         } else {
@@ -93,6 +108,10 @@ public final class CharUtil {
             return new String((char[]) src, off, cch);
         }
 
+        if (src instanceof byte[]) {
+            return new String((byte[]) src, off, cch, StandardCharsets.ISO_8859_1);
+        }
+
         if (src instanceof String) {
             String s = (String) src;
 
@@ -110,6 +129,97 @@ public final class CharUtil {
         return sb.toString();
     }
 
+    /**
+     * Reads the whole text in chunks of growing size, which are joined as a balanced tree,
+     * so a long text isn't copied into one piece on the way.
+     *
+     * @return the src of the text, its offset and length are in _offSrc and _cchSrc
+     */
+    public Object readChars(Reader text) throws IOException {
+        // the joined chunks so far, each entry joins more chunks than the ones after it
+        Object[] srcs = new Object[32];
+        int[] cchs = new int[32];
+        int[] chunks = new int[32];
+        int n = 0;
+
+        for (int size = 256; ; size = Math.min(2 * size, MAX_CHUNK)) {
+            char[] chunk = new char[size];
+            int cch = 0;
+
+            for (int r; cch < size && (r = text.read(chunk, cch, size - cch)) != -1; ) {
+                cch += r;
+            }
+
+            if (cch == 0) {
+                break;
+            }
+
+            srcs[n] = cch < size ? Arrays.copyOf(chunk, cch) : chunk;
+            cchs[n] = cch;
+            chunks[n++] = 1;
+
+            while (n > 1 && chunks[n - 1] == chunks[n - 2]) {
+                n--;
+                srcs[n - 1] = new CharJoin(srcs[n - 1], 0, cchs[n - 1], srcs[n], 0);
+                cchs[n - 1] += cchs[n];
+                chunks[n - 1] *= 2;
+            }
+
+            if (cch < size) {
+                break;
+            }
+        }
+
+        Object src = null;
+        int cch = 0;
+
+        for (int i = n - 1; i >= 0; i--) {
+            src = cch == 0 ? srcs[i] : new CharJoin(srcs[i], 0, cchs[i], src, 0);
+            cch += cchs[i];
+        }
+
+        _offSrc = 0;
+        _cchSrc = cch;
+
+        return src;
+    }
+
+    /**
+     * @return a reader over the text, which copies the chars in chunks while they're read
+     */
+    public static Reader getReader(Object src, int off, int cch) {
+        assert isValid(src, off, cch);
+
+        return new Reader() {
+            private int _pos;
+
+            @Override
+            public int read(char[] cbuf, int start, int len) {
+                if (len == 0) {
+                    return 0;
+                }
+                if (_pos >= cch) {
+                    return -1;
+                }
+                int n = Math.min(len, cch - _pos);
+                getChars(cbuf, start, src, off + _pos, n);
+                _pos += n;
+                return n;
+            }
+
+            @Override
+            public long skip(long n) {
+                int k = (int) Math.max(0, Math.min(n, cch - _pos));
+                _pos += k;
+                return k;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
     public static boolean isWhiteSpace(char ch) {
         switch (ch) {
             case ' ':
@@ -139,6 +249,16 @@ public final class CharUtil {
             return true;
         }
 
+        if (src instanceof byte[]) {
+            for (byte[] bytes = (byte[]) src; cch > 0; cch--) {
+                if (!isWhiteSpace((char) bytes[off++])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
         if (src instanceof String) {
             for (String s = (String) src; cch > 0; cch--) {
                 if (!isWhiteSpace(s.charAt(off++))) {
@@ -174,6 +294,13 @@ public final class CharUtil {
                     cch--;
                     off++;
                 }
+            } else if (src instanceof byte[]) {
+                byte[] bytes = (byte[]) src;
+
+                while (cch > 0 && isWhiteSpace((char) bytes[off])) {
+                    cch--;
+                    off++;
+                }
             } else if (src instanceof String) {
                 String s = (String) src;
 
@@ -380,6 +507,79 @@ public final class CharUtil {
         return retBuf;
     }
 
+    private byte[] allocateLatin1(int cch) {
+        assert _currentLatin1Buffer == null || _currentLatin1Buffer.length - _currentLatin1Offset > 0;
+
+        if (_currentLatin1Buffer == null) {
+            _currentLatin1Buffer = new byte[Math.max(cch, _charBufSize)];
+            _currentLatin1Offset = 0;
+        }
+
+        _offSrc = _currentLatin1Offset;
+        _cchSrc = Math.min(_currentLatin1Buffer.length - _currentLatin1Offset, cch);
+
+        byte[] retBuf = _currentLatin1Buffer;
+
+        if ((_currentLatin1Offset += _cchSrc) == _currentLatin1Buffer.length) {
+            _currentLatin1Buffer = null;
+            _currentLatin1Offset = 0;
+        }
+
+        return retBuf;
+    }
+
+    /**
+     * @return true, if all chars of the text are Latin-1 chars. Joins are not inspected.
+     */
+    private static boolean isLatin1(Object src, int off, int cch) {
+        if (src instanceof byte[]) {
+            return true;
+        }
+
+        if (src instanceof char[]) {
+            char[] chars = (char[]) src;
+            for (int i = off, end = off + cch; i < end; i++) {
+                if (chars[i] > 0xFF) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (src instanceof String) {
+            String s = (String) src;
+            for (int i = off, end = off + cch; i < end; i++) {
+                if (s.charAt(i) > 0xFF) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Copies the text, which must consist of Latin-1 chars, into the byte array
+     */
+    private static void getLatin1(byte[] bytes, int start, Object src, int off, int cch) {
+        assert isLatin1(src, off, cch);
+
+        if (src instanceof byte[]) {
+            System.arraycopy(src, off, bytes, start, cch);
+        } else if (src instanceof char[]) {
+            char[] chars = (char[]) src;
+            for (int i = 0; i < cch; i++) {
+                bytes[start + i] = (byte) chars[off + i];
+            }
+        } else {
+            String s = (String) src;
+            for (int i = 0; i < cch; i++) {
+                bytes[start + i] = (byte) s.charAt(off + i);
+            }
+        }
+    }
+
     public Object saveChars(Object srcSave, int offSave, int cchSave) {
         return saveChars(srcSave, offSave, cchSave, null, 0, 0);
     }
@@ -387,6 +587,19 @@ public final class CharUtil {
     public Object saveChars(
         Object srcSave, int offSave, int cchSave,
         Object srcPrev, int offPrev, int cchPrev) {
+        return saveChars(srcSave, offSave, cchSave, srcPrev, offPrev, cchPrev, false);
+    }
+
+    /**
+     * Saves the text and prepends the prev text, which has been saved before.
+     *
+     * @param compact if true and the text to save only consists of Latin-1 chars,
+     *                it's saved with one byte per char
+     */
+    public Object saveChars(
+        Object srcSave, int offSave, int cchSave,
+        Object srcPrev, int offPrev, int cchPrev,
+        boolean compact) {
         // BUGBUG (ericvas)
         //
         // There is a severe degenerate situation which can deveol here.  The cases is where
@@ -402,13 +615,15 @@ public final class CharUtil {
         // Allocate some space to save the text and copy it there.  This may not allocate all
         // the space I need.  This happens when I run out of buffer space.  Deal with this later.
 
-        char[] srcAlloc = allocate(cchSave);
+        boolean latin1 = compact && isLatin1(srcSave, offSave, cchSave);
+
+        Object srcAlloc = latin1 ? allocateLatin1(cchSave) : allocate(cchSave);
         int offAlloc = _offSrc;
         int cchAlloc = _cchSrc;
 
         assert cchAlloc <= cchSave;
 
-        getChars(srcAlloc, offAlloc, srcSave, offSave, cchAlloc);
+        copyChars(srcAlloc, offAlloc, srcSave, offSave, cchAlloc);
 
         Object srcNew;
         int offNew;
@@ -428,14 +643,13 @@ public final class CharUtil {
             srcNew = srcAlloc;
             offNew = offAlloc;
         } else if (srcPrev == srcAlloc && offPrev + cchPrev == offAlloc) {
-            //noinspection ConstantConditions
-            assert srcPrev instanceof char[];
+            assert srcPrev instanceof char[] || srcPrev instanceof byte[];
 
             srcNew = srcPrev;
             offNew = offPrev;
         } else if (srcPrev instanceof CharJoin && (j = (CharJoin) srcPrev)._srcRight == srcAlloc &&
                    offPrev + cchPrev - j._cchLeft + j._offRight == offAlloc) {
-            assert j._srcRight instanceof char[];
+            assert j._srcRight instanceof char[] || j._srcRight instanceof byte[];
 
             srcNew = srcPrev;
             offNew = offPrev;
@@ -459,14 +673,14 @@ public final class CharUtil {
             // buffer capable of containing all of the remaining text (no matter how large) and
             // return the beginning part of it.
 
-            srcAlloc = allocate(cchMore);
+            srcAlloc = latin1 ? allocateLatin1(cchMore) : allocate(cchMore);
             offAlloc = _offSrc;
             cchAlloc = _cchSrc;
 
             assert cchAlloc == cchMore;
             assert offAlloc == 0;
 
-            getChars(srcAlloc, offAlloc, srcSave, offSave + (cchSave - cchMore), cchMore);
+            copyChars(srcAlloc, offAlloc, srcSave, offSave + (cchSave - cchMore), cchMore);
 
             j = new CharJoin(srcNew, offNew, cchNew, srcAlloc, offAlloc);
 
@@ -483,6 +697,14 @@ public final class CharUtil {
         return srcNew;
     }
 
+    private static void copyChars(Object dst, int start, Object src, int off, int cch) {
+        if (dst instanceof byte[]) {
+            getLatin1((byte[]) dst, start, src, off, cch);
+        } else {
+            getChars((char[]) dst, start, src, off, cch);
+        }
+    }
+
     private static void dumpText(PrintStream o, String s) {
         o.print("\"");
 
@@ -557,6 +779,17 @@ public final class CharUtil {
 
             //p.print( ": " );
             dumpText(p, new String(chars, off, cch));
+        } else if (src instanceof byte[]) {
+            byte[] bytes = (byte[]) src;
+
+            p.print("byte[]");
+
+            if (off < 0 || off > bytes.length || off + cch < 0 || off + cch > bytes.length) {
+                p.print(" (Error)");
+                return;
+            }
+
+            dumpText(p, new String(bytes, off, cch, StandardCharsets.ISO_8859_1));
         } else if (src instanceof CharJoin) {
             p.print("CharJoin");
 
@@ -580,6 +813,11 @@ public final class CharUtil {
             return off <= c.length && off + cch <= c.length;
         }
 
+        if (src instanceof byte[]) {
+            byte[] b = (byte[]) src;
+            return off <= b.length && off + cch <= b.length;
+        }
+
         if (src instanceof String) {
             String s = (String) src;
             return off <= s.length() && off + cch <= s.length();
@@ -745,6 +983,7 @@ public final class CharUtil {
             _srcRoot = null;
             _srcLeafString = null;
             _srcLeafChars = null;
+            _srcLeafBytes = null;
         }
 
         public boolean hasNext() {
@@ -811,9 +1050,12 @@ public final class CharUtil {
 
                 _srcLeafChars = null;
                 _srcLeafString = null;
+                _srcLeafBytes = null;
 
                 if (src instanceof char[]) {
                     _srcLeafChars = (char[]) src;
+                } else if (src instanceof byte[]) {
+                    _srcLeafBytes = (byte[]) src;
                 } else {
                     _srcLeafString = (String) src;
                 }
@@ -827,7 +1069,11 @@ public final class CharUtil {
         private char currentChar() {
             int i = _offLeaf + _pos - _minPos;
 
-            return _srcLeafChars == null ? _srcLeafString.charAt(i) : _srcLeafChars[i];
+            if (_srcLeafChars != null) {
+                return _srcLeafChars[i];
+            }
+
+            return _srcLeafBytes == null ? _srcLeafString.charAt(i) : (char) (_srcLeafBytes[i] & 0xFF);
         }
 
         private Object _srcRoot; // Original triple
@@ -841,8 +1087,9 @@ public final class CharUtil {
 
         private int _offLeaf;
 
-        private String _srcLeafString;  // Cached leaf - either a char[] or a string
+        private String _srcLeafString;  // Cached leaf - either a char[], a Latin-1 byte[] or a string
         private char[] _srcLeafChars;
+        private byte[] _srcLeafBytes;
     }
 
     private static final int CHARUTIL_INITIAL_BUFSIZE = 1024 * 32;
@@ -858,12 +1105,20 @@ public final class CharUtil {
     // TODO - 64 is kinda arbitrary.  Perhaps it should be configurable.
     private static final int MAX_COPY = 64;
 
+    // the largest chunk of readChars
+    private static final int MAX_CHUNK = 64 * 1024;
+
     // Current char buffer we're allcoating new chars to
 
     private final int _charBufSize;
     private int _currentOffset;
     private char[] _currentBuffer;
 
+    // Current byte buffer we're allocating new Latin-1 chars to
+
+    private int _currentLatin1Offset;
+    private byte[] _currentLatin1Buffer;
+
     // These members are used to communicate offset and character count
     // information back to a caller of various methods on CharUtil.
     // Usually, the methods returns the src Object, and these two hold
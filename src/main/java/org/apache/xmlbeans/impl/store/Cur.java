@@ -512,8 +512,8 @@ public final class Cur {
         assert x != null || p == NO_POS;
         assert x == null || x.isNormal(p) || (x.isVacant() && x._cchValue == 0 && x._user == null);
         assert _state == REGISTERED || _state == EMBEDDED;
-        assert _state == EMBEDDED || (_xobj == null || !isOnList(_xobj._embedded));
-        assert _state == REGISTERED || (_xobj != null && isOnList(_xobj._embedded));
+        assert _state == EMBEDDED || (_xobj == null || !isOnList(_xobj.embedded()));
+        assert _state == REGISTERED || (_xobj != null && isOnList(_xobj.embedded()));
 
         moveToNoCheck(x, p);
 
@@ -522,7 +522,7 @@ public final class Cur {
 
     void moveToNoCheck(Xobj x, int p) {
         if (_state == EMBEDDED && x != _xobj) {
-            _xobj._embedded = listRemove(_xobj._embedded);
+            _xobj.setEmbedded(listRemove(_xobj.embedded()));
             _locale._registered = listInsert(_locale._registered);
             _state = REGISTERED;
         }
@@ -1303,8 +1303,7 @@ public final class Cur {
 
         _xobj.ensureOccupancy();
 
-        n = _xobj._charNodesValue =
-            updateCharNodes(_locale, _xobj, _xobj._charNodesValue, _xobj._cchValue);
+        n = _xobj.updateCharNodesValue();
 
         for (; n != null; n = n._next) {
             if (node == n) {
@@ -1313,8 +1312,7 @@ public final class Cur {
             }
         }
 
-        n = _xobj._charNodesAfter =
-            updateCharNodes(_locale, _xobj, _xobj._charNodesAfter, _xobj._cchAfter);
+        n = _xobj.updateCharNodesAfter();
 
         for (; n != null; n = n._next) {
             if (node == n) {
@@ -1527,9 +1525,9 @@ public final class Cur {
         assert !x.isRoot() || (p > 0 && p < x.posAfter());
 
         if (p >= x.posAfter()) {
-            x._charNodesAfter = nodes;
+            x.setCharNodesAfter(nodes);
         } else {
-            x._charNodesValue = nodes;
+            x.setCharNodesValue(nodes);
         }
 
         for (; nodes != null; nodes = nodes._next) {
@@ -1549,13 +1547,11 @@ public final class Cur {
         CharNode nodes;
 
         if (_posTemp >= x.posAfter()) {
-            nodes = x._charNodesAfter =
-                updateCharNodes(_locale, x, x._charNodesAfter, x._cchAfter);
+            nodes = x.updateCharNodesAfter();
         } else {
             x.ensureOccupancy();
 
-            nodes = x._charNodesValue =
-                updateCharNodes(_locale, x, x._charNodesValue, x._cchValue);
+            nodes = x.updateCharNodesValue();
         }
 
         return nodes;
@@ -1723,7 +1719,7 @@ public final class Cur {
             // I need to keep them alive.  I do this by moving these chars to a new root.  Note
             // that because Curs will stay behind, I don't have to check for them.
 
-            for (Bookmark b = _xobj._bookmarks; b != null; b = b._next) {
+            for (Bookmark b = _xobj.bookmarks(); b != null; b = b._next) {
                 if (inChars(b, cchMove, false)) {
                     Cur c = _locale.tempCur();
 
@@ -1923,8 +1919,8 @@ public final class Cur {
         x._locale.embedCurs();
 
         for (Xobj y = x; y != null; y = y.walk(x, true)) {
-            while (y._embedded != null) {
-                y._embedded.moveTo(x.getNormal(x.posAfter()));
+            while (y.embedded() != null) {
+                y.embedded().moveTo(x.getNormal(x.posAfter()));
             }
 
             y.disconnectUser();
@@ -2108,7 +2104,7 @@ public final class Cur {
                 y.invalidateSpecialAttr(to == null ? null : to.getParent());
             }
 
-            for (Cur c; (c = y._embedded) != null; ) {
+            for (Cur c; (c = y.embedded()) != null; ) {
                 c.moveTo(x, END_POS);
             }
 
@@ -2118,7 +2114,7 @@ public final class Cur {
                 y._locale = to._locale;
             }
 
-            sawBookmark = sawBookmark || y._bookmarks != null;
+            sawBookmark = sawBookmark || y.bookmarks() != null;
         }
 
         Xobj lastToMove = x._lastChild;
@@ -2252,7 +2248,7 @@ public final class Cur {
         assert isNormal();
         assert key != null;
 
-        for (Bookmark b = _xobj._bookmarks; b != null; b = b._next) {
+        for (Bookmark b = _xobj.bookmarks(); b != null; b = b._next) {
             if (b._pos == _pos && b._key == key) {
                 return b._value;
             }
@@ -2270,7 +2266,7 @@ public final class Cur {
         int d = -1;
 
         if (isText()) {
-            for (Bookmark b = _xobj._bookmarks; b != null; b = b._next) {
+            for (Bookmark b = _xobj.bookmarks(); b != null; b = b._next) {
                 if (b._key == key && inChars(b, cch, false)) {
                     d = (d == -1 || b._pos - _pos < d) ? b._pos - _pos : d;
                 }
@@ -2292,7 +2288,7 @@ public final class Cur {
             Xobj x = getDenormal();
             int p = _posTemp - cch;
 
-            for (Bookmark b = x._bookmarks; b != null; b = b._next) {
+            for (Bookmark b = x.bookmarks(); b != null; b = b._next) {
                 if (b._key == key && x.inChars(p, b._xobj, b._pos, cch, false)) {
                     d = (d == -1 || b._pos - p < d) ? b._pos - p : d;
                 }
@@ -2719,7 +2715,7 @@ public final class Cur {
         }
 
         if (_state == EMBEDDED) {
-            return isOnList(_xobj._embedded);
+            return isOnList(_xobj.embedded());
         }
 
         assert _state == REGISTERED;
@@ -2748,6 +2744,7 @@ public final class Cur {
             _discardDocElem = options.hasOption(XmlOptions.XmlOptionsKeys.LOAD_REPLACE_DOCUMENT_ELEMENT);
 
             _stripWhitespace = options.isSetLoadStripWhitespace();
+            _compactText = options.isLoadCompactText();
             _stripComments = options.isLoadStripComments();
             _stripProcinsts = options.isLoadStripProcinsts();
 
@@ -2810,7 +2807,7 @@ public final class Cur {
                 _frontier._srcAfter =
                     _charUtil.saveChars(
                         src, off, cch,
-                        _frontier._srcAfter, _frontier._offAfter, _frontier._cchAfter);
+                        _frontier._srcAfter, _frontier._offAfter, _frontier._cchAfter, _compactText);
 
                 _frontier._offAfter = _charUtil._offSrc;
                 _frontier._cchAfter = _charUtil._cchSrc;
@@ -2819,7 +2816,7 @@ public final class Cur {
                 _frontier._srcValue =
                     _charUtil.saveChars(
                         src, off, cch,
-                        _frontier._srcValue, _frontier._offValue, _frontier._cchValue);
+                        _frontier._srcValue, _frontier._offValue, _frontier._cchValue, _compactText);
 
                 _frontier._offValue = _charUtil._offSrc;
                 _frontier._cchValue = _charUtil._cchSrc;
@@ -3190,6 +3187,7 @@ public final class Cur {
         private final boolean _discardDocElem;
         private final QName _replaceDocElem;
         private final boolean _stripWhitespace;
+        private final boolean _compactText;
         private final boolean _stripComments;
         private final boolean _stripProcinsts;
         private final Map<String, String> _substituteNamespaces;
@@ -3257,7 +3255,7 @@ public final class Cur {
     }
 
     private static void dumpCurs(PrintStream o, Xobj xo, Object ref) {
-        for (Cur c = xo._embedded; c != null; c = c._next) {
+        for (Cur c = xo.embedded(); c != null; c = c._next) {
             dumpCur(o, "E:", c, ref);
         }
 
@@ -3269,7 +3267,7 @@ public final class Cur {
     }
 
     private static void dumpBookmarks(PrintStream o, Xobj xo, Object ref) {
-        for (Bookmark b = xo._bookmarks; b != null; b = b._next) {
+        for (Bookmark b = xo.bookmarks(); b != null; b = b._next) {
             o.print(" ");
 
             if (ref == b) {
@@ -3368,10 +3366,10 @@ public final class Cur {
             }
         }
 
-        if (xo._srcValue != null || xo._charNodesValue != null) {
+        if (xo._srcValue != null || xo.charNodesValue() != null) {
             o.print(" Value( ");
             dumpChars(o, xo._srcValue, xo._offValue, xo._cchValue);
-            dumpCharNodes(o, xo._charNodesValue, ref);
+            dumpCharNodes(o, xo.charNodesValue(), ref);
             o.print(" )");
         }
 
@@ -3383,10 +3381,10 @@ public final class Cur {
             o.print(" (VACANT)");
         }
 
-        if (xo._srcAfter != null || xo._charNodesAfter != null) {
+        if (xo._srcAfter != null || xo.charNodesAfter() != null) {
             o.print(" After( ");
             dumpChars(o, xo._srcAfter, xo._offAfter, xo._cchAfter);
-            dumpCharNodes(o, xo._charNodesAfter, ref);
+            dumpCharNodes(o, xo.charNodesAfter(), ref);
             o.print(" )");
         }
 
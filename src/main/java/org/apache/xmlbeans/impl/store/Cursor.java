@@ -564,19 +564,7 @@ public final class Cursor implements XmlCursor, ChangeListener {
             throw new IllegalArgumentException("Null OutputStream specified");
         }
 
-        try (InputStream is = _newInputStream(options)) {
-            byte[] bytes = new byte[8192];
-
-            for (; ; ) {
-                int n = is.read(bytes);
-
-                if (n < 0) {
-                    break;
-                }
-
-                os.write(bytes, 0, n);
-            }
-        }
+        Saver.OutputStreamSaver.save(_cur, os, options);
     }
 
     public void _save(Writer w, XmlOptions options) throws IOException {
@@ -1308,7 +1296,7 @@ public final class Cursor implements XmlCursor, ChangeListener {
 
     public void _getAllBookmarkRefs(Collection<Object> listToFill) {
         if (listToFill != null) {
-            for (Bookmark b = _cur._xobj._bookmarks; b != null; b = b._next) {
+            for (Bookmark b = _cur._xobj.bookmarks(); b != null; b = b._next) {
                 if (b._value instanceof XmlBookmark) {
                     listToFill.add(b._value);
                 }
@@ -1747,27 +1735,7 @@ public final class Cursor implements XmlCursor, ChangeListener {
             }
         }
 
-        boolean acquired = false;
-
-        try {
-            GlobalLock.acquire();
-            acquired = true;
-
-            synchronized (locale) {
-                synchronized (otherLocale) {
-                    GlobalLock.release();
-                    acquired = false;
-
-                    return twoLocaleOp(other, op, arg);
-                }
-            }
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e.getMessage(), e);
-        } finally {
-            if (acquired) {
-                GlobalLock.release();
-            }
-        }
+        return GlobalLock.synchronizedOn(locale, otherLocale, () -> twoLocaleOp(other, op, arg));
     }
 
     private int twoLocaleOp(Cursor other, int op, int arg) {
@@ -2507,8 +2475,10 @@ public final class Cursor implements XmlCursor, ChangeListener {
         }
     }
 
-    private void syncWrapHelper(Runnable inner, final boolean enterLocale) {
+    private void syncWrapHelper(Runnable inner, boolean enterLocale) {
         final Locale l = _cur._locale;
+        // a frozen locale is guarded by its lock, which is taken on entering
+        enterLocale |= l.isFrozen();
         if (enterLocale) {
             l.enter();
         }
@@ -2521,8 +2491,10 @@ public final class Cursor implements XmlCursor, ChangeListener {
         }
     }
 
-    private <T> T syncWrapHelper(Supplier<T> inner, final boolean enterLocale) {
+    private <T> T syncWrapHelper(Supplier<T> inner, boolean enterLocale) {
         final Locale l = _cur._locale;
+        // a frozen locale is guarded by its lock, which is taken on entering
+        enterLocale |= l.isFrozen();
         if (enterLocale) {
             l.enter();
         }
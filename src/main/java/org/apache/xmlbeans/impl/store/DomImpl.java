@@ -1103,7 +1103,7 @@ public final class DomImpl {
                 return (NodeXobj) lastAttr._nextSibling;
             }
             if (node.isExistingCharNodesValueUsable()) {
-                return node._charNodesValue;
+                return node.charNodesValue();
             }
         }
 
@@ -1143,11 +1143,11 @@ public final class DomImpl {
                     if (lastAttr.isNextSiblingPtrDomUsable()) {
                         return (NodeXobj) lastAttr._nextSibling;
                     } else if (lastAttr.isCharNodesAfterUsable()) {
-                        return lastAttr._charNodesAfter;
+                        return lastAttr.charNodesAfter();
                     }
                 }
                 if (node.isCharNodesValueUsable()) {
-                    return node._charNodesValue;
+                    return node.charNodesValue();
                 }
 
 
@@ -1256,11 +1256,9 @@ public final class DomImpl {
                 Xobj src = (Xobj) cn.getObject();
                 //if src is attr this node is always value and
                 // next is always the next ptr of the attr
-                src._charNodesAfter =
-                    Cur.updateCharNodes(src._locale, src, src._charNodesAfter, src._cchAfter);
+                src.updateCharNodesAfter();
 
-                src._charNodesValue =
-                    Cur.updateCharNodes(src._locale, src, src._charNodesValue, src._cchValue);
+                src.updateCharNodesValue();
 
                 if (cn._next != null) {
                     ns = cn._next;
@@ -1289,7 +1287,7 @@ public final class DomImpl {
                         (NodeXobj) node._nextSibling;
                 }
                 if (node.isCharNodesAfterUsable()) {
-                    return node._charNodesAfter;
+                    return node.charNodesAfter();
                 }
                 break;
             }
@@ -1329,7 +1327,7 @@ public final class DomImpl {
                 boolean isThisNodeAfterText = node.isNodeAftertext();
                 prev = node._prev;
                 if (prev == null) {
-                    prev = isThisNodeAfterText ? src : src._charNodesValue;
+                    prev = isThisNodeAfterText ? src : src.charNodesValue();
                 }
                 break;
             }
@@ -2095,12 +2093,10 @@ public final class DomImpl {
                     src.ensureOccupancy();
                     boolean isThisNodeAfterText = node.isNodeAftertext();
                     if (isThisNodeAfterText) {
-                        src._charNodesAfter =
-                            Cur.updateCharNodes(src._locale, src, src._charNodesAfter, src._cchAfter);
+                        src.updateCharNodesAfter();
                         s = src.getCharsAfterAsString(node._off, node._cch);
                     } else {
-                        src._charNodesValue =
-                            Cur.updateCharNodes(src._locale, src, src._charNodesValue, src._cchValue);
+                        src.updateCharNodesValue();
                         s = src.getCharsValueAsString(node._off, node._cch);
                     }
 
@@ -3757,6 +3753,8 @@ public final class DomImpl {
     }
 
     private static <T> T syncWrapHelper2(Locale l, boolean enter, Supplier<T> inner) {
+        // a frozen locale is guarded by its lock, which is taken on entering
+        enter |= l.isFrozen();
         if (enter) {
             l.enter();
         }
@@ -3780,6 +3778,7 @@ public final class DomImpl {
     }
 
     private static <T> T syncWrapHelperEx2(Locale l, boolean enter, WrapSoapEx<T> inner) throws SOAPException {
+        enter |= l.isFrozen();
         if (enter) {
             l.enter();
         }
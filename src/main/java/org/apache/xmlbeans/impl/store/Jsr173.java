@@ -25,11 +25,16 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.Location;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.function.Function;
 
 public class Jsr173 {
+    // the number of events read at once from a frozen document, if no batch size is given
+    private static final int FROZEN_BATCH_SIZE = 64;
+
     public static Node nodeFromStream(XMLStreamReader xs) {
         if (!(xs instanceof Jsr173GateWay)) {
             return null;
@@ -60,9 +65,7 @@ public class Jsr173 {
     }
 
     public static Node nodeFromStreamImpl(Jsr173GateWay gw) {
-        Cur c = gw._xs.getStreamCur();
-
-        return c.isNode() ? (Node) c.getDom() : (Node) null;
+        return gw.getNode();
     }
 
     public static XMLStreamReader newXmlStreamReader(Cur c, Object src, int off, int cch) {
@@ -97,7 +100,12 @@ public class Jsr173 {
             xs = new XMLStreamReaderForNode(c, false);
         }
 
-        if (c._locale.noSync()) {
+        Integer batchSize = options.getStreamBatchSize();
+        int batch = batchSize != null ? batchSize : c._locale.isFrozen() ? FROZEN_BATCH_SIZE : 1;
+
+        if (batch > 1 && xs instanceof XMLStreamReaderForNode) {
+            return new BatchedJsr173(c._locale, (XMLStreamReaderForNode) xs, batch);
+        } else if (c._locale.noSync()) {
             return new UnsyncedJsr173(c._locale, xs);
         } else {
             return new SyncedJsr173(c._locale, xs);
@@ -1171,6 +1179,12 @@ public class Jsr173 {
             _xs = xs;
         }
 
+        Node getNode() {
+            Cur c = _xs.getStreamCur();
+
+            return c.isNode() ? (Node) c.getDom() : (Node) null;
+        }
+
         Locale _l;
         XMLStreamReaderBase _xs;
     }
@@ -2242,5 +2256,684 @@ public class Jsr173 {
             }
         }
     }
+
+    /**
+     * Reads the events of a node stream in batches: the document is locked once per batch and the
+     * data of each event - name, attributes, namespaces and text - is copied into an event buffer.
+     * The accessors of the current event are answered from the buffer without locking the document.
+     * The text of an event refers to the char buffers of the store, which aren't changed in place,
+     * so {@link #getTextCharacters()} returns them without copying.
+     * <p>
+     * Changes of the document are detected when the next batch is read, until then the buffered
+     * events show the document as it was read.  The few calls, which depend on the position in the
+     * document, e.g. {@link #getNamespaceURI(String)}, lock the document and move the stream cursor
+     * to the position of the current event for the call.
+     */
+    private static final class BatchedJsr173 extends Jsr173GateWay implements XMLStreamReader, Location, NamespaceContext {
+        public BatchedJsr173(Locale l, XMLStreamReaderForNode xs, int batchSize) {
+            super(l, xs);
+
+            _node = xs;
+            _events = new Event[batchSize];
+
+            // the reader is created while the locale is entered
+            _events[0] = new Event();
+            snapshot(_events[0]);
+            _n = 1;
+
+            try {
+                _more = _node.hasNext();
+            } catch (XMLStreamException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+
+        //
+        // Batches
+        //
+
+        private void fill() throws XMLStreamException {
+            if (_l.noSync()) {
+                fillImpl();
+            } else {
+                synchronized (_l) {
+                    fillImpl();
+                }
+            }
+        }
+
+        private void fillImpl() throws XMLStreamException {
+            _l.enter();
+            try {
+                int n = 0;
+
+                do {
+                    _node.next();
+
+                    if (_events[n] == null) {
+                        _events[n] = new Event();
+                    }
+
+                    snapshot(_events[n++]);
+                }
+                while (n < _events.length && _node.hasNext());
+
+                _n = n;
+                _i = 0;
+                _more = _node.hasNext();
+            } finally {
+                _l.exit();
+            }
+        }
+
+        private void snapshot(Event e) {
+            Cur c = _node._cur;
+
+            e.clear();
+            e._type = _node.getEventType();
+            e._xobj = c._xobj;
+            e._pos = c._pos;
+
+            switch (c.kind()) {
+                case Cur.ELEM:
+                    e._name = c.getName();
+                    e._hasAttrs = true;
+                    e._hasNamespaces = true;
+                    addAttrs(e, c, true);
+                    break;
+
+                case -Cur.ELEM: {
+                    e._name = c.getName();
+                    e._hasNamespaces = true;
+                    Cur ca = c.tempCur();
+                    ca.toParent();
+                    addAttrs(e, ca, false);
+                    ca.release();
+                    break;
+                }
+
+                case Cur.ATTR:
+                    if (c.isXmlns()) {
+                        e._hasNamespaces = true;
+                        e.addNamespace(c.getXmlnsPrefix(), c.getXmlnsUri());
+                    } else {
+                        e._hasAttrs = true;
+                        e.addAttr(c.getName(), c.getValueAsString());
+                    }
+                    break;
+
+                case Cur.TEXT:
+                    e._src = c.getChars(-1);
+                    e._off = c._offSrc;
+                    e._cch = c._cchSrc;
+                    break;
+
+                case Cur.COMMENT: {
+                    Cur cText = c.tempCur();
+                    cText.next();
+                    e._src = cText.getChars(-1);
+                    e._off = cText._offSrc;
+                    e._cch = cText._cchSrc;
+                    cText.release();
+                    break;
+                }
+
+                case Cur.PROCINST:
+                    e._piTarget = c.getName().getLocalPart();
+                    e._piData = c.getValueAsString();
+                    break;
+            }
+        }
+
+        private static void addAttrs(Event e, Cur c, boolean withAttrs) {
+            Cur ca = c.tempCur();
+
+            if (ca.toFirstAttr()) {
+                do {
+                    if (ca.isXmlns()) {
+                        e.addNamespace(ca.getXmlnsPrefix(), ca.getXmlnsUri());
+                    } else if (withAttrs && ca.isNormalAttr()) {
+                        e.addAttr(ca.getName(), ca.getValueAsString());
+                    }
+                }
+                while (ca.toNextAttr());
+            }
+
+            ca.release();
+        }
+
+        /**
+         * Moves the stream cursor to the current event for a call, which needs the position in the document
+         */
+        private <T> T atCurrent(Function<XMLStreamReaderForNode, T> call) {
+            if (_l.noSync()) {
+                return atCurrentImpl(call);
+            } else {
+                synchronized (_l) {
+                    return atCurrentImpl(call);
+                }
+            }
+        }
+
+        private <T> T atCurrentImpl(Function<XMLStreamReaderForNode, T> call) {
+            _l.enter();
+            try {
+                // the positions of the buffered events are only valid for an unchanged document
+                _node.checkChanged();
+
+                return atCurrentPos(call);
+            } finally {
+                _l.exit();
+            }
+        }
+
+        private <T> T atCurrentPos(Function<XMLStreamReaderForNode, T> call) {
+            Event e = _events[_i];
+            Cur c = _node._cur;
+
+            c.push();
+            try {
+                c.moveTo(e._xobj, e._pos);
+                return call.apply(_node);
+            } finally {
+                c.pop();
+            }
+        }
+
+        Node getNode() {
+            // the caller has entered the locale
+            return atCurrentPos(xs -> {
+                Cur c = xs._cur;
+                return c.isNode() ? (Node) c.getDom() : (Node) null;
+            });
+        }
+
+        //
+        // Stream methods
+        //
+
+        public Object getProperty(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("Property name is null");
+            }
+
+            return null;
+        }
+
+        public int next() throws XMLStreamException {
+            if (!hasNext()) {
+                throw new IllegalStateException("No next event in stream");
+            }
+
+            if (_i + 1 < _n) {
+                _i++;
+            } else {
+                fill();
+            }
+
+            _textCopied = false;
+
+            return _events[_i]._type;
+        }
+
+        public void require(int type, String namespaceURI, String localName) throws XMLStreamException {
+            if (type != getEventType()) {
+                throw new XMLStreamException();
+            }
+
+            if (namespaceURI != null && !getNamespaceURI().equals(namespaceURI)) {
+                throw new XMLStreamException();
+            }
+
+            if (localName != null && !getLocalName().equals(localName)) {
+                throw new XMLStreamException();
+            }
+        }
+
+        public String getElementText() throws XMLStreamException {
+            if (!isStartElement()) {
+                throw new IllegalStateException();
+            }
+
+            StringBuilder sb = new StringBuilder();
+
+            for (; ; ) {
+                if (!hasNext()) {
+                    throw new XMLStreamException();
+                }
+
+                int e = next();
+
+                if (e == END_ELEMENT) {
+                    break;
+                } else if (e == START_ELEMENT) {
+                    throw new XMLStreamException();
+                } else if (e != COMMENT && e != PROCESSING_INSTRUCTION) {
+                    sb.append(getText());
+                }
+            }
+
+            return sb.toString();
+        }
+
+        public int nextTag() throws XMLStreamException {
+            for (; ; ) {
+                if (isStartElement() || isEndElement()) {
+                    return getEventType();
+                }
+
+                if (!isWhiteSpace()) {
+                    throw new XMLStreamException();
+                }
+
+                if (!hasNext()) {
+                    throw new XMLStreamException();
+                }
+
+                next();
+            }
+        }
+
+        public boolean hasNext() {
+            return _i + 1 < _n || _more;
+        }
+
+        public void close() {
+        }
+
+        public String getNamespaceURI(String prefix) {
+            return atCurrent(xs -> xs.getNamespaceURI(prefix));
+        }
+
+        public boolean isStartElement() {
+            return getEventType() == START_ELEMENT;
+        }
+
+        public boolean isEndElement() {
+            return getEventType() == END_ELEMENT;
+        }
+
+        public boolean isCharacters() {
+            return getEventType() == CHARACTERS;
+        }
+
+        public boolean isWhiteSpace() {
+            char[] chars = getTextCharacters();
+            int start = getTextStart();
+            int end = start + getTextLength();
+
+            for (int i = start; i < end; i++) {
+                if (!CharUtil.isWhiteSpace(chars[i])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        public String getAttributeValue(String namespaceURI, String localName) {
+            if (namespaceURI == null || localName == null || localName.length() == 0) {
+                throw new IllegalArgumentException();
+            }
+
+            Event e = attrEvent();
+
+            for (int i = 0; i < e._attrCount; i++) {
+                QName name = e._attrNames[i];
+                if (name.getLocalPart().equals(localName) && name.getNamespaceURI().equals(namespaceURI)) {
+                    return e._attrValues[i];
+                }
+            }
+
+            return null;
+        }
+
+        public int getAttributeCount() {
+            return attrEvent()._attrCount;
+        }
+
+        public QName getAttributeName(int index) {
+            return attrEvent()._attrNames[attrIndex(index)];
+        }
+
+        public String getAttributeNamespace(int index) {
+            return getAttributeName(index).getNamespaceURI();
+        }
+
+        public String getAttributeLocalName(int index) {
+            return getAttributeName(index).getLocalPart();
+        }
+
+        public String getAttributePrefix(int index) {
+            return getAttributeName(index).getPrefix();
+        }
+
+        public String getAttributeType(int index) {
+            attrIndex(index);
+            return "CDATA";
+        }
+
+        public String getAttributeValue(int index) {
+            return attrEvent()._attrValues[attrIndex(index)];
+        }
+
+        public boolean isAttributeSpecified(int index) {
+            attrIndex(index);
+            return false;
+        }
+
+        private Event attrEvent() {
+            Event e = _events[_i];
+
+            if (!e._hasAttrs) {
+                throw new IllegalStateException();
+            }
+
+            return e;
+        }
+
+        private int attrIndex(int index) {
+            if (index < 0) {
+                throw new IndexOutOfBoundsException("Attribute index is negative");
+            }
+
+            if (index >= attrEvent()._attrCount) {
+                throw new IndexOutOfBoundsException("Attribute index is too large");
+            }
+
+            return index;
+        }
+
+        public int getNamespaceCount() {
+            return namespaceEvent()._namespaceCount;
+        }
+
+        public String getNamespacePrefix(int index) {
+            return namespaceEvent()._namespaces[2 * namespaceIndex(index)];
+        }
+
+        public String getNamespaceURI(int index) {
+            return namespaceEvent()._namespaces[2 * namespaceIndex(index) + 1];
+        }
+
+        private Event namespaceEvent() {
+            Event e = _events[_i];
+
+            if (!e._hasNamespaces) {
+                throw new IllegalStateException();
+            }
+
+            return e;
+        }
+
+        private int namespaceIndex(int index) {
+            if (index < 0) {
+                throw new IndexOutOfBoundsException("Namespace index is negative");
+            }
+
+            if (index >= namespaceEvent()._namespaceCount) {
+                throw new IndexOutOfBoundsException("Namespace index is too large");
+            }
+
+            return index;
+        }
+
+        public NamespaceContext getNamespaceContext() {
+            return this;
+        }
+
+        public int getEventType() {
+            return _events[_i]._type;
+        }
+
+        public String getText() {
+            Event e = textEvent();
+            return CharUtil.getString(e._src, e._off, e._cch);
+        }
+
+        public char[] getTextCharacters() {
+            Event e = textEvent();
+
+            // the char buffers of the store aren't changed in place, so they can be handed out directly
+            if (e._src instanceof char[]) {
+                return (char[]) e._src;
+            }
+
+            if (!_textCopied) {
+                if (_chars == null || _chars.length < e._cch) {
+                    _chars = new char[Math.max(256, e._cch)];
+                }
+
+                CharUtil.getChars(_chars, 0, e._src, e._off, e._cch);
+                _textCopied = true;
+            }
+
+            return _chars;
+        }
+
+        public int getTextCharacters(int sourceStart, char[] target, int targetStart, int length) {
+            if (length < 0) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            if (targetStart < 0 || targetStart >= target.length) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            if (targetStart + length > target.length) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            Event e = textEvent();
+
+            if (sourceStart > e._cch) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            if (sourceStart + length > e._cch) {
+                length = e._cch - sourceStart;
+            }
+
+            CharUtil.getChars(target, targetStart, e._src, e._off + sourceStart, length);
+
+            return length;
+        }
+
+        public int getTextStart() {
+            Event e = textEvent();
+            return e._src instanceof char[] ? e._off : 0;
+        }
+
+        public int getTextLength() {
+            return textEvent()._cch;
+        }
+
+        private Event textEvent() {
+            Event e = _events[_i];
+
+            if (e._type != CHARACTERS && e._type != COMMENT) {
+                throw new IllegalStateException();
+            }
+
+            return e;
+        }
+
+        public String getEncoding() {
+            return null;
+        }
+
+        public boolean hasText() {
+            int type = getEventType();
+            return type == CHARACTERS || type == COMMENT;
+        }
+
+        public Location getLocation() {
+            atCurrent(XMLStreamReaderBase::getLocation);
+            return this;
+        }
+
+        public QName getName() {
+            if (!hasName()) {
+                throw new IllegalStateException();
+            }
+
+            return _events[_i]._name;
+        }
+
+        public String getLocalName() {
+            return getName().getLocalPart();
+        }
+
+        public boolean hasName() {
+            int type = getEventType();
+            return type == START_ELEMENT || type == END_ELEMENT;
+        }
+
+        public String getNamespaceURI() {
+            return getName().getNamespaceURI();
+        }
+
+        public String getPrefix() {
+            return getName().getPrefix();
+        }
+
+        public String getVersion() {
+            return atCurrent(XMLStreamReaderBase::getVersion);
+        }
+
+        public boolean isStandalone() {
+            return atCurrent(XMLStreamReaderBase::isStandalone);
+        }
+
+        public boolean standaloneSet() {
+            return false;
+        }
+
+        public String getCharacterEncodingScheme() {
+            return atCurrent(XMLStreamReaderBase::getCharacterEncodingScheme);
+        }
+
+        public String getPITarget() {
+            return _events[_i]._piTarget;
+        }
+
+        public String getPIData() {
+            return _events[_i]._piData;
+        }
+
+        public String getPrefix(String namespaceURI) {
+            return atCurrent(xs -> xs.getPrefix(namespaceURI));
+        }
+
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            return atCurrent(xs -> xs.getPrefixes(namespaceURI));
+        }
+
+        //
+        // Location methods, the values are set by getLocation()
+        //
+
+        public int getCharacterOffset() {
+            return _node.getCharacterOffset();
+        }
+
+        public int getColumnNumber() {
+            return _node.getColumnNumber();
+        }
+
+        public int getLineNumber() {
+            return _node.getLineNumber();
+        }
+
+        public String getLocationURI() {
+            return _node.getLocationURI();
+        }
+
+        public String getPublicId() {
+            return null;
+        }
+
+        public String getSystemId() {
+            return null;
+        }
+
+        //
+        //
+        //
+
+        /**
+         * The data of a buffered event, the instances are reused for the next batches
+         */
+        private static final class Event {
+            void clear() {
+                _name = null;
+                _hasAttrs = false;
+                _hasNamespaces = false;
+                Arrays.fill(_attrNames, 0, _attrCount, null);
+                Arrays.fill(_attrValues, 0, _attrCount, null);
+                Arrays.fill(_namespaces, 0, 2 * _namespaceCount, null);
+                _attrCount = 0;
+                _namespaceCount = 0;
+                _src = null;
+                _off = 0;
+                _cch = 0;
+                _piTarget = null;
+                _piData = null;
+            }
+
+            void addAttr(QName name, String value) {
+                if (_attrCount == _attrNames.length) {
+                    _attrNames = Arrays.copyOf(_attrNames, 2 * _attrCount);
+                    _attrValues = Arrays.copyOf(_attrValues, 2 * _attrCount);
+                }
+
+                _attrNames[_attrCount] = name;
+                _attrValues[_attrCount++] = value;
+            }
+
+            void addNamespace(String prefix, String uri) {
+                if (2 * _namespaceCount == _namespaces.length) {
+                    _namespaces = Arrays.copyOf(_namespaces, 4 * _namespaceCount);
+                }
+
+                _namespaces[2 * _namespaceCount] = prefix;
+                _namespaces[2 * _namespaceCount++ + 1] = uri;
+            }
+
+            int _type;
+
+            Xobj _xobj;
+            int _pos;
+
+            QName _name;
+
+            boolean _hasAttrs;
+            int _attrCount;
+            QName[] _attrNames = new QName[4];
+            String[] _attrValues = new String[4];
+
+            boolean _hasNamespaces;
+            int _namespaceCount;
+            // prefix and uri pairs
+            String[] _namespaces = new String[4];
+
+            Object _src;
+            int _off;
+            int _cch;
+
+            String _piTarget;
+            String _piData;
+        }
+
+        private final XMLStreamReaderForNode _node;
+
+        private final Event[] _events;
+        private int _n;
+        private int _i;
+        private boolean _more;
+
+        private char[] _chars;
+        private boolean _textCopied;
+    }
 }
 
@@ -19,9 +19,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.xmlbeans.*;
 import org.apache.xmlbeans.XmlCursor.XmlBookmark;
+import org.apache.xmlbeans.impl.common.GlobalLock;
 import org.apache.xmlbeans.impl.common.QNameHelper;
 import org.apache.xmlbeans.impl.common.ResolverUtil;
 import org.apache.xmlbeans.impl.common.SAXHelper;
+import org.apache.xmlbeans.impl.common.SystemCache;
 import org.apache.xmlbeans.impl.common.XmlLocale;
 import org.apache.xmlbeans.impl.store.Cur.Locations;
 import org.apache.xmlbeans.impl.store.DomImpl.Dom;
@@ -43,10 +45,17 @@ import java.io.StringReader;
 import java.lang.ref.PhantomReference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.apache.xmlbeans.impl.values.TypeStore.*;
 
@@ -102,6 +111,10 @@ public final class Locale
 
         _validateOnSet = options.isValidateOnSet();
 
+        _childIndexThreshold = options.getChildIndexThreshold();
+
+        _buildMode = options.isBuildMode();
+
         //
         // Check for Saaj implementation request
         //
@@ -136,6 +149,10 @@ public final class Locale
             throw new IllegalArgumentException("Source locale not understood: " + source);
         }
 
+        if (l.isFrozen()) {
+            throw new IllegalArgumentException("Source locale is frozen");
+        }
+
         if (l._schemaTypeLoader != stl) {
             throw new IllegalArgumentException(
                 "Source locale does not support same schema type loader");
@@ -476,11 +493,12 @@ public final class Locale
     private static <T> T syncWrap(SchemaTypeLoader stl, XmlOptions options, SyncWrapFun<T> fun)
     throws XmlException, IOException {
         Locale l = getLocale(stl, options);
+        T result;
 
         if (l.noSync()) {
             l.enter();
             try {
-                return fun.parse(l);
+                result = fun.parse(l);
             } finally {
                 l.exit();
             }
@@ -488,12 +506,18 @@ public final class Locale
             synchronized (l) {
                 l.enter();
                 try {
-                    return fun.parse(l);
+                    result = fun.parse(l);
                 } finally {
                     l.exit();
                 }
             }
         }
+
+        if (result instanceof XmlObject && XmlOptions.maskNull(options).isLoadFrozen()) {
+            ((XmlObject) result).freeze();
+        }
+
+        return result;
     }
 
     public static XmlObject parseToXmlObject(SchemaTypeLoader stl, String xmlText, SchemaType type, XmlOptions options)
@@ -827,6 +851,115 @@ public final class Locale
         }
     }
 
+    /**
+     * Loads the node or text at the position of the given cursor, like loadNode does for
+     * a DOM node.  The store of the cursor is read directly, instead of bridging it to DOM.
+     */
+    public void loadCur(Cur c, LoadContext context) {
+        Cur from = c.tempCur();
+
+        try {
+            switch (from.kind()) {
+                case TEXT: {
+                    context.text(from.getCharsAsString());
+                    break;
+                }
+                case ATTR: {
+                    loadAttr(from, context);
+                    break;
+                }
+                case COMMENT:
+                case PROCINST: {
+                    loadLeaf(from, context);
+                    break;
+                }
+                case ROOT:
+                case ELEM: {
+                    loadContents(from, context);
+                    break;
+                }
+            }
+        } finally {
+            from.release();
+        }
+    }
+
+    private static void loadContents(Cur c, LoadContext context) {
+        boolean isElem = c.isElem();
+
+        c.push();
+
+        do {
+            switch (c.kind()) {
+                case ELEM: {
+                    context.startElement(c.getName());
+
+                    c.push();
+
+                    if (c.toFirstAttr()) {
+                        do {
+                            loadAttr(c, context);
+                        } while (c.toNextAttr());
+                    }
+
+                    c.pop();
+                    c.next();
+
+                    break;
+                }
+                case -ELEM: {
+                    context.endElement();
+                    c.next();
+
+                    break;
+                }
+                case TEXT: {
+                    context.text(c.getCharsAsString());
+                    c.next();
+
+                    break;
+                }
+                case COMMENT:
+                case PROCINST: {
+                    loadLeaf(c, context);
+                    c.skip();
+
+                    break;
+                }
+                default: {
+                    // the start of the root
+                    c.next();
+
+                    break;
+                }
+            }
+        } while (!c.isAtEndOfLastPush());
+
+        c.pop();
+
+        if (isElem) {
+            context.endElement();
+        }
+    }
+
+    private static void loadAttr(Cur c, LoadContext context) {
+        QName name = c.getName();
+
+        if (isXmlns(name)) {
+            context.xmlns(xmlnsPrefix(name), c.getValueAsString());
+        } else {
+            context.attr(name, c.getValueAsString());
+        }
+    }
+
+    private static void loadLeaf(Cur c, LoadContext context) {
+        if (c.kind() == COMMENT) {
+            context.comment(c.getValueAsString());
+        } else {
+            context.procInst(c.getName().getLocalPart(), c.getValueAsString());
+        }
+    }
+
     //
     //
     //
@@ -992,6 +1125,10 @@ public final class Locale
     }
 
     void notifyChange() {
+        if (_frozen) {
+            throw new IllegalStateException("The document is frozen and can't be changed");
+        }
+
         // First, notify the registered listeners ...
 
         while (_changeListeners != null) {
@@ -1313,6 +1450,17 @@ public final class Locale
             return null;
         }
 
+        if (_frozen) {
+            return frozenNthChildElem(parent, name, set, n);
+        }
+
+        ChildIndex index = childIndex(parent, n >= _childIndexThreshold);
+
+        if (index != null) {
+            List<Xobj> elems = index.elems(name, set);
+            return n < elems.size() ? elems.get(n) : null;
+        }
+
         int da = _nthCache_A.distance(parent, name, set, n);
         int db = _nthCache_B.distance(parent, name, set, n);
 
@@ -1331,10 +1479,21 @@ public final class Locale
     }
 
     int count(Xobj parent, QName name, QNameSet set) {
+        if (_frozen) {
+            return frozenCount(parent, name, set);
+        }
+
+        ChildIndex index = childIndex(parent, false);
+
+        if (index != null) {
+            return index.elems(name, set).size();
+        }
+
         int n = 0;
+        int visited = 0;
 
         for (Xobj x = findNthChildElem(parent, name, set, 0);
-             x != null; x = x._nextSibling) {
+             x != null; x = x._nextSibling, visited++) {
             if (x.isElem()) {
                 if (set == null) {
                     if (x._name.equals(name)) {
@@ -1346,9 +1505,164 @@ public final class Locale
             }
         }
 
+        if (visited >= _childIndexThreshold) {
+            // counting is usually followed by positional access, e.g. when looping over an array
+            childIndex(parent, true);
+        }
+
         return n;
     }
 
+    /**
+     * Returns the child index for the given parent, if it's still valid, or builds a new one
+     * if requested.  The indexes of the last few indexed parents are kept, so alternating
+     * access to the children of several large parents doesn't rebuild them.
+     */
+    private ChildIndex childIndex(Xobj parent, boolean build) {
+        if (_childIndexThreshold <= 0 || parent == null) {
+            return null;
+        }
+
+        ChildIndex index = _childIndexes == null ? null : _childIndexes.get(parent);
+
+        if (index != null) {
+            if (index._version == _versionSansText) {
+                return index;
+            }
+
+            // the structure has changed, so the other indexes are stale as well
+            _childIndexes.clear();
+        }
+
+        if (!build) {
+            return null;
+        }
+
+        if (_childIndexes == null) {
+            _childIndexes = new LinkedHashMap<Xobj, ChildIndex>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Xobj, ChildIndex> eldest) {
+                    return size() > MAX_CHILD_INDEXES;
+                }
+            };
+        }
+
+        index = new ChildIndex(parent, _versionSansText);
+        _childIndexes.put(parent, index);
+
+        return index;
+    }
+
+    // The typed getters of a frozen locale run concurrently, so they can't use the caches above.
+    // Instead, they walk the children and share the indexes of the large parents.
+
+    private Xobj frozenNthChildElem(Xobj parent, QName name, QNameSet set, int n) {
+        ChildIndex index = _frozenIndexes.get(parent);
+
+        if (index == null) {
+            int found = 0;
+            int visited = 0;
+
+            for (Xobj x = parent._firstChild; x != null; x = x._nextSibling, visited++) {
+                if (_childIndexThreshold > 0 && visited >= _childIndexThreshold) {
+                    index = frozenChildIndex(parent);
+                    break;
+                }
+                if (isChildElem(x, name, set) && found++ == n) {
+                    return x;
+                }
+            }
+
+            if (index == null) {
+                return null;
+            }
+        }
+
+        List<Xobj> elems = index.elems(name, set);
+        return n < elems.size() ? elems.get(n) : null;
+    }
+
+    private int frozenCount(Xobj parent, QName name, QNameSet set) {
+        ChildIndex index = _frozenIndexes.get(parent);
+
+        if (index == null) {
+            int n = 0;
+            int visited = 0;
+
+            for (Xobj x = parent._firstChild; x != null; x = x._nextSibling, visited++) {
+                if (_childIndexThreshold > 0 && visited >= _childIndexThreshold) {
+                    index = frozenChildIndex(parent);
+                    break;
+                }
+                if (isChildElem(x, name, set)) {
+                    n++;
+                }
+            }
+
+            if (index == null) {
+                return n;
+            }
+        }
+
+        return index.elems(name, set).size();
+    }
+
+    private ChildIndex frozenChildIndex(Xobj parent) {
+        return _frozenIndexes.computeIfAbsent(parent, p -> new ChildIndex(p, _versionSansText));
+    }
+
+    private static boolean isChildElem(Xobj x, QName name, QNameSet set) {
+        return x.isElem() && (set == null ? name == null || name.equals(x._name) : set.contains(x._name));
+    }
+
+    /**
+     * An index of the child elements of a parent, to avoid walking the siblings for positional
+     * access to large repeating elements.  The index is only valid as long as the structure of
+     * the document doesn't change, which is checked with the version sans text.
+     */
+    static final class ChildIndex {
+        final Xobj _parent;
+        final long _version;
+
+        private final List<Xobj> _elems = new ArrayList<>();
+        private final Map<QName, List<Xobj>> _byName = new HashMap<>();
+        // QNameSets are generated by the compiler, so their identity comparison is sufficient.
+        // The index of a frozen locale is shared between threads, hence the concurrent map
+        private final Map<QNameSet, List<Xobj>> _bySet = new ConcurrentHashMap<>();
+
+        ChildIndex(Xobj parent, long version) {
+            _parent = parent;
+            _version = version;
+
+            for (Xobj x = parent._firstChild; x != null; x = x._nextSibling) {
+                if (x.isElem()) {
+                    _elems.add(x);
+                    _byName.computeIfAbsent(x._name, k -> new ArrayList<>()).add(x);
+                }
+            }
+        }
+
+        List<Xobj> elems(QName name, QNameSet set) {
+            if (set != null) {
+                return _bySet.computeIfAbsent(set, s -> {
+                    List<Xobj> l = new ArrayList<>();
+                    for (Xobj x : _elems) {
+                        if (s.contains(x._name)) {
+                            l.add(x);
+                        }
+                    }
+                    return l;
+                });
+            }
+
+            if (name == null) {
+                return _elems;
+            }
+
+            return _byName.getOrDefault(name, Collections.emptyList());
+        }
+    }
+
     static boolean toChild(Cur c, QName name, int n) {
         if (n >= 0 && pushToContainer(c)) {
             Xobj x = c._locale.findNthChildElem(c._xobj, name, null, n);
@@ -1977,7 +2291,7 @@ public final class Locale
             assert c._xobj != null;
 
             _registered = c.listRemove(_registered);
-            c._xobj._embedded = c.listInsert(c._xobj._embedded);
+            c._xobj.setEmbedded(c.listInsert(c._xobj.embedded()));
             c._state = Cur.EMBEDDED;
         }
     }
@@ -2004,6 +2318,12 @@ public final class Locale
     }
 
     public void enter() {
+        if (_frozen) {
+            // the typed getters of a frozen locale don't synchronize on it, so the
+            // temp curs and caches used from here on need their own lock
+            _frozenLock.lock();
+        }
+
         assert _numTempFramesLeft >= 0;
 
         if (--_numTempFramesLeft <= 0) {
@@ -2060,6 +2380,10 @@ public final class Locale
         while (_tempFrames[frame] != null) {
             _tempFrames[frame].release();
         }
+
+        if (_frozen) {
+            _frozenLock.unlock();
+        }
     }
 
     public boolean noSync() {
@@ -2070,6 +2394,47 @@ public final class Locale
         return !_noSync;
     }
 
+    public boolean isFrozen() {
+        return _frozen;
+    }
+
+    /**
+     * Freezes the locale and prepares the document of the given root for concurrent reads:
+     * the text of all nodes is materialized and all typed values are computed, so the
+     * strongly typed getters don't need the scratch state of the locale anymore.
+     * <p>
+     * The caller holds the monitor of the locale, unless it's unsynchronized.  If the
+     * locale is already frozen, only the document is prepared.
+     */
+    void freeze(Xobj root) {
+        if (!_frozen && entered()) {
+            throw new IllegalStateException("A document can't be frozen while it's accessed");
+        }
+
+        enter();
+        try {
+            for (Xobj x = root; x != null; x = x.walk(root, true)) {
+                x.ensureOccupancy();
+
+                if (x.isUserNode() && (x._user != null || !x.isRoot())) {
+                    x.getUser().freeze_value();
+                }
+            }
+        } finally {
+            exit();
+        }
+
+        if (!_frozen) {
+            _frozenLock = new ReentrantLock();
+            _frozenIndexes = new ConcurrentHashMap<>();
+            _frozen = true;
+        }
+    }
+
+    public long lockOrder() {
+        return _lockOrder;
+    }
+
     static boolean isWhiteSpace(String s) {
         int l = s.length();
 
@@ -2227,21 +2592,29 @@ public final class Locale
         }
 
         XMLReader xr = options.getLoadUseXMLReader();
+        SaxLoader sl;
 
-        if (xr == null) {
-            try {
-                xr = SAXHelper.newXMLReader(new XmlOptions(options));
-            } catch (Exception e) {
-                throw new XmlException("Problem creating XMLReader", e);
+        if (xr != null) {
+            // user supplied readers are never pooled
+            sl = new XmlReaderSaxLoader(xr, null);
+        } else {
+            String profile = SAXHelper.readerProfile(options);
+            SaxLoaderPool pool = SaxLoaderPool.getThreadPool();
+            sl = pool == null ? null : pool.acquire(profile);
+            if (sl == null) {
+                try {
+                    xr = SAXHelper.newXMLReader(new XmlOptions(options));
+                } catch (Exception e) {
+                    throw new XmlException("Problem creating XMLReader", e);
+                }
+                sl = new XmlReaderSaxLoader(xr, pool == null ? null : profile);
             }
         }
 
-        SaxLoader sl = new XmlReaderSaxLoader(xr);
-
         // I've noticed that most XMLReaders don't like a null EntityResolver...
 
         if (er != null) {
-            xr.setEntityResolver(er);
+            sl._xr.setEntityResolver(er);
         }
 
         return sl;
@@ -2249,8 +2622,90 @@ public final class Locale
 
     private static class XmlReaderSaxLoader
         extends SaxLoader {
-        XmlReaderSaxLoader(XMLReader xr) {
+        XmlReaderSaxLoader(XMLReader xr, String profile) {
             super(xr, null);
+            _profile = profile;
+        }
+
+        @Override
+        void postLoad(Cur c) {
+            super.postLoad(c);
+
+            if (_profile != null) {
+                // restore the state of a freshly created reader before handing it out again
+                _xr.setEntityResolver(SAXHelper.IGNORING_ENTITY_RESOLVER);
+                SaxLoaderPool pool = SaxLoaderPool.getThreadPool();
+                if (pool != null) {
+                    pool.release(this);
+                }
+            }
+        }
+
+        /**
+         * The reader profile, see {@link SAXHelper#readerProfile(XmlOptions)}, or {@code null}
+         * if this loader must not be pooled
+         */
+        private final String _profile;
+    }
+
+    /**
+     * A small per-thread pool of SAX loaders, to avoid the costly setup of a new
+     * {@link XMLReader} for each parse.
+     * <p>
+     * The pool is held by the {@link SystemCache} and is bounded by the
+     * "xmlbean.saxloaderpoolsize" system property (defaults to 4, 0 disables pooling).
+     * Loaders are removed from the pool while in use, so nested parses on the same
+     * thread get their own loader.  Only loaders which finished a document successfully
+     * are returned to the pool.
+     */
+    private static final class SaxLoaderPool {
+        private static final int POOL_SIZE = initPoolSize();
+
+        private final ArrayDeque<XmlReaderSaxLoader> _loaders = new ArrayDeque<>(POOL_SIZE);
+
+        static SaxLoaderPool getThreadPool() {
+            if (POOL_SIZE <= 0) {
+                return null;
+            }
+
+            SystemCache cache = SystemCache.get();
+            Object o = cache.getSaxLoader();
+            if (o instanceof SaxLoaderPool) {
+                return (SaxLoaderPool) o;
+            }
+
+            SaxLoaderPool pool = new SaxLoaderPool();
+            cache.setSaxLoader(pool);
+            return pool;
+        }
+
+        XmlReaderSaxLoader acquire(String profile) {
+            for (Iterator<XmlReaderSaxLoader> it = _loaders.iterator(); it.hasNext(); ) {
+                XmlReaderSaxLoader sl = it.next();
+                if (sl._profile.equals(profile)) {
+                    it.remove();
+                    return sl;
+                }
+            }
+            return null;
+        }
+
+        void release(XmlReaderSaxLoader sl) {
+            if (_loaders.size() >= POOL_SIZE) {
+                // evict the least recently released loader
+                _loaders.removeLast();
+            }
+            _loaders.addFirst(sl);
+        }
+
+        private static int initPoolSize() {
+            String size = SystemProperties.getProperty("xmlbean.saxloaderpoolsize", "4");
+            try {
+                return Integer.parseInt(size);
+            } catch (NumberFormatException e) {
+                LOG.atWarn().log("Invalid xmlbean.saxloaderpoolsize {} - using default", size);
+                return 4;
+            }
         }
     }
 
@@ -2265,7 +2720,9 @@ public final class Locale
         private boolean _wantCdataBookmarks;
         private Locator _startLocator;
         private boolean _insideCDATA = false;
-        private int _entityBytesLimit = 10240;
+        private static final int DEFAULT_ENTITY_BYTES_LIMIT = 10240;
+
+        private int _entityBytesLimit = DEFAULT_ENTITY_BYTES_LIMIT;
         private int _entityBytes = 0;
         private int _insideEntity = 0;
         private Map<String, String> delayedPrefixMappings = new LinkedHashMap<>();
@@ -2285,10 +2742,13 @@ public final class Locale
             _wantLineNumbersAtEndElt = safeOptions.isLoadLineNumbersEndElement();
             _wantCdataBookmarks = safeOptions.isUseCDataBookmarks();
 
+            // the handler may be reused from the pool, so reset all per-document state
             Integer limit = safeOptions.getLoadEntityBytesLimit();
-            if (limit != null) {
-                _entityBytesLimit = limit;
-            }
+            _entityBytesLimit = (limit != null) ? limit : DEFAULT_ENTITY_BYTES_LIMIT;
+            _entityBytes = 0;
+            _insideEntity = 0;
+            _insideCDATA = false;
+            delayedPrefixMappings.clear();
         }
 
         @Override
@@ -2589,7 +3049,7 @@ public final class Locale
             throw e;
         }
 
-        private final XMLReader _xr;
+        final XMLReader _xr;
     }
 
     private Dom load(InputSource is, XmlOptions options)
@@ -2754,6 +3214,11 @@ public final class Locale
 
 
     boolean _noSync;
+    // set once, after the lock and the index map below are initialized
+    private volatile boolean _frozen;
+    private ReentrantLock _frozenLock;
+    private Map<Xobj, ChildIndex> _frozenIndexes;
+    private final long _lockOrder = GlobalLock.nextLockOrder();
 
     SchemaTypeLoader _schemaTypeLoader;
 
@@ -2790,6 +3255,15 @@ public final class Locale
 
     int _posTemp;
 
+    private final int _childIndexThreshold;
+
+    final boolean _buildMode;
+
+    private static final int MAX_CHILD_INDEXES = 8;
+
+    // the most recently used child indexes, created on demand
+    private Map<Xobj, ChildIndex> _childIndexes;
+
     nthCache _nthCache_A = new nthCache();
     nthCache _nthCache_B = new nthCache();
 
@@ -28,6 +28,8 @@ import org.xml.sax.helpers.AttributesImpl;
 
 import javax.xml.namespace.QName;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 abstract class Saver {
@@ -1703,6 +1705,34 @@ abstract class Saver {
                 }
             }
 
+            try {
+                int charsAvailable = drain(writer);
+                writer.flush();
+                return charsAvailable;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * Saves the remaining document to the writer in chunks of about cchChunk chars.
+         * In contrast to {@link #write(Writer, int)} the writer isn't flushed after each chunk
+         * and IOExceptions are passed through.
+         */
+        void save(Writer writer, int cchChunk) throws IOException {
+            for (boolean more = true; more; ) {
+                while (getAvailable() < cchChunk) {
+                    if (!process()) {
+                        more = false;
+                        break;
+                    }
+                }
+
+                drain(writer);
+            }
+        }
+
+        private int drain(Writer writer) throws IOException {
             int charsAvailable = getAvailable();
 
             if (charsAvailable > 0) {
@@ -1716,13 +1746,7 @@ abstract class Saver {
                 }
                 assert _free == _cbuf.length - _in;
 
-                try {
-//System.out.println("-------------\nWriting in converter: TextSaver.write():1703  " + charsAvailable + " chars\n" + new String(_cbuf, 0, charsAvailable));
-                    writer.write(_cbuf, 0, charsAvailable);
-                    writer.flush();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
+                writer.write(_cbuf, 0, charsAvailable);
 
                 _free += charsAvailable;
 
@@ -2236,49 +2260,218 @@ abstract class Saver {
         private boolean _closed;
     }
 
-    static final class InputStreamSaver extends InputStream {
+    /**
+     * @return the IANA name of the encoding to save with, taken from the options
+     * or the document properties and defaulting to UTF-8
+     */
+    private static String saveEncoding(Cur c, XmlOptions options) {
+        String encoding = null;
 
-        InputStreamSaver(Cur c, XmlOptions options) {
-            _locale = c._locale;
+        XmlDocumentProperties props = Locale.getDocProps(c, false);
 
-            _closed = false;
+        if (props != null && props.getEncoding() != null) {
+            encoding = EncodingMap.getIANA2JavaMapping(props.getEncoding());
+        }
 
-            assert _locale.entered();
+        String enc = options.getCharacterEncoding();
+        if (enc != null) {
+            encoding = enc;
+        }
+
+        if (encoding != null) {
+            String ianaEncoding = EncodingMap.getJava2IANAMapping(encoding);
+
+            if (ianaEncoding != null) {
+                encoding = ianaEncoding;
+            }
+        }
+
+        if (encoding == null) {
+            encoding = EncodingMap.getJava2IANAMapping("UTF8");
+        }
+
+        return encoding;
+    }
+
+    private static String javaEncoding(String encoding) {
+        String javaEncoding = (encoding == null) ? null : EncodingMap.getIANA2JavaMapping(encoding);
+
+        if (javaEncoding == null) {
+            throw new IllegalStateException("Unknown encoding: " + encoding);
+        }
+
+        return javaEncoding;
+    }
+
+    /**
+     * Saves directly into an OutputStream.  Contrary to the {@link InputStreamSaver}, the chars of
+     * the {@link TextSaver} are encoded straight into the stream without an intermediate byte queue.
+     */
+    static final class OutputStreamSaver {
+        private OutputStreamSaver() {
+        }
+
+        static void save(Cur c, OutputStream os, XmlOptions options) throws IOException {
+            assert c._locale.entered();
 
             options = XmlOptions.maskNull(options);
 
-            _outStreamImpl = new OutputStreamImpl();
+            String encoding = saveEncoding(c, options);
+            Writer w = newEncoder(os, javaEncoding(encoding));
+
+            new TextSaver(c, options, encoding).save(w, 8192);
 
-            String encoding = null;
+            if (w instanceof ByteEncoder) {
+                // doesn't close the stream, but writes out a dangling surrogate
+                w.close();
+            } else {
+                w.flush();
+            }
+        }
 
-            XmlDocumentProperties props = Locale.getDocProps(c, false);
+        private static Writer newEncoder(OutputStream os, String javaEncoding) throws UnsupportedEncodingException {
+            Charset cs;
+            try {
+                cs = Charset.forName(javaEncoding);
+            } catch (IllegalArgumentException e) {
+                throw new UnsupportedEncodingException(javaEncoding);
+            }
 
-            if (props != null && props.getEncoding() != null) {
-                encoding = EncodingMap.getIANA2JavaMapping(props.getEncoding());
+            if (StandardCharsets.UTF_8.equals(cs)) {
+                return new ByteEncoder(os, 0);
+            } else if (StandardCharsets.US_ASCII.equals(cs)) {
+                return new ByteEncoder(os, 0x7F);
+            } else if (StandardCharsets.ISO_8859_1.equals(cs)) {
+                return new ByteEncoder(os, 0xFF);
+            } else {
+                return new OutputStreamWriter(os, cs);
             }
+        }
+    }
 
-            String enc = options.getCharacterEncoding();
-            if (enc != null) {
-                encoding = enc;
+    /**
+     * Encodes chars into UTF-8 or, if maxChar is set, into a single byte charset which maps the
+     * chars up to maxChar one to one.  Unmappable chars and unpaired surrogates are replaced
+     * with '?', as the JDK encoders do.  The underlying stream is neither flushed nor closed.
+     */
+    static final class ByteEncoder extends Writer {
+        private final OutputStream _os;
+        private final int _maxChar;
+        private final byte[] _buf = new byte[8192];
+        private int _pos;
+        private char _highSurrogate;
+
+        ByteEncoder(OutputStream os, int maxChar) {
+            _os = os;
+            _maxChar = maxChar;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int end = off + len;
+
+            for (int i = off; i < end; ) {
+                if (_pos + 4 > _buf.length) {
+                    flushBuffer();
+                }
+
+                char ch = cbuf[i];
+
+                if (ch < 0x80 && _highSurrogate == 0) {
+                    // ASCII runs are the common case for markup
+                    int stop = Math.min(end, i + _buf.length - _pos);
+                    do {
+                        _buf[_pos++] = (byte) ch;
+                    } while (++i < stop && (ch = cbuf[i]) < 0x80);
+                } else {
+                    encode(ch);
+                    i++;
+                }
             }
+        }
 
-            if (encoding != null) {
-                String ianaEncoding = EncodingMap.getJava2IANAMapping(encoding);
+        private void encode(char ch) {
+            if (_highSurrogate != 0) {
+                char high = _highSurrogate;
+                _highSurrogate = 0;
 
-                if (ianaEncoding != null) {
-                    encoding = ianaEncoding;
+                if (Character.isLowSurrogate(ch)) {
+                    put(Character.toCodePoint(high, ch));
+                    return;
                 }
+
+                put('?');
             }
 
-            if (encoding == null) {
-                encoding = EncodingMap.getJava2IANAMapping("UTF8");
+            if (Character.isHighSurrogate(ch)) {
+                // the low surrogate might be in the next chunk
+                _highSurrogate = ch;
+            } else {
+                put(Character.isLowSurrogate(ch) ? '?' : ch);
+            }
+        }
+
+        private void put(int cp) {
+            if (_maxChar > 0) {
+                _buf[_pos++] = (byte) (cp <= _maxChar ? cp : '?');
+            } else if (cp < 0x80) {
+                _buf[_pos++] = (byte) cp;
+            } else if (cp < 0x800) {
+                _buf[_pos++] = (byte) (0xC0 | (cp >> 6));
+                _buf[_pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (cp < 0x10000) {
+                _buf[_pos++] = (byte) (0xE0 | (cp >> 12));
+                _buf[_pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                _buf[_pos++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                _buf[_pos++] = (byte) (0xF0 | (cp >> 18));
+                _buf[_pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                _buf[_pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                _buf[_pos++] = (byte) (0x80 | (cp & 0x3F));
             }
+        }
 
-            String javaEncoding = (encoding == null) ? null : EncodingMap.getIANA2JavaMapping(encoding);
+        private void flushBuffer() throws IOException {
+            if (_pos > 0) {
+                _os.write(_buf, 0, _pos);
+                _pos = 0;
+            }
+        }
+
+        /**
+         * Writes out the pending bytes.  A dangling high surrogate is only replaced on close,
+         * as its low surrogate might still follow.
+         */
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+        }
 
-            if (javaEncoding == null) {
-                throw new IllegalStateException("Unknown encoding: " + encoding);
+        @Override
+        public void close() throws IOException {
+            if (_highSurrogate != 0) {
+                _highSurrogate = 0;
+                put('?');
             }
+            flushBuffer();
+        }
+    }
+
+    static final class InputStreamSaver extends InputStream {
+
+        InputStreamSaver(Cur c, XmlOptions options) {
+            _locale = c._locale;
+
+            _closed = false;
+
+            assert _locale.entered();
+
+            options = XmlOptions.maskNull(options);
+
+            _outStreamImpl = new OutputStreamImpl();
+
+            String encoding = saveEncoding(c, options);
+            String javaEncoding = javaEncoding(encoding);
 
             try {
                 _converter = new OutputStreamWriter(_outStreamImpl, javaEncoding);
@@ -0,0 +1,524 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.xmlbeans.impl.store;
+
+import net.sf.saxon.Configuration;
+import net.sf.saxon.om.*;
+import net.sf.saxon.pattern.NodePredicate;
+import net.sf.saxon.str.StringView;
+import net.sf.saxon.str.UnicodeString;
+import net.sf.saxon.tree.iter.AxisIterator;
+import net.sf.saxon.tree.iter.EmptyIterator;
+import net.sf.saxon.tree.wrapper.AbstractNodeWrapper;
+import net.sf.saxon.tree.wrapper.SiblingCountingNode;
+import net.sf.saxon.type.Type;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Saxon {@link NodeInfo} which walks the {@link Xobj} tree directly, so XPath and XQuery
+ * evaluation doesn't need to go through the DOM implementation of the store.
+ * <p>
+ * Text is not represented by Xobjs, so a text node is identified by the Xobj holding
+ * the chars - either the value of a container, which is the text before its first child,
+ * or the text after a node.  Text after the last attribute is the leading text of the
+ * attribute's element.
+ * <p>
+ * The wrappers must only be used on the thread which holds the lock of the document,
+ * i.e. while evaluating an expression from within a {@link Cur}.
+ */
+public final class StoreNodeInfo extends AbstractNodeWrapper implements SiblingCountingNode {
+    private static final int NODE = 0;
+    private static final int TEXT_VALUE = 1;
+    private static final int TEXT_AFTER = 2;
+
+    private final Xobj _xobj;
+    private final int _part;
+
+    private StoreNodeInfo(StoreTreeInfo tree, Xobj x, int part) {
+        treeInfo = tree;
+        _xobj = x;
+        _part = part;
+    }
+
+    /**
+     * Wraps the node or text at the position of the given cursor.
+     * A new tree info is created for the document of the cursor.
+     */
+    public static StoreNodeInfo wrap(Cur c, Configuration config) {
+        assert c.isPositioned();
+
+        Xobj root = c._xobj;
+        while (root._parent != null) {
+            root = root._parent;
+        }
+
+        StoreTreeInfo tree = new StoreTreeInfo(config, root);
+
+        if (c.isText()) {
+            return new StoreNodeInfo(tree, c._xobj, c._pos >= c._xobj.posAfter() ? TEXT_AFTER : TEXT_VALUE);
+        }
+
+        return c._xobj == root ? tree._rootNode : new StoreNodeInfo(tree, c._xobj, NODE);
+    }
+
+    /**
+     * @return a temporary cursor positioned at this node, which needs to be released by the caller
+     */
+    public Cur tempCur() {
+        if (_part == NODE) {
+            return _xobj.tempCur();
+        }
+
+        Cur c = _xobj._locale.tempCur();
+        c.moveTo(_xobj, _part == TEXT_AFTER ? _xobj.posAfter() : 1);
+        return c;
+    }
+
+    /**
+     * @return the Xobj of this node, or for text nodes the Xobj holding the chars
+     */
+    @Override
+    public Object getUnderlyingNode() {
+        return _xobj;
+    }
+
+    private StoreTreeInfo tree() {
+        return (StoreTreeInfo) treeInfo;
+    }
+
+    private StoreNodeInfo wrapNode(Xobj x) {
+        return x == tree()._root ? tree()._rootNode : new StoreNodeInfo(tree(), x, NODE);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof StoreNodeInfo)) {
+            return false;
+        }
+        StoreNodeInfo o = (StoreNodeInfo) other;
+        return _xobj == o._xobj && _part == o._part;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(_xobj) * 3 + _part;
+    }
+
+    @Override
+    public int getNodeKind() {
+        if (_part != NODE) {
+            return Type.TEXT;
+        }
+
+        switch (_xobj.kind()) {
+            case Cur.ROOT:
+                return Type.DOCUMENT;
+            case Cur.ELEM:
+                return Type.ELEMENT;
+            case Cur.ATTR:
+                return Type.ATTRIBUTE;
+            case Cur.COMMENT:
+                return Type.COMMENT;
+            case Cur.PROCINST:
+                return Type.PROCESSING_INSTRUCTION;
+            default:
+                throw new IllegalStateException("Unknown node kind " + _xobj.kind());
+        }
+    }
+
+    @Override
+    public int compareOrder(NodeInfo other) {
+        if (!(other instanceof StoreNodeInfo) || other.getTreeInfo() != treeInfo) {
+            // different trees - order by the document number like Saxon does
+            return Long.signum(treeInfo.getDocumentNumber() - other.getTreeInfo().getDocumentNumber());
+        }
+        return Integer.compare(orderKey(), ((StoreNodeInfo) other).orderKey());
+    }
+
+    private int orderKey() {
+        int[] order = tree().order(_xobj);
+        switch (_part) {
+            case TEXT_VALUE:
+                return order[0] + 1;
+            case TEXT_AFTER:
+                return order[1];
+            default:
+                return order[0];
+        }
+    }
+
+    @Override
+    public String getStringValue() {
+        switch (_part) {
+            case TEXT_VALUE:
+                _xobj.ensureOccupancy();
+                return CharUtil.getString(_xobj._srcValue, _xobj._offValue, _xobj._cchValue);
+            case TEXT_AFTER:
+                return CharUtil.getString(_xobj._srcAfter, _xobj._offAfter, _xobj._cchAfter);
+            default:
+                return _xobj.getValueAsString();
+        }
+    }
+
+    @Override
+    public UnicodeString getUnicodeStringValue() {
+        return StringView.of(getStringValue());
+    }
+
+    private boolean isNamed() {
+        return _part == NODE && (_xobj.isElem() || _xobj.isAttr() || _xobj.isProcinst());
+    }
+
+    @Override
+    public String getLocalPart() {
+        return isNamed() ? _xobj._name.getLocalPart() : "";
+    }
+
+    @Override
+    public NamespaceUri getNamespaceUri() {
+        return isNamed() && !_xobj.isProcinst() ? NamespaceUri.of(_xobj._name.getNamespaceURI()) : NamespaceUri.NULL;
+    }
+
+    @Override
+    public String getPrefix() {
+        return isNamed() && !_xobj.isProcinst() ? _xobj._name.getPrefix() : "";
+    }
+
+    @Override
+    public String getDisplayName() {
+        String prefix = getPrefix();
+        return prefix.isEmpty() ? getLocalPart() : prefix + ":" + getLocalPart();
+    }
+
+    @Override
+    public StoreNodeInfo getParent() {
+        Xobj parent;
+        if (_part == TEXT_VALUE) {
+            parent = _xobj;
+        } else {
+            parent = _xobj._parent;
+        }
+        return parent == null ? null : wrapNode(parent);
+    }
+
+    @Override
+    public NodeInfo getRoot() {
+        return tree()._rootNode;
+    }
+
+    @Override
+    public int getSiblingPosition() {
+        StoreNodeInfo parent = getParent();
+        if (parent == null) {
+            return 0;
+        }
+
+        AxisIterator it = isAttribute() ? parent.iterateAttributes(null) : parent.iterateChildren(null);
+        int i = 0;
+        for (NodeInfo n = it.next(); n != null; n = it.next(), i++) {
+            if (equals(n)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("node not found among its siblings");
+    }
+
+    private boolean isAttribute() {
+        return _part == NODE && _xobj.isAttr();
+    }
+
+    @Override
+    public boolean hasChildNodes() {
+        if (_part != NODE || !_xobj.isContainer()) {
+            return false;
+        }
+        _xobj.ensureOccupancy();
+        return _xobj.hasChildren() || _xobj.hasTextNoEnsureOccupancy();
+    }
+
+    @Override
+    public String getAttributeValue(NamespaceUri uri, String local) {
+        if (_part != NODE || !_xobj.isElem()) {
+            return null;
+        }
+        Xobj a = _xobj.getAttr(new QName(uri.toString(), local));
+        return a == null ? null : a.getValueAsString();
+    }
+
+    @Override
+    protected AxisIterator iterateAttributes(NodePredicate nodeTest) {
+        if (_part != NODE || !_xobj.isElem()) {
+            return EmptyIterator.ofNodes();
+        }
+        return new AttributeIterator(this, nodeTest);
+    }
+
+    @Override
+    protected AxisIterator iterateChildren(NodePredicate nodeTest) {
+        if (_part != NODE || !_xobj.isContainer()) {
+            return EmptyIterator.ofNodes();
+        }
+
+        _xobj.ensureOccupancy();
+
+        Xobj lastAttr = _xobj.lastAttr();
+        StoreNodeInfo leadingText = null;
+        if (lastAttr != null) {
+            if (lastAttr._cchAfter > 0) {
+                leadingText = new StoreNodeInfo(tree(), lastAttr, TEXT_AFTER);
+            }
+        } else if (_xobj._cchValue > 0) {
+            leadingText = new StoreNodeInfo(tree(), _xobj, TEXT_VALUE);
+        }
+
+        Xobj first = lastAttr == null ? _xobj._firstChild : lastAttr._nextSibling;
+        return new ChildIterator(this, leadingText, first, nodeTest);
+    }
+
+    @Override
+    protected AxisIterator iterateSiblings(NodePredicate nodeTest, boolean forwards) {
+        StoreNodeInfo parent = getParent();
+        if (parent == null || isAttribute()) {
+            return EmptyIterator.ofNodes();
+        }
+
+        if (forwards) {
+            if (_part == TEXT_VALUE || (_part == TEXT_AFTER && _xobj.isAttr())) {
+                // leading text of the parent
+                Xobj lastAttr = parent._xobj.lastAttr();
+                Xobj first = lastAttr == null ? parent._xobj._firstChild : lastAttr._nextSibling;
+                return new ChildIterator(parent, null, first, nodeTest);
+            }
+            if (_part == NODE && _xobj._cchAfter > 0) {
+                return new ChildIterator(parent, new StoreNodeInfo(tree(), _xobj, TEXT_AFTER), _xobj._nextSibling, nodeTest);
+            }
+            return new ChildIterator(parent, null, _xobj._nextSibling, nodeTest);
+        }
+
+        // preceding siblings are rarely used, so simply collect them in reverse document order
+        List<NodeInfo> preceding = new ArrayList<>();
+        AxisIterator it = parent.iterateChildren(null);
+        for (NodeInfo n = it.next(); n != null && !equals(n); n = it.next()) {
+            if (nodeTest == null || nodeTest.test(n)) {
+                preceding.add(0, n);
+            }
+        }
+        return new ListIterator(preceding);
+    }
+
+    @Override
+    public void generateId(StringBuilder buffer) {
+        buffer.append('x').append(treeInfo.getDocumentNumber()).append('n').append(orderKey());
+    }
+
+    @Override
+    public NamespaceBinding[] getDeclaredNamespaces(NamespaceBinding[] buffer) {
+        if (_part != NODE || !_xobj.isElem()) {
+            return null;
+        }
+
+        List<NamespaceBinding> bindings = new ArrayList<>();
+        for (Xobj a = _xobj.firstAttr(); a != null; a = a.nextAttr()) {
+            if (a.isXmlns()) {
+                bindings.add(new NamespaceBinding(a.getXmlnsPrefix(), NamespaceUri.of(a.getXmlnsUri())));
+            }
+        }
+        return bindings.toArray(new NamespaceBinding[0]);
+    }
+
+    @Override
+    public NamespaceMap getAllNamespaces() {
+        if (_part != NODE || !_xobj.isElem()) {
+            return null;
+        }
+
+        // the inner most declaration of a prefix wins
+        Set<String> seen = new HashSet<>();
+        NamespaceMap map = NamespaceMap.emptyMap();
+        for (Xobj x = _xobj; x != null; x = x._parent) {
+            for (Xobj a = x.firstAttr(); a != null; a = a.nextAttr()) {
+                if (a.isXmlns() && seen.add(a.getXmlnsPrefix())) {
+                    String uri = a.getXmlnsUri();
+                    if (!uri.isEmpty()) {
+                        map = map.put(a.getXmlnsPrefix(), NamespaceUri.of(uri));
+                    }
+                }
+            }
+        }
+
+        // the store doesn't require a declaration for the namespace of the element itself
+        QName name = _xobj._name;
+        if (!name.getNamespaceURI().isEmpty() && seen.add(name.getPrefix())) {
+            map = map.put(name.getPrefix(), NamespaceUri.of(name.getNamespaceURI()));
+        }
+
+        return map;
+    }
+
+    /**
+     * The tree info for a store document.  The document order of the nodes is computed
+     * lazily on the first comparison, as most axis steps already deliver their nodes in
+     * document order.
+     */
+    static final class StoreTreeInfo extends GenericTreeInfo {
+        private final Xobj _root;
+        private final StoreNodeInfo _rootNode;
+        private Map<Xobj, int[]> _order;
+
+        StoreTreeInfo(Configuration config, Xobj root) {
+            super(config);
+            _root = root;
+            _rootNode = new StoreNodeInfo(this, root, NODE);
+            setRootNode(_rootNode);
+        }
+
+        /**
+         * Returns the document order keys of the given Xobj: the key of the node itself,
+         * followed by the key of its value text, and the key of the text after the node,
+         * which follows all its descendants
+         */
+        int[] order(Xobj x) {
+            if (_order == null) {
+                _order = computeOrder(_root);
+            }
+            return _order.get(x);
+        }
+
+        private static Map<Xobj, int[]> computeOrder(Xobj root) {
+            Map<Xobj, int[]> order = new IdentityHashMap<>();
+            int seq = 0;
+            Xobj x = root;
+            for (; ; ) {
+                // one key for the node and one for its value text
+                order.put(x, new int[]{seq, 0});
+                seq += 2;
+
+                if (x._firstChild != null) {
+                    x = x._firstChild;
+                    continue;
+                }
+
+                // close the finished nodes and climb up to the next unvisited sibling
+                for (; ; ) {
+                    order.get(x)[1] = seq++;
+                    if (x == root) {
+                        return order;
+                    }
+                    if (x._nextSibling != null) {
+                        x = x._nextSibling;
+                        break;
+                    }
+                    x = x._parent;
+                }
+            }
+        }
+    }
+
+    private static final class AttributeIterator implements AxisIterator {
+        private final StoreNodeInfo _element;
+        private final NodePredicate _nodeTest;
+        private Xobj _next;
+
+        AttributeIterator(StoreNodeInfo element, NodePredicate nodeTest) {
+            _element = element;
+            _nodeTest = nodeTest;
+            _next = element._xobj.firstAttr();
+        }
+
+        @Override
+        public NodeInfo next() {
+            while (_next != null) {
+                Xobj a = _next;
+                _next = a.nextAttr();
+                if (a.isXmlns()) {
+                    continue;
+                }
+                a.ensureOccupancy();
+                StoreNodeInfo n = new StoreNodeInfo(_element.tree(), a, NODE);
+                if (_nodeTest == null || _nodeTest.test(n)) {
+                    return n;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Iterates over the children of a container, starting with an optional text node
+     * and continuing with the given Xobj and all its following siblings and their texts
+     */
+    private static final class ChildIterator implements AxisIterator {
+        private final StoreNodeInfo _parent;
+        private final NodePredicate _nodeTest;
+        private StoreNodeInfo _pendingText;
+        private Xobj _next;
+
+        ChildIterator(StoreNodeInfo parent, StoreNodeInfo firstText, Xobj first, NodePredicate nodeTest) {
+            _parent = parent;
+            _pendingText = firstText;
+            _next = first;
+            _nodeTest = nodeTest;
+        }
+
+        @Override
+        public NodeInfo next() {
+            for (; ; ) {
+                StoreNodeInfo n;
+                if (_pendingText != null) {
+                    n = _pendingText;
+                    _pendingText = null;
+                } else if (_next != null) {
+                    Xobj x = _next;
+                    _next = x._nextSibling;
+                    n = new StoreNodeInfo(_parent.tree(), x, NODE);
+                    if (x._cchAfter > 0) {
+                        _pendingText = new StoreNodeInfo(_parent.tree(), x, TEXT_AFTER);
+                    }
+                } else {
+                    return null;
+                }
+
+                if (_nodeTest == null || _nodeTest.test(n)) {
+                    return n;
+                }
+            }
+        }
+    }
+
+    private static final class ListIterator implements AxisIterator {
+        private final List<NodeInfo> _nodes;
+        private int _index;
+
+        ListIterator(List<NodeInfo> nodes) {
+            _nodes = nodes;
+        }
+
+        @Override
+        public NodeInfo next() {
+            return _index < _nodes.size() ? _nodes.get(_index++) : null;
+        }
+    }
+}
@@ -27,7 +27,10 @@ import org.apache.xmlbeans.impl.values.TypeStoreVisitor;
 import org.apache.xmlbeans.impl.xpath.XPathFactory;
 
 import javax.xml.namespace.QName;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -145,16 +148,16 @@ abstract class Xobj implements TypeStore {
     final protected int getDomZeroOneChildren() {
         if (_firstChild == null &&
             _srcValue == null &&
-            _charNodesValue == null) {
+            charNodesValue() == null) {
             return 0;
         }
 
         if (_lastChild != null &&
             _lastChild.isAttr() &&
-            _lastChild._charNodesAfter == null &&
+            _lastChild.charNodesAfter() == null &&
             _lastChild._srcAfter == null &&
             _srcValue == null &&
-            _charNodesValue == null
+            charNodesValue() == null
         ) {
             return 0;
         }
@@ -163,7 +166,7 @@ abstract class Xobj implements TypeStore {
             _firstChild != null &&
             !_firstChild.isAttr() &&
             _srcValue == null &&
-            _charNodesValue == null &&
+            charNodesValue() == null &&
             _firstChild._srcAfter == null
         ) {
             return 1;
@@ -171,9 +174,9 @@ abstract class Xobj implements TypeStore {
 
         if (_firstChild == null &&
             _srcValue != null &&
-            (_charNodesValue == null ||
-             (_charNodesValue._next == null &&
-              _charNodesValue._cch == _cchValue))
+            (charNodesValue() == null ||
+             (charNodesValue()._next == null &&
+              charNodesValue()._cch == _cchValue))
         ) {
             return 1;
         }
@@ -199,14 +202,14 @@ abstract class Xobj implements TypeStore {
     final protected boolean isFirstChildPtrDomUsable() {
         if (_firstChild == null &&
             _srcValue == null &&
-            _charNodesValue == null) {
+            charNodesValue() == null) {
             return true;
         }
 
         if (_firstChild != null &&
             !_firstChild.isAttr() &&
             _srcValue == null &&
-            _charNodesValue == null) {
+            charNodesValue() == null) {
             assert (_firstChild instanceof NodeXobj) :
                 "wrong node type";
             return true;
@@ -219,7 +222,7 @@ abstract class Xobj implements TypeStore {
      * the next DOM sibling
      */
     final protected boolean isNextSiblingPtrDomUsable() {
-        if (_charNodesAfter == null &&
+        if (charNodesAfter() == null &&
             _srcAfter == null) {
             assert (_nextSibling == null ||
                     _nextSibling instanceof NodeXobj) :
@@ -230,39 +233,37 @@ abstract class Xobj implements TypeStore {
     }
 
     /**
-     * can one use the _charNodesValue pointer to retrieve
+     * can one use the charNodesValue pointer to retrieve
      * the next DOM sibling
      */
     final protected boolean isExistingCharNodesValueUsable() {
         if (_srcValue == null) {
             return false;
         }
-        return _charNodesValue != null && _charNodesValue._next == null
-               && _charNodesValue._cch == _cchValue;
+        CharNode nodes = charNodesValue();
+        return nodes != null && nodes._next == null
+               && nodes._cch == _cchValue;
     }
 
     final protected boolean isCharNodesValueUsable() {
         return isExistingCharNodesValueUsable() ||
-               (_charNodesValue =
-                   Cur.updateCharNodes(_locale, this,
-                       _charNodesValue, _cchValue)) != null;
+               updateCharNodesValue() != null;
     }
 
     /**
-     * can one use the _charNodesAfter pointer to retrieve
+     * can one use the charNodesAfter pointer to retrieve
      * the next DOM sibling
      */
     final protected boolean isCharNodesAfterUsable() {
         if (_srcAfter == null) {
             return false;
         }
-        if (_charNodesAfter != null && _charNodesAfter._next == null
-            && _charNodesAfter._cch == this._cchAfter) {
+        CharNode nodes = charNodesAfter();
+        if (nodes != null && nodes._next == null
+            && nodes._cch == this._cchAfter) {
             return true;
         }
-        return (_charNodesAfter =
-            Cur.updateCharNodes(_locale, this,
-                _charNodesAfter, _cchAfter)) != null;
+        return updateCharNodesAfter() != null;
     }
 
 
@@ -350,7 +351,7 @@ abstract class Xobj implements TypeStore {
     final Cur getEmbedded() {
         _locale.embedCurs();
 
-        return _embedded;
+        return embedded();
     }
 
     // Incoming p must be at text (implicitly denormalized)
@@ -452,10 +453,10 @@ abstract class Xobj implements TypeStore {
     final Bookmark setBookmark(int p, Object key, Object value) {
         assert isNormal(p);
 
-        for (Bookmark b = _bookmarks; b != null; b = b._next) {
+        for (Bookmark b = bookmarks(); b != null; b = b._next) {
             if (p == b._pos && key == b._key) {
                 if (value == null) {
-                    _bookmarks = b.listRemove(_bookmarks);
+                    setBookmarks(b.listRemove(bookmarks()));
                     return null;
                 }
 
@@ -476,13 +477,13 @@ abstract class Xobj implements TypeStore {
         b._key = key;
         b._value = value;
 
-        _bookmarks = b.listInsert(_bookmarks);
+        setBookmarks(b.listInsert(bookmarks()));
 
         return b;
     }
 
     final boolean hasBookmark(Object key, int pos) {
-        for (Bookmark b = _bookmarks; b != null; b = b._next) {
+        for (Bookmark b = bookmarks(); b != null; b = b._next) {
             if (b._pos == pos && key == b._key) {
                 //System.out.println("hasCDataBookmark  pos: " + pos + " xobj: " + getQName() + " b._pos: " + _bookmarks._pos);
                 return true;
@@ -951,7 +952,7 @@ abstract class Xobj implements TypeStore {
         // xTo/pTo.  The caller has to make sure that if xTo/pTo is not specified, then there are
         // no bookmarks in the span of text to be removed.
 
-        for (Bookmark b = _bookmarks; b != null; ) {
+        for (Bookmark b = bookmarks(); b != null; ) {
             // Similarly, as above, I can't call inChars here
 
             assert b._xobj == this;
@@ -1015,7 +1016,7 @@ abstract class Xobj implements TypeStore {
                 }
             }
 
-            for (Bookmark b = _bookmarks; b != null; b = b._next) {
+            for (Bookmark b = bookmarks(); b != null; b = b._next) {
                 if (b._pos >= p) {
                     b._pos += cch;
                 }
@@ -1066,7 +1067,7 @@ abstract class Xobj implements TypeStore {
             newX._offAfter = x._offAfter;
             newX._cchAfter = x._cchAfter;
 
-            for (Bookmark b = x._bookmarks; b != null; b = b._next) {
+            for (Bookmark b = x.bookmarks(); b != null; b = b._next) {
                 if (x.hasBookmark(CDataBookmark.CDATA_BOOKMARK.getKey(), b._pos)) {
                     newX.setBookmark(b._pos, CDataBookmark.CDATA_BOOKMARK.getKey(), CDataBookmark.CDATA_BOOKMARK);
                 }
@@ -1585,22 +1586,41 @@ abstract class Xobj implements TypeStore {
         assert _user != null || (!isRoot() && !isStableUser());
 
         if (_user == null) {
-            // BUGBUG - this is recursive
-
-            TypeStoreUser parentUser =
-                _parent == null
-                    ? ((TypeStoreUserFactory) XmlBeans.NO_TYPE).createTypeStoreUser()
-                    : _parent.getUser();
+            if (_locale.isFrozen()) {
+                // the users of a frozen document are created by freeze, any other one
+                // is created under the lock of the locale
+                _locale.enter();
+                try {
+                    createUser();
+                } finally {
+                    _locale.exit();
+                }
+            } else {
+                createUser();
+            }
+        }
 
-            _user =
-                isElem()
-                    ? parentUser.create_element_user(_name, getXsiTypeName())
-                    : parentUser.create_attribute_user(_name);
+        return _user;
+    }
 
-            _user.attach_store(this);
+    private void createUser() {
+        if (_user != null) {
+            return;
         }
 
-        return _user;
+        // BUGBUG - this is recursive
+
+        TypeStoreUser parentUser =
+            _parent == null
+                ? ((TypeStoreUserFactory) XmlBeans.NO_TYPE).createTypeStoreUser()
+                : _parent.getUser();
+
+        _user =
+            isElem()
+                ? parentUser.create_element_user(_name, getXsiTypeName())
+                : parentUser.create_attribute_user(_name);
+
+        _user.attach_store(this);
     }
 
     final void invalidateUser() {
@@ -1654,7 +1674,10 @@ abstract class Xobj implements TypeStore {
             return;
         }
 
-        _locale.notifyChange();
+        // materializing the text of a vacant node is no change of a frozen document
+        if (!_locale.isFrozen()) {
+            _locale.notifyChange();
+        }
         Xobj lastAttr = lastAttr();
         int startPos = 1;
         Xobj charOwner = this;
@@ -1731,6 +1754,34 @@ abstract class Xobj implements TypeStore {
         }
     }
 
+    public Reader fetch_text_reader() {
+        _locale.enter();
+
+        try {
+            assert isValid() && isOccupied();
+
+            if (hasChildren()) {
+                return new StringReader(getValueAsString(WS_PRESERVE));
+            }
+
+            // the text of a store is never changed in place, so the triple stays valid
+            Object src = getFirstChars();
+
+            return CharUtil.getReader(src, _locale._offSrc, _locale._cchSrc);
+        } finally {
+            _locale.exit();
+        }
+    }
+
+    public void freeze() {
+        Xobj root = this;
+        while (root._parent != null) {
+            root = root._parent;
+        }
+
+        _locale.freeze(root);
+    }
+
     public XmlCursor new_cursor() {
         _locale.enter();
 
@@ -1846,6 +1897,35 @@ abstract class Xobj implements TypeStore {
         }
     }
 
+    public void store_text(Reader text) throws IOException {
+        _locale.enter();
+
+        TypeStoreUser user = _user;
+        _user = null;
+
+        try {
+            CharUtil cu = _locale.getCharUtil();
+            Object src = cu.readChars(text);
+            int cch = cu._cchSrc;
+
+            Cur c = tempCur();
+
+            c.moveNodeContents(null, false);
+
+            if (cch > 0) {
+                c.next();
+                c.insertChars(src, 0, cch);
+            }
+
+            c.release();
+        } finally {
+            assert _user == null;
+            _user = user;
+
+            _locale.exit();
+        }
+    }
+
     public int compute_flags() {
         if (isRoot()) {
             return 0;
@@ -1963,23 +2043,23 @@ abstract class Xobj implements TypeStore {
     }
 
     public TypeStoreUser find_element_user(QName name, int i) {
-        for (Xobj x = _firstChild; x != null; x = x._nextSibling) {
-            if (x.isElem() && x._name.equals(name) && --i < 0) {
-                return x.getUser();
-            }
+        if (i < 0) {
+            return null;
         }
 
-        return null;
+        Xobj x = _locale.findNthChildElem(this, name, null, i);
+
+        return x == null ? null : x.getUser();
     }
 
     public TypeStoreUser find_element_user(QNameSet names, int i) {
-        for (Xobj x = _firstChild; x != null; x = x._nextSibling) {
-            if (x.isElem() && names.contains(x._name) && --i < 0) {
-                return x.getUser();
-            }
+        if (i < 0) {
+            return null;
         }
 
-        return null;
+        Xobj x = _locale.findNthChildElem(this, null, names, i);
+
+        return x == null ? null : x.getUser();
     }
 
     @SuppressWarnings("unchecked")
@@ -2003,6 +2083,10 @@ abstract class Xobj implements TypeStore {
     }
 
     private static TypeStoreUser insertElement(QName name, Xobj x, int pos) {
+        if (x._locale._buildMode) {
+            return linkElement(name, x, pos).getUser();
+        }
+
         x._locale.enter();
 
         try {
@@ -2017,6 +2101,40 @@ abstract class Xobj implements TypeStore {
         }
     }
 
+    /**
+     * Links a new element into the tree like the loaders do, instead of moving it there with a
+     * Cur.  A new node carries no text, curs or users, so only the versions, the change listeners
+     * and the parent user need to be notified.  Used in the build mode of the locale.
+     *
+     * @param x   the parent with pos END_POS, or the sibling with pos 0 to insert before
+     */
+    private static Xobj linkElement(QName name, Xobj x, int pos) {
+        assert pos == 0 || pos == END_POS;
+
+        Locale l = x._locale;
+
+        l.notifyChange();
+
+        Xobj parent = (pos == END_POS) ? x : x._parent;
+
+        parent.ensureOccupancy();
+
+        l._versionAll++;
+        l._versionSansText++;
+
+        parent.invalidateUser();
+
+        Xobj e = Cur.createElementXobj(l, name, null);
+
+        if (pos == END_POS) {
+            x.appendXobj(e);
+        } else {
+            x.insertXobj(e);
+        }
+
+        return e;
+    }
+
     public TypeStoreUser insert_element_user(QName name, int i) {
         if (i < 0) {
             throw new IndexOutOfBoundsException();
@@ -2066,6 +2184,64 @@ abstract class Xobj implements TypeStore {
             throw new IllegalStateException();
         }
 
+        Xobj candidate = findAddPosition(name);
+
+        return
+            candidate == null
+                ? insertElement(name, this, END_POS)
+                : insertElement(name, candidate, 0);
+    }
+
+    public TypeStoreUser[] add_element_users(QName name, int n) {
+        if (n < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (!isContainer()) {
+            throw new IllegalStateException();
+        }
+
+        TypeStoreUser[] users = new TypeStoreUser[n];
+
+        if (n == 0) {
+            return users;
+        }
+
+        // the position doesn't change, as each new element is inserted after the previous one
+        Xobj candidate = findAddPosition(name);
+
+        if (_locale._buildMode) {
+            for (int i = 0; i < n; i++) {
+                users[i] = (candidate == null ? linkElement(name, this, END_POS) : linkElement(name, candidate, 0)).getUser();
+            }
+            return users;
+        }
+
+        _locale.enter();
+
+        try {
+            Cur c = _locale.tempCur();
+            for (int i = 0; i < n; i++) {
+                if (candidate == null) {
+                    c.moveTo(this, END_POS);
+                } else {
+                    c.moveTo(candidate, 0);
+                }
+                c.createElement(name);
+                users[i] = c.getUser();
+            }
+            c.release();
+        } finally {
+            _locale.exit();
+        }
+
+        return users;
+    }
+
+    /**
+     * @return the child, before which a new element with the given name is added, or null to append it
+     */
+    private Xobj findAddPosition(QName name) {
         QNameSet endSet = null;
         boolean gotEndSet = false;
 
@@ -2088,10 +2264,7 @@ abstract class Xobj implements TypeStore {
             }
         }
 
-        return
-            candidate == null
-                ? insertElement(name, this, END_POS)
-                : insertElement(name, candidate, 0);
+        return candidate;
     }
 
     private static void removeElement(Xobj x) {
@@ -2119,19 +2292,31 @@ abstract class Xobj implements TypeStore {
             throw new IllegalStateException();
         }
 
-        Xobj x;
+        removeElement(_locale.findNthChildElem(this, name, null, i));
+    }
 
-        for (x = _firstChild; x != null; x = x._nextSibling) {
-            if (x.isElem() && x._name.equals(name) && --i < 0) {
-                break;
-            }
+    public void remove_element(QNameSet names, int i) {
+        if (i < 0) {
+            throw new IndexOutOfBoundsException();
         }
 
-        removeElement(x);
+        if (!isContainer()) {
+            throw new IllegalStateException();
+        }
+
+        removeElement(_locale.findNthChildElem(this, null, names, i));
     }
 
-    public void remove_element(QNameSet names, int i) {
-        if (i < 0) {
+    public int remove_elements(QName name, int i, int j) {
+        return removeElements(name, null, i, j);
+    }
+
+    public int remove_elements(QNameSet names, int i, int j) {
+        return removeElements(null, names, i, j);
+    }
+
+    private int removeElements(QName name, QNameSet names, int from, int to) {
+        if (from < 0 || to < from) {
             throw new IndexOutOfBoundsException();
         }
 
@@ -2139,15 +2324,33 @@ abstract class Xobj implements TypeStore {
             throw new IllegalStateException();
         }
 
-        Xobj x;
+        if (from == to) {
+            return 0;
+        }
 
-        for (x = _firstChild; x != null; x = x._nextSibling) {
-            if (x.isElem() && names.contains(x._name) && --i < 0) {
-                break;
+        _locale.enter();
+
+        try {
+            // collect the range first, as the removal invalidates the positional lookup
+            List<Xobj> range = new ArrayList<>();
+            int n = from;
+            for (Xobj x = _locale.findNthChildElem(this, name, names, from); x != null && n < to; x = x._nextSibling) {
+                if (x.isElem() && (names == null ? x._name.equals(name) : names.contains(x._name))) {
+                    range.add(x);
+                    n++;
+                }
             }
-        }
 
-        removeElement(x);
+            for (Xobj x : range) {
+                Cur c = x.tempCur();
+                c.moveNode(null);
+                c.release();
+            }
+
+            return range.size();
+        } finally {
+            _locale.exit();
+        }
     }
 
     public TypeStoreUser find_attribute_user(QName name) {
@@ -2412,9 +2615,8 @@ abstract class Xobj implements TypeStore {
     Locale _locale;
     QName _name;
 
-    Cur _embedded;
-
-    Bookmark _bookmarks;
+    // embedded cursors, bookmarks and DOM text nodes, null unless one of them is used
+    Ext _ext;
 
     int _bits;
 
@@ -2428,10 +2630,92 @@ abstract class Xobj implements TypeStore {
     int _offValue, _offAfter;
     int _cchValue, _cchAfter;
 
-    // TODO - put this in a ptr off this node
-    CharNode _charNodesValue;
-    CharNode _charNodesAfter;
-
-    // TODO - put this in a ptr off this node
+    // kept in the node, as it's used for every typed access
     TypeStoreUser _user;
+
+    /**
+     * The rarely used parts of a node.  Most nodes of a typical document never get an embedded
+     * cursor, a bookmark or a DOM text node, so these are allocated on demand and released again,
+     * when the last of them is removed.
+     */
+    static final class Ext {
+        Cur _embedded;
+        Bookmark _bookmarks;
+        CharNode _charNodesValue;
+        CharNode _charNodesAfter;
+
+        boolean isEmpty() {
+            return _embedded == null && _bookmarks == null &&
+                   _charNodesValue == null && _charNodesAfter == null;
+        }
+    }
+
+    private Ext ext() {
+        if (_ext == null) {
+            _ext = new Ext();
+        }
+        return _ext;
+    }
+
+    private void trimExt() {
+        if (_ext != null && _ext.isEmpty()) {
+            _ext = null;
+        }
+    }
+
+    final Cur embedded() {
+        return _ext == null ? null : _ext._embedded;
+    }
+
+    final void setEmbedded(Cur c) {
+        if (c != null || _ext != null) {
+            ext()._embedded = c;
+            trimExt();
+        }
+    }
+
+    final Bookmark bookmarks() {
+        return _ext == null ? null : _ext._bookmarks;
+    }
+
+    final void setBookmarks(Bookmark b) {
+        if (b != null || _ext != null) {
+            ext()._bookmarks = b;
+            trimExt();
+        }
+    }
+
+    final CharNode charNodesValue() {
+        return _ext == null ? null : _ext._charNodesValue;
+    }
+
+    final void setCharNodesValue(CharNode nodes) {
+        if (nodes != null || _ext != null) {
+            ext()._charNodesValue = nodes;
+            trimExt();
+        }
+    }
+
+    final CharNode charNodesAfter() {
+        return _ext == null ? null : _ext._charNodesAfter;
+    }
+
+    final void setCharNodesAfter(CharNode nodes) {
+        if (nodes != null || _ext != null) {
+            ext()._charNodesAfter = nodes;
+            trimExt();
+        }
+    }
+
+    final CharNode updateCharNodesValue() {
+        CharNode nodes = Cur.updateCharNodes(_locale, this, charNodesValue(), _cchValue);
+        setCharNodesValue(nodes);
+        return nodes;
+    }
+
+    final CharNode updateCharNodesAfter() {
+        CharNode nodes = Cur.updateCharNodes(_locale, this, charNodesAfter(), _cchAfter);
+        setCharNodesAfter(nodes);
+        return nodes;
+    }
 }
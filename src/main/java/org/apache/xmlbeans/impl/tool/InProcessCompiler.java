@@ -0,0 +1,174 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.xmlbeans.impl.tool;
+
+import org.apache.xmlbeans.impl.util.FilerImpl;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles the generated sources with the java compiler of the running JVM, instead of
+ * forking a javac process like {@link CodeGenUtil#externalCompile}.
+ * <p>
+ * Sources, which are retained by the {@link FilerImpl}, are handed over from memory.
+ * As the compiler runs in the current JVM, the memory settings for the external compiler
+ * don't apply.
+ */
+public final class InProcessCompiler {
+    private InProcessCompiler() {
+    }
+
+    /**
+     * @return true, if the running JVM provides a java compiler, i.e. it's not a plain JRE
+     */
+    public static boolean isAvailable() {
+        try {
+            return ToolProvider.getSystemJavaCompiler() != null;
+        } catch (LinkageError e) {
+            // the java.compiler module is not available
+            return false;
+        }
+    }
+
+    /**
+     * Compiles the sources created by the filer and the additional sources into the output directory.
+     *
+     * @param filer    the filer, which created the generated sources
+     * @param srcFiles additional source files or directories, may be null
+     * @param outdir   the target directory of the class files
+     * @param cp       the classpath, if null the classpath of the running JVM
+     * @param genver   the java source and target version, if null 1.8
+     * @return true, if the compilation succeeded
+     */
+    public static boolean compile(FilerImpl filer, File[] srcFiles, File outdir, File[] cp, boolean debug, String genver, boolean verbose) {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            System.err.println("No java compiler available in the running JVM");
+            return false;
+        }
+
+        List<String> args = new ArrayList<>();
+
+        if (outdir == null) {
+            outdir = new File(".");
+        }
+        args.add("-d");
+        args.add(outdir.getAbsolutePath());
+
+        if (cp == null) {
+            cp = CodeGenUtil.systemClasspath();
+        }
+
+        // Add the output directory to the classpath, so previously compiled classes are found
+        StringBuilder classPath = new StringBuilder(outdir.getAbsolutePath());
+        for (File file : cp) {
+            classPath.append(File.pathSeparator);
+            classPath.append(file.getAbsolutePath());
+        }
+        args.add("-classpath");
+        args.add(classPath.toString());
+
+        if (genver == null) {
+            genver = "1.8";
+        }
+
+        args.add("-source");
+        args.add(genver);
+        args.add("-target");
+        args.add(genver);
+
+        args.add(debug ? "-g" : "-g:none");
+
+        if (verbose) {
+            args.add("-verbose");
+        }
+
+        StringWriter output = new StringWriter();
+        // like the external compiler, read the sources from disk in the platform encoding, which the filer used to write them
+        try (StandardJavaFileManager fileManager = javac.getStandardFileManager(null, null, null)) {
+            List<JavaFileObject> units = new ArrayList<>();
+            List<File> onDisk = new ArrayList<>();
+            for (File sourceFile : filer.getSourceFiles()) {
+                String source = filer.getRetainedSource(sourceFile);
+                if (source != null) {
+                    units.add(new MemorySource(sourceFile, source));
+                } else {
+                    onDisk.add(sourceFile);
+                }
+            }
+            if (srcFiles != null) {
+                addAllJavaFiles(Arrays.asList(srcFiles), onDisk);
+            }
+            for (JavaFileObject fo : fileManager.getJavaFileObjectsFromFiles(onDisk)) {
+                units.add(fo);
+            }
+
+            boolean result = javac.getTask(output, fileManager, null, args, null, units).call();
+
+            if ((verbose || !result) && output.getBuffer().length() > 0) {
+                System.err.println(output);
+                System.err.flush();
+            }
+            return result;
+        } catch (IOException e) {
+            System.err.println(e.toString());
+            e.printStackTrace(System.err);
+            return false;
+        }
+    }
+
+    private static void addAllJavaFiles(List<File> srcFiles, List<File> result) {
+        for (File f : srcFiles) {
+            if (f.isDirectory()) {
+                File[] files = f.listFiles(
+                    file -> (file.isFile() && file.getName().endsWith(".java")) || file.isDirectory()
+                );
+                if (files != null) {
+                    addAllJavaFiles(Arrays.asList(files), result);
+                }
+            } else {
+                result.add(f);
+            }
+        }
+    }
+
+    /**
+     * A generated source, which is compiled from memory. The location is only used for the error messages.
+     */
+    private static final class MemorySource extends SimpleJavaFileObject {
+        private final String source;
+
+        MemorySource(File file, String source) {
+            super(file.toURI(), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}
@@ -180,6 +180,18 @@ public class MavenPlugin extends AbstractMojo {
     @Parameter( defaultValue = "false" )
     private boolean debug;
 
+    /** compile with the java compiler of the maven JVM instead of forking javac - default: false */
+    @Parameter( defaultValue = "false" )
+    private boolean javacInProcess;
+
+    /** number of threads for compiling the schemas and generating the sources - default: 1 */
+    @Parameter( defaultValue = "1" )
+    private int parallelism;
+
+    /** pack the compiled schema components into a single archive instead of one .xsb file each - default: false */
+    @Parameter( defaultValue = "false" )
+    private boolean xsbArchive;
+
     /** copy annotations to javadoc of generated sources - default: false */
     @Parameter( defaultValue = "false" )
     private boolean copyAnn;
@@ -300,6 +312,9 @@ public class MavenPlugin extends AbstractMojo {
             params.setMemoryMaximumSize(memoryMaximumSize);
             params.setOutputJar(outputJar);
             params.setDebug(debug);
+            params.setJavacInProcess(javacInProcess);
+            params.setParallelism(parallelism);
+            params.setXsbArchive(xsbArchive);
             params.setExtensions(extensions);
 
             boolean result = SchemaCompiler.compile(params);
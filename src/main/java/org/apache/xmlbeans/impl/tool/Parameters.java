@@ -43,6 +43,9 @@ public class Parameters {
     private String memoryMaximumSize;
     private String compiler;
     private boolean nojavac;
+    private boolean javacInProcess;
+    private int parallelism = 1;
+    private boolean xsbArchive;
     private boolean quiet;
     private boolean verbose;
     private boolean download;
@@ -159,6 +162,44 @@ public class Parameters {
         this.nojavac = nojavac;
     }
 
+    public boolean isJavacInProcess() {
+        return javacInProcess;
+    }
+
+    /**
+     * Compile the generated sources with the java compiler of the running JVM instead of a javac process.
+     * The external compiler is still used, if the JVM doesn't provide a compiler.
+     */
+    public void setJavacInProcess(boolean javacInProcess) {
+        this.javacInProcess = javacInProcess;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * The number of threads for compiling the schemas and generating the sources, defaults to 1
+     *
+     * @see XmlOptions#setCompileParallelism(int)
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isXsbArchive() {
+        return xsbArchive;
+    }
+
+    /**
+     * Save the compiled schema components into a single archive instead of one .xsb file per component
+     *
+     * @see XmlOptions#setCompileXsbArchive()
+     */
+    public void setXsbArchive(boolean xsbArchive) {
+        this.xsbArchive = xsbArchive;
+    }
+
     public boolean isQuiet() {
         return quiet;
     }
@@ -54,6 +54,9 @@ public class SchemaCompiler {
         System.out.println("    -novdoc - do not validate contents of <documentation>");
         System.out.println("    -noext - ignore all extension (Pre/Post and Interface) found in .xsdconfig files");
         System.out.println("    -compiler - path to external java compiler");
+        System.out.println("    -inprocess - compile with the java compiler of the running JVM instead of an external one");
+        System.out.println("    -parallel [n] - number of threads for compiling the schemas and generating the sources (default 1)");
+        System.out.println("    -xsbarchive - pack the compiled schema components into a single archive instead of one .xsb file each");
         System.out.println("    -ms - initial memory for external java compiler (default '" + CodeGenUtil.DEFAULT_MEM_START + "')");
         System.out.println("    -mx - maximum memory for external java compiler (default '" + CodeGenUtil.DEFAULT_MEM_MAX + "')");
         System.out.println("    -debug - compile with debug symbols");
@@ -98,6 +101,8 @@ public class SchemaCompiler {
         flags.add("noext");
         flags.add("srconly");
         flags.add("debug");
+        flags.add("inprocess");
+        flags.add("xsbarchive");
 
         Set<String> opts = new HashSet<>();
         opts.add("out");
@@ -117,6 +122,7 @@ public class SchemaCompiler {
         opts.add("catalog");
         opts.add("partialMethods");
         opts.add("copyann");
+        opts.add("parallel");
 
         CommandLine cl = new CommandLine(args, flags, opts);
 
@@ -186,6 +192,21 @@ public class SchemaCompiler {
         boolean nojavac = (cl.getOpt("srconly") != null);
         boolean debug = (cl.getOpt("debug") != null);
         boolean copyAnn = (cl.getOpt("copyann") != null);
+        boolean inProcess = (cl.getOpt("inprocess") != null);
+        boolean xsbArchive = (cl.getOpt("xsbarchive") != null);
+
+        int parallelism = 1;
+        String parallel = cl.getOpt("parallel");
+        if (parallel != null) {
+            try {
+                parallelism = Integer.parseInt(parallel);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid number of threads for -parallel: " + parallel);
+                printUsage();
+                System.exit(0);
+                return;
+            }
+        }
 
         String allowmdef = cl.getOpt("allowmdef");
         Set<String> mdefNamespaces = (allowmdef == null ? Collections.emptySet() :
@@ -324,6 +345,9 @@ public class SchemaCompiler {
         params.setMemoryInitialSize(memoryInitialSize);
         params.setMemoryMaximumSize(memoryMaximumSize);
         params.setNojavac(nojavac);
+        params.setJavacInProcess(inProcess);
+        params.setParallelism(parallelism);
+        params.setXsbArchive(xsbArchive);
         params.setQuiet(quiet);
         params.setVerbose(verbose);
         params.setDownload(download);
@@ -358,7 +382,8 @@ public class SchemaCompiler {
                                                    File[] javaFiles, ResourceLoader cpResourceLoader,
                                                    boolean download, boolean noUpa, boolean noPvr, boolean noAnn, boolean noVDoc, boolean noExt,
                                                    Set<String> mdefNamespaces, File baseDir, Map<String, String> sourcesToCopyMap,
-                                                   Collection<XmlError> outerErrorListener, File schemasDir, EntityResolver entResolver, File[] classpath) {
+                                                   Collection<XmlError> outerErrorListener, File schemasDir, EntityResolver entResolver, File[] classpath,
+                                                   int parallelism) {
         XmlErrorWatcher errorListener = new XmlErrorWatcher(outerErrorListener);
 
         // construct the state (have to initialize early in case of errors)
@@ -526,6 +551,7 @@ public class SchemaCompiler {
             }
             opts.setCompileNoValidation(); // already validated here
             opts.setEntityResolver(entResolver);
+            opts.setCompileParallelism(parallelism);
 
             // now pass it to the main compile function
             SchemaTypeSystemCompiler.Parameters params = new SchemaTypeSystemCompiler.Parameters();
@@ -603,6 +629,9 @@ public class SchemaCompiler {
         String memoryInitialSize = params.getMemoryInitialSize();
         String memoryMaximumSize = params.getMemoryMaximumSize();
         boolean nojavac = params.isNojavac();
+        boolean javacInProcess = params.isJavacInProcess();
+        int parallelism = params.getParallelism();
+        boolean xsbArchive = params.isXsbArchive();
         boolean debug = params.isDebug();
         boolean verbose = params.isVerbose();
         boolean quiet = params.isQuiet();
@@ -667,7 +696,7 @@ public class SchemaCompiler {
         XmlErrorWatcher errorListener = new XmlErrorWatcher(outerErrorListener);
         SchemaTypeSystem system = loadTypeSystem(name, xsdFiles, wsdlFiles, urlFiles, configFiles,
             javaFiles, cpResourceLoader, download, noUpa, noPvr, noAnn, noVDoc, noExt, mdefNamespaces,
-            baseDir, sourcesToCopyMap, errorListener, schemasDir, cmdLineEntRes, classpath);
+            baseDir, sourcesToCopyMap, errorListener, schemasDir, cmdLineEntRes, classpath, parallelism);
         if (errorListener.hasError()) {
             result = false;
         }
@@ -683,7 +712,9 @@ public class SchemaCompiler {
 
             // filer implementation writes binary .xsd and generated source to disk
             Repackager repackager = (repackage == null ? null : new Repackager(repackage));
-            FilerImpl filer = new FilerImpl(classesDir, srcDir, repackager, verbose, incrSrcGen);
+            // the in-process compiler takes the generated sources from memory
+            boolean inProcess = !nojavac && javacInProcess && InProcessCompiler.isAvailable();
+            FilerImpl filer = new FilerImpl(classesDir, srcDir, repackager, verbose, incrSrcGen, inProcess);
 
             // currently just for schemaCodePrinter
             XmlOptions options = new XmlOptions();
@@ -693,9 +724,11 @@ public class SchemaCompiler {
             options.setCompilePartialMethod(partialMethods);
             options.setCompileNoAnnotations(noAnn);
             options.setCompileAnnotationAsJavadoc(copyAnn);
+            options.setCompileParallelism(parallelism);
+            options.setCompileXsbArchive(xsbArchive);
 
             // save .xsb files
-            system.save(filer);
+            system.save(filer, options);
 
             // gen source files
             result = SchemaTypeSystemCompiler.generateTypes(system, filer, options);
@@ -717,13 +750,19 @@ public class SchemaCompiler {
             if (result && !nojavac) {
                 start = System.currentTimeMillis();
 
-                List<File> sourcefiles = filer.getSourceFiles();
+                if (inProcess) {
+                    if (!InProcessCompiler.compile(filer, javaFiles, classesDir, classpath, debug, null, verbose)) {
+                        result = false;
+                    }
+                } else {
+                    List<File> sourcefiles = filer.getSourceFiles();
 
-                if (javaFiles != null) {
-                    sourcefiles.addAll(java.util.Arrays.asList(javaFiles));
-                }
-                if (!CodeGenUtil.externalCompile(sourcefiles, classesDir, classpath, debug, compiler, memoryInitialSize, memoryMaximumSize, quiet, verbose)) {
-                    result = false;
+                    if (javaFiles != null) {
+                        sourcefiles.addAll(java.util.Arrays.asList(javaFiles));
+                    }
+                    if (!CodeGenUtil.externalCompile(sourcefiles, classesDir, classpath, debug, compiler, memoryInitialSize, memoryMaximumSize, quiet, verbose)) {
+                        result = false;
+                    }
                 }
 
                 finish = System.currentTimeMillis();
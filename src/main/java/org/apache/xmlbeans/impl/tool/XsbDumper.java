@@ -17,6 +17,7 @@ package org.apache.xmlbeans.impl.tool;
 
 import org.apache.xmlbeans.*;
 import org.apache.xmlbeans.impl.common.QNameHelper;
+import org.apache.xmlbeans.impl.schema.XsbArchive;
 import org.apache.xmlbeans.impl.util.HexBin;
 import org.apache.xmlbeans.impl.util.LongUTFDataInputStream;
 import org.apache.xmlbeans.soap.SOAPArrayType;
@@ -36,7 +37,7 @@ public class XsbDumper {
         System.out.println("An XSB file contains schema meta information needed to ");
         System.out.println("perform tasks such as binding and validation.");
         System.out.println("Usage: dumpxsb myfile.xsb");
-        System.out.println("    myfile.xsb - Path to an XSB file.");
+        System.out.println("    myfile.xsb - Path to an XSB file, an XSB archive (.xsba), a directory or a jar.");
         System.out.println();
     }
 
@@ -55,7 +56,7 @@ public class XsbDumper {
     private static void dump(File file, boolean force) {
         if (file.isDirectory()) {
             File[] files = file.listFiles(
-                file1 -> file1.isDirectory() || file1.isFile() && file1.getName().endsWith(".xsb")
+                file1 -> file1.isDirectory() || file1.isFile() && (file1.getName().endsWith(".xsb") || file1.getName().endsWith(".xsba"))
             );
             if (files != null) {
                 for (File value : files) {
@@ -64,6 +65,13 @@ public class XsbDumper {
             }
         } else if (file.getName().endsWith(".jar") || file.getName().endsWith(".zip")) {
             dumpZip(file);
+        } else if (file.getName().endsWith(".xsba")) {
+            try {
+                System.out.println(file.toString());
+                dumpArchive(XsbArchive.map(file.toPath()), "  ");
+            } catch (IOException e) {
+                System.out.println(e.toString());
+            }
         } else if (force || file.getName().endsWith(".xsb")) {
             try {
                 System.out.println(file.toString());
@@ -84,6 +92,9 @@ public class XsbDumper {
                     System.out.println(entry.getName());
                     dump(zipFile.getInputStream(entry), "  ");
                     System.out.println();
+                } else if (entry.getName().endsWith(".xsba")) {
+                    System.out.println(entry.getName());
+                    dumpArchive(XsbArchive.read(zipFile.getInputStream(entry)), "  ");
                 }
             }
         } catch (IOException e) {
@@ -91,6 +102,17 @@ public class XsbDumper {
         }
     }
 
+    /**
+     * Dumps each component of a packed type system archive
+     */
+    public static void dumpArchive(XsbArchive archive, String indent) {
+        for (String handle : archive.getHandles()) {
+            System.out.println(indent + handle);
+            dump(archive.getInputStream(handle), indent + "  ");
+            System.out.println();
+        }
+    }
+
     public static void dump(InputStream input) {
         dump(input, "", System.out);
     }
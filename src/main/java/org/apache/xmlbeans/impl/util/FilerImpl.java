@@ -25,8 +25,10 @@ import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -39,6 +41,7 @@ public class FilerImpl implements Filer {
     private final boolean verbose;
     private final List<File> sourceFiles;
     private final boolean incrSrcGen;
+    private final Map<File, String> retainedSources;
     private Set<String> seenTypes;
     private static final Charset CHARSET;
 
@@ -52,12 +55,21 @@ public class FilerImpl implements Filer {
     }
 
     public FilerImpl(File classdir, File srcdir, Repackager repackager, boolean verbose, boolean incrSrcGen) {
+        this(classdir, srcdir, repackager, verbose, incrSrcGen, false);
+    }
+
+    /**
+     * @param retainSources if true, the generated sources are additionally kept in memory, so they can be
+     *                      compiled without reading them back from disk - see {@link #getRetainedSource(File)}
+     */
+    public FilerImpl(File classdir, File srcdir, Repackager repackager, boolean verbose, boolean incrSrcGen, boolean retainSources) {
         this.classdir = classdir;
         this.srcdir = srcdir;
         this.repackager = repackager;
         this.verbose = verbose;
         this.sourceFiles = new ArrayList<>();
         this.incrSrcGen = incrSrcGen;
+        this.retainedSources = retainSources ? new HashMap<>() : null;
         if (this.incrSrcGen) {
             seenTypes = new HashSet<>();
         }
@@ -111,11 +123,11 @@ public class FilerImpl implements Filer {
         if (incrSrcGen && sourcefile.exists()) {
             // Generate the file in a buffer and then compare it to the
             // file already on disk
-            return new IncrFileWriter(sourcefile, repackager);
+            return new IncrFileWriter(sourcefile, repackager, retainedSources);
         } else {
-            return repackager == null ?
+            return (repackager == null && retainedSources == null) ?
                 writerForFile(sourcefile) :
-                new RepackagingWriter(sourcefile, repackager);
+                new RepackagingWriter(sourcefile, repackager, retainedSources);
         }
     }
 
@@ -123,6 +135,14 @@ public class FilerImpl implements Filer {
         return new ArrayList<>(sourceFiles);
     }
 
+    /**
+     * @param sourceFile one of the {@link #getSourceFiles() source files}
+     * @return the text of the generated source file or null, if the sources aren't retained
+     */
+    public String getRetainedSource(File sourceFile) {
+        return retainedSources == null ? null : retainedSources.get(sourceFile);
+    }
+
     public Repackager getRepackager() {
         return repackager;
     }
@@ -141,10 +161,12 @@ public class FilerImpl implements Filer {
     static class IncrFileWriter extends StringWriter {
         private final File _file;
         private final Repackager _repackager;
+        private final Map<File, String> _retained;
 
-        public IncrFileWriter(File file, Repackager repackager) {
+        public IncrFileWriter(File file, Repackager repackager, Map<File, String> retained) {
             _file = file;
             _repackager = repackager;
+            _retained = retained;
         }
 
         public void close() throws IOException {
@@ -155,6 +177,9 @@ public class FilerImpl implements Filer {
                 _repackager.repackage(getBuffer()) :
                 getBuffer();
             String str = sb.toString();
+            if (_retained != null) {
+                _retained.put(_file, str);
+            }
             List<String> diffs = new ArrayList<>();
 
             try (StringReader sReader = new StringReader(str);
@@ -172,20 +197,29 @@ public class FilerImpl implements Filer {
     }
 
     static class RepackagingWriter extends StringWriter {
-        public RepackagingWriter(File file, Repackager repackager) {
+        public RepackagingWriter(File file, Repackager repackager, Map<File, String> retained) {
             _file = file;
             _repackager = repackager;
+            _retained = retained;
         }
 
         public void close() throws IOException {
             super.close();
 
+            String str = _repackager != null ?
+                _repackager.repackage(getBuffer()).toString() :
+                getBuffer().toString();
+            if (_retained != null) {
+                _retained.put(_file, str);
+            }
+
             try (Writer fw = writerForFile(_file)) {
-                fw.write(_repackager.repackage(getBuffer()).toString());
+                fw.write(str);
             }
         }
 
         private final File _file;
         private final Repackager _repackager;
+        private final Map<File, String> _retained;
     }
 }
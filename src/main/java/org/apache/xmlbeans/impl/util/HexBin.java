@@ -64,6 +64,13 @@ public final class HexBin {
         return hexNumberTable[octect & 0xFF] != -1;
     }
 
+    /**
+     * @return the value of the hex digit or -1, if it's not a hex digit
+     */
+    static public int digit(int ch) {
+        return (ch >= 0 && ch < BASELENGTH) ? hexNumberTable[ch] : -1;
+    }
+
     /**
      * Converts bytes to a hex string
      */
@@ -58,6 +58,11 @@ public class ValidatingInfoXMLStreamReader
         _attIndex = 0;
     }
 
+    protected boolean exposesValues()
+    {
+        return true;
+    }
+
 
     /**
      * @return Returns the SchemaType of the current element.
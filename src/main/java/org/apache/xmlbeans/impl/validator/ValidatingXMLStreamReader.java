@@ -324,7 +324,10 @@ public class ValidatingXMLStreamReader
 
         public String getText(int wsr)
         {
-            return XmlWhitespace.collapse( _xmlStream.getText(), wsr );
+            // normalize within the reused buffer, so only the resulting string is allocated
+            _length = 0;
+            addTextToBuffer();
+            return new String( _buf, 0, XmlWhitespace.collapse( _buf, 0, _length, wsr ) );
         }
 
         public boolean textIsWhitespace()
@@ -753,6 +756,16 @@ public class ValidatingXMLStreamReader
         assert schemaType!=null;
 
         _validator = new Validator(schemaType, null, _stl, _options, _errorListener);
+        _validator.setCollectListValues(exposesValues());
+    }
+
+    /**
+     * @return true, if the typed values of the validated events are available from this reader,
+     * otherwise the validator doesn't need to collect them
+     */
+    protected boolean exposesValues()
+    {
+        return false;
     }
 
     private SchemaType typeForGlobalElement(QName qname)
@@ -77,6 +77,24 @@ public final class Validator
         return !_invalid && _constraintEngine.isValid();
     }
 
+    /**
+     * Controls the collection of the list values and their item types, which are available via
+     * {@link #getListValue()} and {@link #getListTypes()}.
+     * Callers, which only check the validity, can switch it off to avoid the allocations per list value.
+     * Defaults to true.
+     */
+    public void setCollectListValues(boolean collect) {
+        _collectListValues = collect;
+    }
+
+    /**
+     * @return true, if errors are currently passed to an error listener, i.e. if building
+     * the detailed error information is worth it
+     */
+    private boolean isReportingErrors() {
+        return _suspendErrors == 0 && _errorListener != null;
+    }
+
     // KHK: remove this
     private void emitError(Event event, String message, QName offendingQName,
                            SchemaType expectedSchemaType,
@@ -739,6 +757,13 @@ public final class Validator
     }
 
     private void findDetailedErrorBegin(Event event, State state, QName qName) {
+        if (!isReportingErrors()) {
+            // only the error state counts - skip collecting the expected elements
+            emitFieldError(event, XmlErrorCodes.ELEM_COMPLEX_TYPE_LOCALLY_VALID$ELEMENT_NOT_ALLOWED,
+                null, qName, null, null, XmlValidationError.INCORRECT_ELEMENT, state._type);
+            return;
+        }
+
         ArrayList<QName> expectedNames = new ArrayList<>();
         ArrayList<QName> optionalNames = new ArrayList<>();
 
@@ -770,6 +795,13 @@ public final class Validator
     }
 
     private void findDetailedErrorEnd(Event event, State state) {
+        if (!isReportingErrors()) {
+            // only the error state counts - skip collecting the missing elements
+            emitFieldError(event, XmlErrorCodes.ELEM_COMPLEX_TYPE_LOCALLY_VALID$EXPECTED_ELEMENT,
+                null, null, null, null, XmlValidationError.ELEMENT_NOT_ALLOWED, state._type);
+            return;
+        }
+
         SchemaProperty[] eltProperties = state._type.getElementProperties();
 
         ArrayList<QName> expectedNames = new ArrayList<>();
@@ -1282,13 +1314,17 @@ public final class Validator
         }
 
         SchemaType itemType = type.getListItemType();
-        _listValue = new ArrayList<>();
-        _listTypes = new ArrayList<>();
+        if (_collectListValues) {
+            _listValue = new ArrayList<>(items.length);
+            _listTypes = new ArrayList<>(items.length);
+        }
 
         for (i = 0; i < items.length; i++) {
             validateSimpleType(
                 itemType, items[i], event);
-            addToList(itemType);
+            if (_collectListValues) {
+                addToList(itemType);
+            }
         }
 
         // If no errors up to this point, then I can create an
@@ -1508,6 +1544,7 @@ public final class Validator
     private final boolean _strict;
     private final ValidatorVC _vc;
     private int _suspendErrors;
+    private boolean _collectListValues = true;
     private final IdentityConstraint _constraintEngine;
     private int _eatContent;
 
@@ -115,6 +115,7 @@ public class ValidatorUtil
         Validator validator =
                 new Validator(
                         type, null, type.getTypeSystem(), null, errors);
+        validator.setCollectListValues(false);
 
         //make only one event at the beginning and than reuse it
         EventImpl ev = new EventImpl(prefixResolver, value);
@@ -21,8 +21,11 @@ import org.apache.xmlbeans.XmlErrorCodes;
 import org.apache.xmlbeans.XmlObject;
 import org.apache.xmlbeans.impl.common.QNameHelper;
 import org.apache.xmlbeans.impl.common.ValidationContext;
+import org.apache.xmlbeans.impl.common.XMLChar;
 import org.apache.xmlbeans.impl.schema.BuiltinSchemaTypeSystem;
 
+import java.io.*;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
@@ -92,6 +95,24 @@ public abstract class JavaBase64Holder extends XmlObjectBase {
         return result;
     }
 
+    public InputStream getByteStreamValue() {
+        synchronized (read_monitor()) {
+            Reader text = get_dated_text_reader();
+            if (text != null) {
+                return new Base64InputStream(text);
+            }
+            // the value array is replaced, but never changed, on set
+            return _value == null ? null : new ByteArrayInputStream(_value);
+        }
+    }
+
+    public ByteBuffer getByteBufferValue() {
+        synchronized (read_monitor()) {
+            check_dated();
+            return _value == null ? null : ByteBuffer.wrap(_value).asReadOnlyBuffer();
+        }
+    }
+
     // setters
     protected void set_ByteArray(byte[] ba) {
         _hashcached = false;
@@ -99,6 +120,188 @@ public abstract class JavaBase64Holder extends XmlObjectBase {
         System.arraycopy(ba, 0, _value, 0, ba.length);
     }
 
+    public void setByteStreamValue(InputStream is) throws IOException {
+        if (is == null) {
+            setNil();
+            return;
+        }
+
+        synchronized (monitor()) {
+            if (set_dated_text(new Base64Reader(is))) {
+                _hashcached = false;
+                _value = null;
+            }
+        }
+    }
+
+    /**
+     * Encodes the bytes of the stream while they're read
+     */
+    private static final class Base64Reader extends Reader {
+        private final InputStream _is;
+        // a multiple of 3 bytes, so only the last block is padded
+        private final byte[] _in = new byte[3 * 1024];
+        private byte[] _out = new byte[0];
+        private int _pos;
+
+        Base64Reader(InputStream is) {
+            _is = is;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (_pos == _out.length && !fill()) {
+                return -1;
+            }
+            int n = Math.min(len, _out.length - _pos);
+            for (int i = 0; i < n; i++) {
+                cbuf[off + i] = (char) _out[_pos++];
+            }
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            int n = 0;
+            for (int r; n < _in.length && (r = _is.read(_in, n, _in.length - n)) != -1; ) {
+                n += r;
+            }
+            if (n == 0) {
+                return false;
+            }
+            _out = Base64.getEncoder().encode(n == _in.length ? _in : Arrays.copyOf(_in, n));
+            _pos = 0;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // the stream belongs to the caller
+        }
+    }
+
+    /**
+     * Decodes the base64 text while it's read.  Whitespace is skipped, any other char
+     * outside of the base64 alphabet or a misplaced padding causes an IOException.
+     */
+    private static final class Base64InputStream extends InputStream {
+        private final Reader _text;
+        private final char[] _buf = new char[4096];
+        private int _pos;
+        private int _len;
+
+        private final byte[] _out = new byte[3];
+        private int _outPos;
+        private int _outLen;
+        private boolean _padded;
+
+        Base64InputStream(Reader text) {
+            _text = text;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (_outPos == _outLen && !decodeQuantum()) {
+                return -1;
+            }
+            return _out[_outPos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = 0;
+            for (int v; n < len && (v = read()) != -1; n++) {
+                b[off + n] = (byte) v;
+            }
+            return n == 0 ? -1 : n;
+        }
+
+        private boolean decodeQuantum() throws IOException {
+            int c0 = nextChar();
+            if (c0 < 0) {
+                return false;
+            }
+            if (_padded) {
+                throw new IOException("Base64 encoded data continues after the padding");
+            }
+            int c1 = nextChar();
+            int c2 = nextChar();
+            int c3 = nextChar();
+            if (c3 < 0) {
+                throw new IOException("Base64 encoded data is truncated");
+            }
+
+            int bits = (digit(c0) << 18) | (digit(c1) << 12);
+            if (c2 == '=') {
+                if (c3 != '=') {
+                    throw new IOException("Base64 encoded data has a misplaced padding");
+                }
+                _outLen = 1;
+                _padded = true;
+            } else {
+                bits |= digit(c2) << 6;
+                if (c3 == '=') {
+                    _outLen = 2;
+                    _padded = true;
+                } else {
+                    bits |= digit(c3);
+                    _outLen = 3;
+                }
+            }
+
+            _out[0] = (byte) (bits >> 16);
+            _out[1] = (byte) (bits >> 8);
+            _out[2] = (byte) bits;
+            _outPos = 0;
+            return true;
+        }
+
+        private static int digit(int ch) throws IOException {
+            int digit = ch >= 0 && ch < DIGITS.length ? DIGITS[ch] : -1;
+            if (digit < 0) {
+                throw new IOException(ch < 0 ? "Base64 encoded data is truncated"
+                    : "Base64 encoded data contains the invalid char '" + (char) ch + "'");
+            }
+            return digit;
+        }
+
+        /**
+         * @return the next char, which isn't whitespace, or -1 at the end of the text
+         */
+        private int nextChar() throws IOException {
+            for (; ; ) {
+                if (_pos == _len) {
+                    _len = _text.read(_buf, 0, _buf.length);
+                    _pos = 0;
+                    if (_len < 0) {
+                        _len = 0;
+                        return -1;
+                    }
+                    continue;
+                }
+                char ch = _buf[_pos++];
+                if (!XMLChar.isSpace(ch)) {
+                    return ch;
+                }
+            }
+        }
+
+        private static final int[] DIGITS = new int[128];
+
+        static {
+            Arrays.fill(DIGITS, -1);
+            String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+            for (int i = 0; i < alphabet.length(); i++) {
+                DIGITS[alphabet.charAt(i)] = i;
+            }
+        }
+    }
+
     // comparators
     protected boolean equal_to(XmlObject i) {
         byte[] ival = ((XmlBase64Binary) i).getByteArrayValue();
@@ -21,9 +21,12 @@ import org.apache.xmlbeans.XmlHexBinary;
 import org.apache.xmlbeans.XmlObject;
 import org.apache.xmlbeans.impl.common.QNameHelper;
 import org.apache.xmlbeans.impl.common.ValidationContext;
+import org.apache.xmlbeans.impl.common.XMLChar;
 import org.apache.xmlbeans.impl.schema.BuiltinSchemaTypeSystem;
 import org.apache.xmlbeans.impl.util.HexBin;
 
+import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -95,6 +98,24 @@ public abstract class JavaHexBinaryHolder extends XmlObjectBase {
         return result;
     }
 
+    public InputStream getByteStreamValue() {
+        synchronized (read_monitor()) {
+            Reader text = get_dated_text_reader();
+            if (text != null) {
+                return new HexInputStream(text);
+            }
+            // the value array is replaced, but never changed, on set
+            return _value == null ? null : new ByteArrayInputStream(_value);
+        }
+    }
+
+    public ByteBuffer getByteBufferValue() {
+        synchronized (read_monitor()) {
+            check_dated();
+            return _value == null ? null : ByteBuffer.wrap(_value).asReadOnlyBuffer();
+        }
+    }
+
     // setters
     protected void set_ByteArray(byte[] ba) {
         _hashcached = false;
@@ -102,6 +123,20 @@ public abstract class JavaHexBinaryHolder extends XmlObjectBase {
         System.arraycopy(ba, 0, _value, 0, ba.length);
     }
 
+    public void setByteStreamValue(InputStream is) throws IOException {
+        if (is == null) {
+            setNil();
+            return;
+        }
+
+        synchronized (monitor()) {
+            if (set_dated_text(new HexReader(is))) {
+                _hashcached = false;
+                _value = null;
+            }
+        }
+    }
+
     // comparators
     protected boolean equal_to(XmlObject i) {
         byte[] ival = ((XmlHexBinary) i).getByteArrayValue();
@@ -121,6 +156,116 @@ public abstract class JavaHexBinaryHolder extends XmlObjectBase {
         }
     }
 
+    /**
+     * Encodes the bytes of the stream while they're read
+     */
+    private static final class HexReader extends Reader {
+        private final InputStream _is;
+        private final byte[] _in = new byte[4096];
+        private int _pos;
+        private int _len;
+        private boolean _low;
+
+        HexReader(InputStream is) {
+            _is = is;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (_pos == _len) {
+                _len = _is.read(_in);
+                _pos = 0;
+                if (_len <= 0) {
+                    _len = 0;
+                    return -1;
+                }
+            }
+            int n = 0;
+            while (n < len && _pos < _len) {
+                int b = _in[_pos];
+                if (_low) {
+                    cbuf[off + n++] = HEX_DIGITS[b & 0xF];
+                    _pos++;
+                } else {
+                    cbuf[off + n++] = HEX_DIGITS[(b >> 4) & 0xF];
+                }
+                _low = !_low;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // the stream belongs to the caller
+        }
+
+        private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    }
+
+    /**
+     * Decodes the hex text while it's read, whitespace is skipped
+     */
+    private static final class HexInputStream extends InputStream {
+        private final Reader _text;
+        private final char[] _buf = new char[4096];
+        private int _pos;
+        private int _len;
+
+        HexInputStream(Reader text) {
+            _text = text;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int hi = nextDigit();
+            if (hi < 0) {
+                return -1;
+            }
+            int lo = nextDigit();
+            if (lo < 0) {
+                throw new IOException("Hex encoded data has an odd number of digits");
+            }
+            return (hi << 4) | lo;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = 0;
+            for (int v; n < len && (v = read()) != -1; n++) {
+                b[off + n] = (byte) v;
+            }
+            return n == 0 ? -1 : n;
+        }
+
+        private int nextDigit() throws IOException {
+            for (; ; ) {
+                if (_pos == _len) {
+                    _len = _text.read(_buf, 0, _buf.length);
+                    _pos = 0;
+                    if (_len < 0) {
+                        _len = 0;
+                        return -1;
+                    }
+                    continue;
+                }
+                char ch = _buf[_pos++];
+                if (!XMLChar.isSpace(ch)) {
+                    int digit = HexBin.digit(ch);
+                    if (digit < 0) {
+                        throw new IOException("Hex encoded data contains the invalid char '" + ch + "'");
+                    }
+                    return digit;
+                }
+            }
+        }
+    }
+
     protected int value_hash_code() {
         if (_hashcached) {
             return hashcode;
@@ -20,6 +20,8 @@ import org.apache.xmlbeans.impl.common.ValidatorListener;
 import org.apache.xmlbeans.impl.common.XmlLocale;
 
 import javax.xml.namespace.QName;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 
 public interface TypeStore extends NamespaceManager
@@ -75,6 +77,13 @@ public interface TypeStore extends NamespaceManager
     // BUGBUG (ericvas) 12111
     String fetch_text(int whitespaceRule);
 
+    /**
+     * Returns a reader over the text value, without applying a whitespace
+     * rule, which copies the text in chunks instead of building one string.
+     * The reader sees the text at the time of the call.
+     */
+    Reader fetch_text_reader();
+
     int WS_UNSPECIFIED = 0;
     int WS_PRESERVE = 1;
     int WS_REPLACE = 2;
@@ -88,6 +97,14 @@ public interface TypeStore extends NamespaceManager
      */
     void store_text(String text);
 
+    /**
+     * Like store_text(String), but the text is read from the given reader.
+     * It's kept in the chunks, in which it's read, instead of being
+     * collected in one string first.  The store is only changed, after
+     * the whole text has been read.
+     */
+    void store_text(Reader text) throws IOException;
+
     /**
      * Here the TypeStore is responsible for locating the default value.
      * This is done as follows
@@ -216,6 +233,13 @@ public interface TypeStore extends NamespaceManager
      */
     TypeStoreUser add_element_user(QName name);
 
+    /**
+     * Adds n new elements at the last position adjacent to existing
+     * elements of the same name, like n calls of add_element_user,
+     * and returns their TypeStoreUsers in document order.
+     */
+    TypeStoreUser[] add_element_users(QName name, int n);
+
     /**
      * Removes the ith element with the given name.
      *
@@ -229,6 +253,21 @@ public interface TypeStore extends NamespaceManager
      */
     void remove_element(QNameSet names, int i);
 
+    /**
+     * Removes the elements with the given name from the ith (inclusive)
+     * up to the jth (exclusive) one in a single pass, e.g. (0, Integer.MAX_VALUE)
+     * removes all of them. Returns the number of removed elements.
+     *
+     * Should throw an IndexOutOfBoundsException if i &lt; 0 or j &lt; i.
+     */
+    int remove_elements(QName name, int i, int j);
+
+    /**
+     * Removes the elements, which match names, from the ith (inclusive)
+     * up to the jth (exclusive) one.
+     */
+    int remove_elements(QNameSet names, int i, int j);
+
 
     /**
      * Returns the TypeStoreUser underneath the attribute with the given
@@ -315,6 +354,12 @@ public interface TypeStore extends NamespaceManager
 
     XmlObject[] exec_query ( String queryExpr, XmlOptions options );
 
+    /**
+     * Freezes the document of this store, see {@link XmlObject#freeze()}.
+     * Every user of the document is asked to freeze its value.
+     */
+    void freeze ( );
+
     /**
      * Returns the monitor object, used for synchronizing access to the doc.
      * @deprecated
@@ -107,6 +107,13 @@ public interface TypeStoreUser
      */
     void disconnect_store();
 
+    /**
+     * A store calls freeze_value when its document is frozen.  The user brings
+     * its value up to date, so later reads don't need to call back into the
+     * store, and refuses to be changed from now on.
+     */
+    void freeze_value();
+
     /**
      * A typestore user can create a new TypeStoreUser instance for
      * a given element child name as long as you also pass the
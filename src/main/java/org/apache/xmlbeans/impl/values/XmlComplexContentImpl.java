@@ -22,6 +22,7 @@ import org.apache.xmlbeans.impl.schema.SchemaTypeVisitorImpl;
 import javax.xml.namespace.QName;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -315,14 +316,7 @@ public class XmlComplexContentImpl extends XmlObjectBase {
         TypeStore store = get_store();
 
         if (sources == null || sources.length == 0) {
-            int m = (set == null) ? store.count_elements(elemName) : store.count_elements(set);
-            for (; m > 0; m--) {
-                if (set == null) {
-                    store.remove_element(elemName, 0);
-                } else {
-                    store.remove_element(set, 0);
-                }
-            }
+            removeElements(store, elemName, set, 0, Integer.MAX_VALUE);
             return;
         }
 
@@ -390,35 +384,29 @@ public class XmlComplexContentImpl extends XmlObjectBase {
 
         // Starting with position i in the sources array, copy the remaining elements
         // to the end of the original array...
-        for (int j = i; j < sources.length; j++) {
-            TypeStoreUser user = store.add_element_user(elemName);
-            ((XmlObjectBase) user).set(sources[j]);
+        if (i < sources.length) {
+            TypeStoreUser[] added = store.add_element_users(elemName, sources.length - i);
+            for (int j = i; j < sources.length; j++) {
+                ((XmlObjectBase) added[j - i]).set(sources[j]);
+            }
         }
 
         // ... then come back and insert the elements starting with startSource
         // up to i from the sources array into the current array, starting with
         // startDest
         int n = i;
-        for (; m > n - startSrc + startDest; m--) {
-            if (set == null) {
-                store.remove_element(elemName, m - 1);
-            } else {
-                store.remove_element(set, m - 1);
-            }
+        int keep = n - startSrc + startDest;
+        if (m > keep) {
+            removeElements(store, elemName, set, keep, m);
+            m = keep;
         }
 
+        List<XmlObjectBase> users = findAllElements(store, elemName, set);
+        TypeStoreUser[] added = (keep > m) ? store.add_element_users(elemName, keep - m) : null;
+
         int j;
         for (i = startSrc, j = startDest; i < n; i++, j++) {
-            TypeStoreUser user;
-
-            if (j >= m) {
-                user = store.add_element_user(elemName);
-            } else if (set == null) {
-                user = store.find_element_user(elemName, j);
-            } else {
-                user = store.find_element_user(set, j);
-            }
-
+            TypeStoreUser user = (j >= m) ? added[j - m] : users.get(j);
             ((XmlObjectBase) user).set(sources[i]);
         }
 
@@ -436,56 +424,42 @@ public class XmlComplexContentImpl extends XmlObjectBase {
     private void commonSetterHelper(QName elemName, QNameSet set, int n, BiConsumer<XmlObjectBase, Integer> fun) {
         TypeStore store = get_store();
 
-        int m = (set == null) ? store.count_elements(elemName) : store.count_elements(set);
+        // the existing elements are looked up, truncated and extended in one pass each,
+        // instead of a positional lookup per element
+        List<XmlObjectBase> users = findAllElements(store, elemName, set);
+        int m = users.size();
 
-        for (; m > n; m--) {
-            if (set == null) {
-                store.remove_element(elemName, m - 1);
-            } else {
-                store.remove_element(set, m - 1);
-            }
+        if (m > n) {
+            removeElements(store, elemName, set, n, m);
         }
 
+        TypeStoreUser[] added = (m < n) ? store.add_element_users(elemName, n - m) : null;
+
         for (int i = 0; i < n; i++) {
-            TypeStoreUser user;
-
-            if (i >= m) {
-                user = store.add_element_user(elemName);
-            } else if (set == null) {
-                user = store.find_element_user(elemName, i);
-            } else {
-                user = store.find_element_user(set, i);
-            }
+            TypeStoreUser user = (i < m) ? users.get(i) : added[i - m];
             fun.accept((XmlObjectBase) user, i);
         }
     }
 
     private <T> void commonSetterHelper2(QName elemName, QNameSet set, T[] sources, BiConsumer<XmlObjectBase, T> c) {
-        int n = (sources == null) ? 0 : sources.length;
-
-        TypeStore store = get_store();
-
-        int m = (set == null) ? store.count_elements(elemName) : store.count_elements(set);
+        commonSetterHelper(elemName, set, (sources == null) ? 0 : sources.length, (u, i) -> c.accept(u, sources[i]));
+    }
 
-        for (; m > n; m--) {
-            if (set == null) {
-                store.remove_element(elemName, m - 1);
-            } else {
-                store.remove_element(set, m - 1);
-            }
+    private static List<XmlObjectBase> findAllElements(TypeStore store, QName elemName, QNameSet set) {
+        List<XmlObjectBase> users = new ArrayList<>();
+        if (set == null) {
+            store.find_all_element_users(elemName, users);
+        } else {
+            store.find_all_element_users(set, users);
         }
+        return users;
+    }
 
-        for (int i = 0; i < n; i++) {
-            TypeStoreUser user;
-
-            if (i >= m) {
-                user = store.add_element_user(elemName);
-            } else if (set == null) {
-                user = store.find_element_user(elemName, i);
-            } else {
-                user = store.find_element_user(set, i);
-            }
-            c.accept((XmlObjectBase) user, sources[i]);
+    private static void removeElements(TypeStore store, QName elemName, QNameSet set, int from, int to) {
+        if (set == null) {
+            store.remove_elements(elemName, from, to);
+        } else {
+            store.remove_elements(set, from, to);
         }
     }
 }
@@ -50,6 +50,19 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
         return this;
     }
 
+    /**
+     * The monitor the getters synchronize on. Neither the value nor the
+     * document of a frozen object change anymore, so readers don't need
+     * to exclude each other - an unshared monitor is never contended and
+     * usually elided.
+     */
+    protected final Object read_monitor() {
+        if ((_flags & FLAG_FROZEN) != 0) {
+            return new Object();
+        }
+        return monitor();
+    }
+
     private static XmlObjectBase underlying(XmlObject obj) {
         if (obj == null) {
             return null;
@@ -372,6 +385,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
             Validator validator =
                 new Validator(
                     type, field, typeStore.get_schematypeloader(), options, null);
+            validator.setCollectListValues(false);
 
             typeStore.validate(validator);
 
@@ -580,6 +594,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     private static final int FLAG_COMPLEXCONTENT = 16384;
     private static final int FLAG_NOT_VARIABLE = 32768;
     private static final int FLAG_VALIDATE_ON_SET = 65536;
+    private static final int FLAG_FROZEN = 131072;
 
 
     /**
@@ -631,7 +646,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
      * True if the value is nilled.
      */
     public final boolean isNil() {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             check_dated();
             return ((_flags & FLAG_NIL) != 0);
         }
@@ -733,6 +748,31 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
         return (_flags & FLAG_IMMUTABLE) != 0;
     }
 
+    public void freeze() {
+        if ((_flags & FLAG_STORE) == 0) {
+            if ((_flags & FLAG_IMMUTABLE) == 0) {
+                setImmutable();
+            }
+            return;
+        }
+
+        check_orphaned();
+
+        XmlLocale l = getXmlLocale();
+
+        if (l.noSync()) {
+            get_store().freeze();
+        } else {
+            synchronized (l) {
+                get_store().freeze();
+            }
+        }
+    }
+
+    public boolean isFrozen() {
+        return has_store() ? getXmlLocale().isFrozen() : isImmutable();
+    }
+
 
     // TEXTUSER implementation
 
@@ -862,6 +902,18 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
         // do NOT null out _textsource, because we need it non-null for synchronization
     }
 
+    public void freeze_value() {
+        assert ((_flags & FLAG_STORE) != 0);
+        try {
+            check_dated();
+        } catch (XmlValueOutOfRangeException e) {
+            // an invalid value stays dated - it's read under the lock of the document
+            // and throws the exception on every access
+            return;
+        }
+        _flags |= FLAG_FROZEN;
+    }
+
     /**
      * A typestore user can create a new TypeStoreUser instance for
      * a given element child name as long as you also pass the
@@ -1057,6 +1109,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
         if ((_flags & FLAG_IMMUTABLE) != 0) {
             throw new IllegalStateException();
         }
+        check_frozen();
 
         boolean wasNilled = ((_flags & FLAG_NIL) != 0);
 
@@ -1205,39 +1258,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
      */
     public final void check_dated() {
         if ((_flags & FLAGS_DATED) != 0) {
-            if ((_flags & FLAG_ORPHANED) != 0) {
-                throw new XmlValueDisconnectedException();
-            }
-
-            assert ((_flags & FLAG_STORE) != 0);
-
-            check_element_dated();
-
-            if ((_flags & FLAG_ELEMENT_DATED) != 0) {
-                int eltflags = get_store().compute_flags();
-                _flags &= ~(FLAGS_ELEMENT | FLAG_ELEMENT_DATED);
-                _flags |= eltflags;
-            }
-
-            boolean nilled = false;
-
-            if ((_flags & FLAG_NIL_DATED) != 0) {
-                if (get_store().find_nil()) {
-                    if ((_flags & FLAG_NILLABLE) == 0 &&
-                        (_flags & FLAG_VALIDATE_ON_SET) != 0) {
-                        throw new XmlValueOutOfRangeException(); // nil not allowed
-                    }
-
-                    // let the implementation know that we're nil now
-                    set_nil();
-
-                    _flags |= FLAG_NIL;
-                    nilled = true;
-                } else {
-                    _flags &= ~FLAG_NIL;
-                }
-                _flags &= ~FLAG_NIL_DATED;
-            }
+            boolean nilled = check_nil_dated();
 
             if (!nilled) {
                 String text;
@@ -1258,6 +1279,116 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
         }
     }
 
+    /**
+     * Brings the element flags and the nil state up to date,
+     * but not the value.
+     *
+     * @return true, if the element has just been found to be nil
+     */
+    private boolean check_nil_dated() {
+        if ((_flags & FLAG_ORPHANED) != 0) {
+            throw new XmlValueDisconnectedException();
+        }
+
+        assert ((_flags & FLAG_STORE) != 0);
+
+        check_element_dated();
+
+        if ((_flags & FLAG_ELEMENT_DATED) != 0) {
+            int eltflags = get_store().compute_flags();
+            _flags &= ~(FLAGS_ELEMENT | FLAG_ELEMENT_DATED);
+            _flags |= eltflags;
+        }
+
+        boolean nilled = false;
+
+        if ((_flags & FLAG_NIL_DATED) != 0) {
+            if (get_store().find_nil()) {
+                if ((_flags & FLAG_NILLABLE) == 0 &&
+                    (_flags & FLAG_VALIDATE_ON_SET) != 0) {
+                    throw new XmlValueOutOfRangeException(); // nil not allowed
+                }
+
+                // let the implementation know that we're nil now
+                set_nil();
+
+                _flags |= FLAG_NIL;
+                nilled = true;
+            } else {
+                _flags &= ~FLAG_NIL;
+            }
+            _flags &= ~FLAG_NIL_DATED;
+        }
+
+        return nilled;
+    }
+
+    /**
+     * Used by the binary types to read a large value in chunks.
+     * If the value hasn't been computed from the text of the store
+     * yet, e.g. after a load, a reader over the literal text is
+     * returned and the value stays dated.  Otherwise the value is
+     * brought up to date and null is returned.
+     */
+    protected final Reader get_dated_text_reader() {
+        synchronized (read_monitor()) {
+            if ((_flags & FLAG_VALUE_DATED) == 0) {
+                return null;
+            }
+
+            if (check_nil_dated()) {
+                _flags &= ~FLAG_VALUE_DATED;
+                return null;
+            }
+
+            if ((_flags & (FLAG_NIL | FLAG_HASDEFAULT | FLAG_COMPLEXCONTENT)) != 0) {
+                // nils and defaults take the usual way
+                check_dated();
+                return null;
+            }
+
+            return get_store().fetch_text_reader();
+        }
+    }
+
+    /**
+     * Used by the binary types to set a large value from its literal
+     * text, which is read from the reader, without computing the value
+     * as well.  Like after a load,
+     * the value is computed from the text of the store, when it's
+     * needed.  Values, which are validated on set or which have no
+     * store, are set like a string.
+     *
+     * @return true, if the value has been left dated
+     */
+    protected final boolean set_dated_text(Reader text) throws IOException {
+        synchronized (monitor()) {
+            set_prepare();
+
+            if ((_flags & FLAG_STORE) == 0 || (_flags & FLAG_VALIDATE_ON_SET) != 0) {
+                StringBuilder sb = new StringBuilder();
+                char[] buf = new char[4096];
+                for (int n; (n = text.read(buf)) != -1; ) {
+                    sb.append(buf, 0, n);
+                }
+                set_String(sb.toString());
+                return false;
+            }
+
+            get_store().store_text(text);
+
+            boolean wasNilled = ((_flags & FLAG_NIL) != 0);
+            _flags &= ~(FLAG_NIL | FLAG_ISDEFAULT);
+
+            if (wasNilled) {
+                get_store().invalidate_nil();
+            }
+
+            _flags |= FLAG_VALUE_DATED;
+            return true;
+        }
+    }
+
     /**
      * Called before every set operation (except for the
      * special case of setting a string) to:
@@ -1269,6 +1400,13 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
         if ((_flags & FLAG_IMMUTABLE) != 0) {
             throw new IllegalStateException();
         }
+        check_frozen();
+    }
+
+    private void check_frozen() {
+        if ((_flags & FLAG_STORE) != 0 && get_store().get_locale().isFrozen()) {
+            throw new IllegalStateException("The document is frozen and can't be changed");
+        }
     }
 
     /**
@@ -1464,7 +1602,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
         }
         // Since complex-content types don't have a "natural" string value, we
         // emit the deeply concatenated, tag-removed content of the tag.
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             if (_isComplexContent()) {
                 return get_store().fetch_text(TypeStore.WS_PRESERVE);
             }
@@ -2025,30 +2163,10 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
                         synchronized (monitor()) {
                             newObj = setterHelper(obj);
                         }
-                    } else                                // both are sync can't avoid the global lock
+                    } else                                // both are sync
                     {
-                        boolean acquired = false;
-
-                        try {
-                            // about to grab two locks: don't deadlock ourselves
-                            GlobalLock.acquire();
-                            acquired = true;
-
-                            synchronized (monitor()) {
-                                synchronized (obj.monitor()) {
-                                    GlobalLock.release();
-                                    acquired = false;
-
-                                    newObj = setterHelper(obj);
-                                }
-                            }
-                        } catch (InterruptedException e) {
-                            throw new XmlRuntimeException(e);
-                        } finally {
-                            if (acquired) {
-                                GlobalLock.release();
-                            }
-                        }
+                        // about to grab two locks: don't deadlock ourselves
+                        newObj = GlobalLock.synchronizedOn(monitor(), obj.monitor(), () -> setterHelper(obj));
                     }
                 }
             }
@@ -2113,29 +2231,9 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
                     return (XmlObject) objSetterHelper(srcObj, propName, index, kindSetterHelper);
                 }
             } else {
-                // both are sync can't avoid the global lock
-                boolean acquired = false;
-
-                try {
-                    // about to grab two locks: don't deadlock ourselves
-                    GlobalLock.acquire();
-                    acquired = true;
-
-                    synchronized (monitor()) {
-                        synchronized (srcObj.monitor()) {
-                            GlobalLock.release();
-                            acquired = false;
-
-                            return (XmlObject) objSetterHelper(srcObj, propName, index, kindSetterHelper);
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    throw new XmlRuntimeException(e);
-                } finally {
-                    if (acquired) {
-                        GlobalLock.release();
-                    }
-                }
+                // both are sync - about to grab two locks: don't deadlock ourselves
+                return (XmlObject) GlobalLock.synchronizedOn(monitor(), srcObj.monitor(),
+                    () -> objSetterHelper(srcObj, propName, index, kindSetterHelper));
             }
         }
     }
@@ -2382,39 +2480,21 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     public final boolean valueEquals(XmlObject xmlobj) {
-        boolean acquired = false;
-        try {
-            if (isImmutable()) {
-                if (xmlobj.isImmutable()) {
-                    return valueEqualsImpl(xmlobj);
-                } else {
-                    synchronized (xmlobj.monitor()) {
-                        return valueEqualsImpl(xmlobj);
-                    }
-                }
+        if (isImmutable()) {
+            if (xmlobj.isImmutable()) {
+                return valueEqualsImpl(xmlobj);
             } else {
-                if (xmlobj.isImmutable() || monitor() == xmlobj.monitor()) {
-                    synchronized (monitor()) {
-                        return valueEqualsImpl(xmlobj);
-                    }
-                } else {
-                    GlobalLock.acquire();
-                    acquired = true;
-                    synchronized (monitor()) {
-                        synchronized (xmlobj.monitor()) {
-                            GlobalLock.release();
-                            acquired = false;
-                            return valueEqualsImpl(xmlobj);
-                        }
-                    }
+                synchronized (xmlobj.monitor()) {
+                    return valueEqualsImpl(xmlobj);
                 }
             }
-
-        } catch (InterruptedException e) {
-            throw new XmlRuntimeException(e);
-        } finally {
-            if (acquired) {
-                GlobalLock.release();
+        } else {
+            if (xmlobj.isImmutable() || monitor() == xmlobj.monitor()) {
+                synchronized (monitor()) {
+                    return valueEqualsImpl(xmlobj);
+                }
+            } else {
+                return GlobalLock.synchronizedOn(monitor(), xmlobj.monitor(), () -> valueEqualsImpl(xmlobj));
             }
         }
     }
@@ -2476,39 +2556,21 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
             return 2;
         }
 
-        boolean acquired = false;
-        try {
-            if (isImmutable()) {
-                if (xmlobj.isImmutable()) {
-                    return compareValueImpl(xmlobj);
-                } else {
-                    synchronized (xmlobj.monitor()) {
-                        return compareValueImpl(xmlobj);
-                    }
-                }
+        if (isImmutable()) {
+            if (xmlobj.isImmutable()) {
+                return compareValueImpl(xmlobj);
             } else {
-                if (xmlobj.isImmutable() || monitor() == xmlobj.monitor()) {
-                    synchronized (monitor()) {
-                        return compareValueImpl(xmlobj);
-                    }
-                } else {
-                    GlobalLock.acquire();
-                    acquired = true;
-                    synchronized (monitor()) {
-                        synchronized (xmlobj.monitor()) {
-                            GlobalLock.release();
-                            acquired = false;
-                            return compareValueImpl(xmlobj);
-                        }
-                    }
+                synchronized (xmlobj.monitor()) {
+                    return compareValueImpl(xmlobj);
                 }
             }
-
-        } catch (InterruptedException e) {
-            throw new XmlRuntimeException(e);
-        } finally {
-            if (acquired) {
-                GlobalLock.release();
+        } else {
+            if (xmlobj.isImmutable() || monitor() == xmlobj.monitor()) {
+                synchronized (monitor()) {
+                    return compareValueImpl(xmlobj);
+                }
+            } else {
+                return GlobalLock.synchronizedOn(monitor(), xmlobj.monitor(), () -> compareValueImpl(xmlobj));
             }
         }
     }
@@ -2534,7 +2596,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     protected abstract int value_hash_code();
 
     public int valueHashCode() {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             return value_hash_code();
         }
     }
@@ -2582,7 +2644,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
             return super.hashCode();
         }
 
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             if (isNil()) {
                 return 0;
             }
@@ -3113,19 +3175,19 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected <T> T[] getObjectArray(QName elementName, Function<SimpleValue, T> fun, IntFunction<T[]> arrayCon) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             return getBaseArray(elementName).stream().map(fun).toArray(arrayCon);
         }
     }
 
     protected <T> T[] getEnumArray(QName elementName, IntFunction<T[]> arrayCon) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             return getBaseArray(elementName).stream().map(SimpleValue::getEnumValue).toArray(arrayCon);
         }
     }
 
     protected boolean[] getBooleanArray(QName elementName) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementName);
             boolean[] result = new boolean[targetList.size()];
             for (int i = 0; i < result.length; i++) {
@@ -3136,7 +3198,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected float[] getFloatArray(QName elementName) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementName);
             float[] result = new float[targetList.size()];
             for (int i = 0; i < result.length; i++) {
@@ -3147,7 +3209,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected double[] getDoubleArray(QName elementName) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementName);
             return targetList.stream()
                 .map(org.apache.xmlbeans.SimpleValue.class::cast)
@@ -3157,7 +3219,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected byte[] getByteArray(QName elementName) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementName);
             byte[] result = new byte[targetList.size()];
             for (int i = 0; i < result.length; i++) {
@@ -3168,7 +3230,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected short[] getShortArray(QName elementName) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementName);
             short[] result = new short[targetList.size()];
             for (int i = 0; i < result.length; i++) {
@@ -3179,7 +3241,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected int[] getIntArray(QName elementName) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementName);
             return targetList.stream()
                 .map(org.apache.xmlbeans.SimpleValue.class::cast)
@@ -3189,7 +3251,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected long[] getLongArray(QName elementName) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementName);
             return targetList.stream()
                 .map(org.apache.xmlbeans.SimpleValue.class::cast)
@@ -3199,25 +3261,25 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected <T extends XmlObject> T[] getXmlObjectArray(QName elementName, T[] arrayCon) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             return getBaseArray(elementName).toArray(arrayCon);
         }
     }
 
     protected <T> T[] getObjectArray(QNameSet elementSet, Function<SimpleValue, T> fun, IntFunction<T[]> arrayCon) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             return getBaseArray(elementSet).stream().map(fun).toArray(arrayCon);
         }
     }
 
     protected <T> T[] getEnumArray(QNameSet elementSet, IntFunction<T[]> arrayCon) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             return getBaseArray(elementSet).stream().map(SimpleValue::getEnumValue).toArray(arrayCon);
         }
     }
 
     protected boolean[] getBooleanArray(QNameSet elementSet) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementSet);
             boolean[] result = new boolean[targetList.size()];
             for (int i = 0; i < result.length; i++) {
@@ -3228,7 +3290,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected float[] getFloatArray(QNameSet elementSet) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementSet);
             float[] result = new float[targetList.size()];
             for (int i = 0; i < result.length; i++) {
@@ -3239,7 +3301,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected double[] getDoubleArray(QNameSet elementSet) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementSet);
             return targetList.stream()
                 .map(org.apache.xmlbeans.SimpleValue.class::cast)
@@ -3249,7 +3311,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected byte[] getByteArray(QNameSet elementSet) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementSet);
             byte[] result = new byte[targetList.size()];
             for (int i = 0; i < result.length; i++) {
@@ -3260,7 +3322,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected short[] getShortArray(QNameSet elementSet) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementSet);
             short[] result = new short[targetList.size()];
             for (int i = 0; i < result.length; i++) {
@@ -3271,7 +3333,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected int[] getIntArray(QNameSet elementSet) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementSet);
             return targetList.stream()
                 .map(org.apache.xmlbeans.SimpleValue.class::cast)
@@ -3281,7 +3343,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected long[] getLongArray(QNameSet elementSet) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             List<XmlObjectBase> targetList = getBaseArray(elementSet);
             return targetList.stream()
                 .map(org.apache.xmlbeans.SimpleValue.class::cast)
@@ -3291,13 +3353,13 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected <T extends XmlObject> T[] getXmlObjectArray(QNameSet elementSet, T[] arrayCon) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             return getBaseArray(elementSet).toArray(arrayCon);
         }
     }
 
     protected <T extends XmlObject> T[] xgetArray(QName elementName, IntFunction<T[]> arrayCon) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             check_orphaned();
             java.util.List<T> targetList = new java.util.ArrayList<>();
             get_store().find_all_element_users(elementName, targetList);
@@ -3306,7 +3368,7 @@ public abstract class XmlObjectBase implements TypeStoreUser, Serializable, XmlO
     }
 
     protected <T extends XmlObject> T[] xgetArray(QNameSet elementSet, IntFunction<T[]> arrayCon) {
-        synchronized (monitor()) {
+        synchronized (read_monitor()) {
             check_orphaned();
             java.util.List<T> targetList = new java.util.ArrayList<>();
             get_store().find_all_element_users(elementSet, targetList);
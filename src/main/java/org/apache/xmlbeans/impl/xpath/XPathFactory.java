@@ -15,9 +15,11 @@
 
 package org.apache.xmlbeans.impl.xpath;
 
+import org.apache.xmlbeans.SystemProperties;
 import org.apache.xmlbeans.XmlCursor;
 import org.apache.xmlbeans.XmlObject;
 import org.apache.xmlbeans.XmlOptions;
+import org.apache.xmlbeans.impl.common.XBeanDebug;
 import org.apache.xmlbeans.impl.store.Cur;
 import org.apache.xmlbeans.impl.xpath.saxon.SaxonXPath;
 import org.apache.xmlbeans.impl.xpath.saxon.SaxonXQuery;
@@ -25,8 +27,13 @@ import org.apache.xmlbeans.impl.xpath.xmlbeans.XmlbeansXPath;
 
 import java.lang.ref.WeakReference;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class XPathFactory {
@@ -36,6 +43,14 @@ public class XPathFactory {
     private static final Map<String, WeakReference<Path>> _xmlbeansPathCache = new WeakHashMap<>();
     private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
+    private static final int QUERY_CACHE_SIZE = initQueryCacheSize();
+    // Saxon paths keep their compiled expression, so they are cached per current node variable
+    // and bounded like the queries
+    private static final ConcurrentMap<QueryKey, Path> _saxonPathCache = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<QueryKey, XQuery> _queryCache = new ConcurrentHashMap<>();
+    private static final LongAdder _queryCacheHits = new LongAdder();
+    private static final LongAdder _queryCacheMisses = new LongAdder();
+
     static String getCurrentNodeVar(XmlOptions options) {
         String currentNodeVar = "this";
 
@@ -75,6 +90,10 @@ public class XPathFactory {
             if (pathWeakRef != null) {
                 path = pathWeakRef.get();
             }
+            if (path == null && (force & USE_SAXON) != 0) {
+                // only paths which the XmlBeans engine can't handle end up in here
+                path = _saxonPathCache.get(saxonCacheKey(pathExpr, currentVar));
+            }
             if (path != null) {
                 return path;
             }
@@ -93,7 +112,15 @@ public class XPathFactory {
                 }
             }
             if (path == null && (force & USE_SAXON) != 0) {
-                path = getCompiledPathSaxon(pathExpr, currentVar, namespaces);
+                QueryKey key = saxonCacheKey(pathExpr, currentVar);
+                path = _saxonPathCache.get(key);
+                if (path == null) {
+                    path = getCompiledPathSaxon(pathExpr, currentVar, namespaces);
+                    if (_saxonPathCache.size() >= QUERY_CACHE_SIZE) {
+                        evict(_saxonPathCache);
+                    }
+                    _saxonPathCache.put(key, path);
+                }
             }
             if (path == null) {
                 StringBuilder errMessage = new StringBuilder();
@@ -123,6 +150,11 @@ public class XPathFactory {
         }
     }
 
+    private static QueryKey saxonCacheKey(String pathExpr, String currentVar) {
+        // the namespaces of a path are declared in its prolog, so they're part of the path text
+        return new QueryKey(pathExpr, currentVar, null);
+    }
+
     public static Path getCompiledPathSaxon(String pathExpr, String currentVar, Map<String, String> namespaces) {
         if (namespaces == null) {
             namespaces = new HashMap<>();
@@ -159,14 +191,33 @@ public class XPathFactory {
         return getCompiledQuery(queryExpr, options).cursorExecute(c, options);
     }
 
-    public static synchronized XQuery getCompiledQuery(String queryExpr, XmlOptions options) {
+    public static XQuery getCompiledQuery(String queryExpr, XmlOptions options) {
         return getCompiledQuery(queryExpr, XPathFactory.getCurrentNodeVar(options), options);
     }
 
-    static synchronized XQuery getCompiledQuery(String queryExpr, String currentVar, XmlOptions options) {
+    static XQuery getCompiledQuery(String queryExpr, String currentVar, XmlOptions options) {
         assert queryExpr != null;
         options = XmlOptions.maskNull(options);
 
+        QueryKey key = new QueryKey(queryExpr, currentVar, options.getLoadAdditionalNamespaces());
+        XQuery query = _queryCache.get(key);
+        if (query != null) {
+            _queryCacheHits.increment();
+            return query;
+        }
+        _queryCacheMisses.increment();
+
+        // compile outside the cache, so other queries aren't blocked meanwhile.
+        // if two threads compile the same query, the first one wins
+        query = compileQuery(queryExpr, currentVar, options);
+        if (_queryCache.size() >= QUERY_CACHE_SIZE) {
+            evict(_queryCache);
+        }
+        XQuery prev = _queryCache.putIfAbsent(key, query);
+        return prev != null ? prev : query;
+    }
+
+    private static XQuery compileQuery(String queryExpr, String currentVar, XmlOptions options) {
         //Parse the query via XmlBeans: need to figure out end of prolog
         //in order to bind $this...not good but...
         Map<String, String> boundary = new HashMap<>();
@@ -182,8 +233,102 @@ public class XPathFactory {
         return new SaxonXQuery(queryExpr, currentVar, boundaryVal, options);
     }
 
-    public static synchronized String compileQuery(String queryExpr, XmlOptions options) {
+    public static String compileQuery(String queryExpr, XmlOptions options) {
         getCompiledQuery(queryExpr, options);
         return queryExpr;
     }
+
+    private static void evict(ConcurrentMap<QueryKey, ?> cache) {
+        // the cache is only a bound for repeating queries and paths, so instead of tracking
+        // the usage, simply drop an arbitrary entry
+        Iterator<QueryKey> it = cache.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * @return the number of compiled queries which were found in the query cache
+     */
+    public static long getQueryCacheHits() {
+        return _queryCacheHits.sum();
+    }
+
+    /**
+     * @return the number of queries which needed to be compiled
+     */
+    public static long getQueryCacheMisses() {
+        return _queryCacheMisses.sum();
+    }
+
+    /**
+     * @return the number of compiled queries and Saxon paths currently held in the caches.
+     * Each cache is bounded by the "xmlbean.xquerycachesize" system property (defaults to 256)
+     */
+    public static int getQueryCacheSize() {
+        return _queryCache.size() + _saxonPathCache.size();
+    }
+
+    /**
+     * Removes all compiled queries and Saxon paths from the caches and resets the hit/miss counters
+     */
+    public static void clearQueryCache() {
+        _queryCache.clear();
+        _saxonPathCache.clear();
+        _queryCacheHits.reset();
+        _queryCacheMisses.reset();
+    }
+
+    private static int initQueryCacheSize() {
+        String size = SystemProperties.getProperty("xmlbean.xquerycachesize", "256");
+        try {
+            int cacheSize = Integer.parseInt(size);
+            if (cacheSize < 1) {
+                // an empty cache would evict each query on putting it
+                XBeanDebug.LOG.atWarn().log("Invalid xmlbean.xquerycachesize {} - using 1", size);
+                return 1;
+            }
+            return cacheSize;
+        } catch (NumberFormatException e) {
+            XBeanDebug.LOG.atWarn().log("Invalid xmlbean.xquerycachesize {} - using default", size);
+            return 256;
+        }
+    }
+
+    /**
+     * The compiled query or Saxon path depends on its text, the name of the current node variable
+     * and the additional namespaces taken from the options
+     */
+    private static final class QueryKey {
+        private final String queryExpr;
+        private final String currentVar;
+        private final Map<String, String> namespaces;
+
+        QueryKey(String queryExpr, String currentVar, Map<String, String> namespaces) {
+            this.queryExpr = queryExpr;
+            this.currentVar = currentVar;
+            // copy the namespaces, as the options map might be changed later on
+            this.namespaces = (namespaces == null || namespaces.isEmpty()) ? null : new HashMap<>(namespaces);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) o;
+            return queryExpr.equals(other.queryExpr) &&
+                   currentVar.equals(other.currentVar) &&
+                   Objects.equals(namespaces, other.namespaces);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(queryExpr, currentVar, namespaces);
+        }
+    }
 }
@@ -22,11 +22,13 @@ import net.sf.saxon.om.NamespaceUri;
 import net.sf.saxon.om.NodeInfo;
 import net.sf.saxon.om.SequenceTool;
 import net.sf.saxon.sxpath.*;
+import net.sf.saxon.trans.XPathException;
 import net.sf.saxon.tree.wrapper.VirtualNode;
 import net.sf.saxon.value.DateTimeValue;
 import net.sf.saxon.value.GDateValue;
 import org.apache.xmlbeans.XmlOptions;
 import org.apache.xmlbeans.impl.store.Cur;
+import org.apache.xmlbeans.impl.store.StoreNodeInfo;
 import org.apache.xmlbeans.impl.xpath.Path;
 import org.apache.xmlbeans.impl.xpath.XPath;
 import org.apache.xmlbeans.impl.xpath.XPathEngine;
@@ -41,10 +43,17 @@ import java.util.Map;
 
 @SuppressWarnings("WeakerAccess")
 public class SaxonXPath implements Path {
+    /**
+     * The Saxon configuration is expensive to create and is thread-safe,
+     * so a single instance is shared by all compiled expressions
+     */
+    private static final Configuration CONFIG = new Configuration();
+
     private final Map<String, String> namespaceMap = new HashMap<>();
-    private String path;
-    private String contextVar;
-    private String defaultNS;
+    private final String path;
+    private final String contextVar;
+    private final String defaultNS;
+    private volatile CompiledExpression compiled;
 
     /**
      * Construct given an XPath expression string.
@@ -77,8 +86,10 @@ public class SaxonXPath implements Path {
      * expressions involving the {@code union} operator
      * (denoted with the pipe '|' character).
      * <p>
-     * <b>NOTE:</b> Param node must be a DOM node which will be used
+     * <b>NOTE:</b> Param node must be a store cursor or a DOM node which will be used
      * during the xpath execution and iteration through the results.
+     * A store cursor is evaluated directly on the store and selected nodes are
+     * returned as {@link StoreNodeInfo}, for DOM nodes the selected nodes are DOM nodes.
      * A call of node.dispose() must be done after reading all results.
      *
      * @param node The node, nodeset or Context object for evaluation.
@@ -88,34 +99,23 @@ public class SaxonXPath implements Path {
      */
     public List selectNodes(Object node) {
         try {
-            Node contextNode = (Node) node;
-            Configuration config = new Configuration();
-            IndependentContext sc = new IndependentContext(config);
-            // Declare ns bindings
-            // also see https://saxonica.plan.io/issues/2130
-            // (XPath referencing attribute with namespace fails when using DOM)
-            if (defaultNS != null) {
-                sc.setDefaultElementNamespace(NamespaceUri.of(defaultNS));
-            }
-
-            for (Map.Entry<String, String> entry : namespaceMap.entrySet()) {
-                sc.declareNamespace(entry.getKey(), NamespaceUri.of(entry.getValue()));
-            }
+            CompiledExpression ce = getCompiledExpression();
 
-            NodeInfo contextItem = config.unravel(new DOMSource(contextNode));
+            NodeInfo contextItem = (node instanceof Cur)
+                ? StoreNodeInfo.wrap((Cur) node, CONFIG)
+                : CONFIG.unravel(new DOMSource((Node) node));
 
-            XPathEvaluator xpe = new XPathEvaluator(config);
-            xpe.setStaticContext(sc);
-            XPathVariable thisVar = sc.declareVariable(NamespaceUri.of(""), contextVar);
-            XPathExpression xpath = xpe.createExpression(path);
+            XPathExpression xpath = ce.expression;
             XPathDynamicContext dc = xpath.createDynamicContext(null);
             dc.setContextItem(contextItem);
-            dc.setVariable(thisVar, contextItem);
+            dc.setVariable(ce.thisVar, contextItem);
 
             List<Item> saxonNodes = xpath.evaluate(dc);
             List<Object> retNodes = new ArrayList<>(saxonNodes.size());
             for (Item o : saxonNodes) {
-                if (o instanceof DOMNodeWrapper) {
+                if (o instanceof StoreNodeInfo) {
+                    retNodes.add(o);
+                } else if (o instanceof DOMNodeWrapper) {
                     Node n = getUnderlyingNode((DOMNodeWrapper) o);
                     retNodes.add(n);
                 } else if (o instanceof NodeInfo) {
@@ -138,6 +138,54 @@ public class SaxonXPath implements Path {
         return selectNodes(node);
     }
 
+    /**
+     * Returns the compiled expression, compiling it on first use.
+     * The compiled expression is immutable and can be evaluated concurrently,
+     * each evaluation uses its own dynamic context.
+     */
+    private CompiledExpression getCompiledExpression() throws XPathException {
+        CompiledExpression ce = compiled;
+        if (ce == null) {
+            synchronized (this) {
+                ce = compiled;
+                if (ce == null) {
+                    ce = compile();
+                    compiled = ce;
+                }
+            }
+        }
+        return ce;
+    }
+
+    private CompiledExpression compile() throws XPathException {
+        IndependentContext sc = new IndependentContext(CONFIG);
+        // Declare ns bindings
+        // also see https://saxonica.plan.io/issues/2130
+        // (XPath referencing attribute with namespace fails when using DOM)
+        if (defaultNS != null) {
+            sc.setDefaultElementNamespace(NamespaceUri.of(defaultNS));
+        }
+
+        for (Map.Entry<String, String> entry : namespaceMap.entrySet()) {
+            sc.declareNamespace(entry.getKey(), NamespaceUri.of(entry.getValue()));
+        }
+
+        XPathEvaluator xpe = new XPathEvaluator(CONFIG);
+        xpe.setStaticContext(sc);
+        XPathVariable thisVar = sc.declareVariable(NamespaceUri.of(""), contextVar);
+        return new CompiledExpression(xpe.createExpression(path), thisVar);
+    }
+
+    private static final class CompiledExpression {
+        final XPathExpression expression;
+        final XPathVariable thisVar;
+
+        CompiledExpression(XPathExpression expression, XPathVariable thisVar) {
+            this.expression = expression;
+            this.thisVar = thisVar;
+        }
+    }
+
     /**
      * According to the Saxon javadoc:
      * {@code getUnderlyingNode} in {@code NodeWrapper} implements
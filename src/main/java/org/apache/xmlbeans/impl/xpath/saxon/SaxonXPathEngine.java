@@ -21,6 +21,7 @@ import org.apache.xmlbeans.*;
 import org.apache.xmlbeans.impl.store.Cur;
 import org.apache.xmlbeans.impl.store.DomImpl;
 import org.apache.xmlbeans.impl.store.Locale;
+import org.apache.xmlbeans.impl.store.StoreNodeInfo;
 import org.apache.xmlbeans.impl.xpath.XPathEngine;
 import org.apache.xmlbeans.impl.xpath.XPathExecutionContext;
 import org.w3c.dom.Node;
@@ -59,14 +60,16 @@ public class SaxonXPathEngine extends XPathExecutionContext implements XPathEngi
             throw new ConcurrentModificationException("Document changed during select");
         }
 
-        List resultsList = _engine.selectPath(_cur.getDom());
+        List resultsList = _engine.selectPath(_cur);
 
         int i;
         for (i = 0; i < resultsList.size(); i++) {
             //simple type function results
             Object node = resultsList.get(i);
             Cur pos = null;
-            if (!(node instanceof Node)) {
+            if (node instanceof StoreNodeInfo) {
+                pos = ((StoreNodeInfo) node).tempCur();
+            } else if (!(node instanceof Node)) {
                 Object obj = resultsList.get(i);
                 String value;
                 if (obj instanceof Date) {
@@ -35,6 +35,7 @@ import org.apache.xmlbeans.*;
 import org.apache.xmlbeans.impl.store.Cur;
 import org.apache.xmlbeans.impl.store.Cursor;
 import org.apache.xmlbeans.impl.store.Locale;
+import org.apache.xmlbeans.impl.store.StoreNodeInfo;
 import org.apache.xmlbeans.impl.xpath.XQuery;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -56,17 +57,22 @@ import java.util.Map;
 public class SaxonXQuery implements XQuery {
     private static final Logger LOG = LogManager.getLogger(SaxonXQuery.class);
 
+    /**
+     * The Saxon configuration is expensive to create and is thread-safe,
+     * so a single instance is shared by all compiled queries
+     */
+    private static final Configuration CONFIG = new Configuration();
+
     private final XQueryExpression xquery;
     private final String contextVar;
     private final Configuration config;
 
-    private Cur _cur;
-    private long _version;
-    private XmlOptions _options;
-
 
     /**
      * Construct given an XQuery expression string.
+     * <p>
+     * The compiled query doesn't keep any state of an execution, so an instance
+     * can be cached and executed concurrently.
      *
      * @param query      The XQuery expression
      * @param contextVar The name of the context variable
@@ -75,10 +81,7 @@ public class SaxonXQuery implements XQuery {
     public SaxonXQuery(final String query, String contextVar, Integer boundary, XmlOptions xmlOptions) {
         assert !(contextVar.startsWith(".") || contextVar.startsWith(".."));
 
-        _options = xmlOptions;
-
-
-        config = new Configuration();
+        config = CONFIG;
         StaticQueryContext sc = config.newStaticQueryContext();
         Map<String, String> nsMap = xmlOptions.getLoadAdditionalNamespaces();
         if (nsMap != null) {
@@ -99,85 +102,93 @@ public class SaxonXQuery implements XQuery {
 
 
     public XmlObject[] objectExecute(Cur c, XmlOptions options) {
-        _version = c.getLocale().version();
-        _cur = c.weakCur(this);
-        this._options = options;
-
-        Map<String, Object> bindings = XmlOptions.maskNull(_options).getXqueryVariables();
-        List<Object> resultsList = execQuery(_cur.getDom(), bindings);
-
-        XmlObject[] result = new XmlObject[resultsList.size()];
-        for (int i = 0; i < resultsList.size(); i++) {
-            //copy objects into the locale
-            Locale l = Locale.getLocale(_cur.getLocale().getSchemaTypeLoader(), _options);
-
-            l.enter();
-            Object node = resultsList.get(i);
-            Cur res;
-            try {
-                //typed function results of XQuery
-                if (!(node instanceof Node)) {
-                    res = l.load("<xml-fragment/>").tempCur();
-                    res.setValue(node.toString());
-                    SchemaType type = getType(node);
-                    Locale.autoTypeDocument(res, type, null);
+        Cur cur = c.weakCur(this);
+        try {
+            Map<String, Object> bindings = XmlOptions.maskNull(options).getXqueryVariables();
+            List<Object> resultsList = execQuery(cur, bindings);
+
+            XmlObject[] result = new XmlObject[resultsList.size()];
+            for (int i = 0; i < resultsList.size(); i++) {
+                //copy objects into the locale
+                Locale l = Locale.getLocale(cur.getLocale().getSchemaTypeLoader(), options);
+
+                l.enter();
+                Object node = resultsList.get(i);
+                Cur res;
+                try {
+                    //typed function results of XQuery
+                    if (!(node instanceof Node) && !(node instanceof StoreNodeInfo)) {
+                        res = l.load("<xml-fragment/>").tempCur();
+                        res.setValue(node.toString());
+                        SchemaType type = getType(node);
+                        Locale.autoTypeDocument(res, type, null);
+                        result[i] = res.getObject();
+                    } else {
+                        res = loadNode(l, node, options);
+                    }
                     result[i] = res.getObject();
-                } else {
-                    res = loadNode(l, (Node) node);
+                } catch (XmlException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    l.exit();
                 }
-                result[i] = res.getObject();
-            } catch (XmlException e) {
-                throw new RuntimeException(e);
-            } finally {
-                l.exit();
+                res.release();
             }
-            res.release();
+            return result;
+        } finally {
+            cur.release();
         }
-        release();
-        return result;
     }
 
     public XmlCursor cursorExecute(Cur c, XmlOptions options) {
-        _version = c.getLocale().version();
-        _cur = c.weakCur(this);
-        this._options = options;
-
-        Map<String, Object> bindings = XmlOptions.maskNull(_options).getXqueryVariables();
-        List<Object> resultsList = execQuery(_cur.getDom(), bindings);
+        Cur cur = c.weakCur(this);
+        try {
+            Map<String, Object> bindings = XmlOptions.maskNull(options).getXqueryVariables();
+            List<Object> resultsList = execQuery(cur, bindings);
 
-        int i;
+            int i;
 
-        Locale locale = Locale.getLocale(_cur.getLocale().getSchemaTypeLoader(), _options);
-        locale.enter();
-        Locale.LoadContext _context = new Cur.CurLoadContext(locale, _options);
-        Cursor resultCur = null;
-        try {
-            for (i = 0; i < resultsList.size(); i++) {
-                loadNodeHelper(locale, (Node) resultsList.get(i), _context);
+            Locale locale = Locale.getLocale(cur.getLocale().getSchemaTypeLoader(), options);
+            locale.enter();
+            Locale.LoadContext _context = new Cur.CurLoadContext(locale, options);
+            Cursor resultCur = null;
+            try {
+                for (i = 0; i < resultsList.size(); i++) {
+                    loadNodeHelper(locale, resultsList.get(i), _context);
+                }
+                Cur c2 = _context.finish();
+                Locale.associateSourceName(c, options);
+                Locale.autoTypeDocument(c, null, options);
+                resultCur = new Cursor(c2);
+            } catch (XmlException e) {
+                LOG.atInfo().withThrowable(e).log("Can't autotype document");
+            } finally {
+                locale.exit();
             }
-            Cur c2 = _context.finish();
-            Locale.associateSourceName(c, _options);
-            Locale.autoTypeDocument(c, null, _options);
-            resultCur = new Cursor(c2);
-        } catch (XmlException e) {
-            LOG.atInfo().withThrowable(e).log("Can't autotype document");
+            return resultCur;
         } finally {
-            locale.exit();
+            cur.release();
         }
-        release();
-        return resultCur;
     }
 
 
+    /**
+     * Executes the query.
+     *
+     * @param node the context node - either a store cursor, which is evaluated directly on the store,
+     *             or a DOM node
+     * @param variableBindings the external variables
+     * @return the query results, nodes of the store are returned as {@link StoreNodeInfo},
+     *         other nodes are converted to DOM nodes
+     */
     public List<Object> execQuery(Object node, Map<String,Object> variableBindings) {
         try {
-            Node contextNode = (Node) node;
-
-            Document dom = (contextNode.getNodeType() == Node.DOCUMENT_NODE)
-                ? (Document) contextNode : contextNode.getOwnerDocument();
-
-            DocumentWrapper docWrapper = new DocumentWrapper(dom, null, config);
-            NodeInfo root = docWrapper.wrap(contextNode);
+            NodeInfo root;
+            if (node instanceof Cur) {
+                root = StoreNodeInfo.wrap((Cur) node, config);
+            } else {
+                root = wrapDom((Node) node);
+            }
 
             NamespaceUri emptyUri = NamespaceUri.of("");
             DynamicQueryContext dc = new DynamicQueryContext(config);
@@ -189,8 +200,9 @@ public class SaxonXQuery implements XQuery {
                     StructuredQName key = new StructuredQName("", emptyUri, me.getKey());
                     Object value = me.getValue();
                     if (value instanceof XmlTokenSource) {
+                        // other documents are accessed via DOM, which takes care of their locking
                         Node paramObject = ((XmlTokenSource) value).getDomNode();
-                        dc.setParameter(key, docWrapper.wrap(paramObject));
+                        dc.setParameter(key, wrapDom(paramObject));
                     } else {
                         try {
                             dc.setParameter(key, objectToItem(value, config));
@@ -204,7 +216,7 @@ public class SaxonXQuery implements XQuery {
             List<Object> saxonNodes = xquery.evaluate(dc);
             for (ListIterator<Object> it = saxonNodes.listIterator(); it.hasNext(); ) {
                 Object o = it.next();
-                if (o instanceof NodeInfo) {
+                if (o instanceof NodeInfo && !(o instanceof StoreNodeInfo)) {
                     Node n = NodeOverNodeInfo.wrap((NodeInfo) o);
                     it.set(n);
                 }
@@ -216,6 +228,14 @@ public class SaxonXQuery implements XQuery {
     }
 
 
+    private NodeInfo wrapDom(Node node) {
+        Document dom = (node.getNodeType() == Node.DOCUMENT_NODE)
+            ? (Document) node : node.getOwnerDocument();
+
+        DocumentWrapper docWrapper = new DocumentWrapper(dom, null, config);
+        return docWrapper.wrap(node);
+    }
+
     private static Item objectToItem(Object value, Configuration config) throws XPathException, net.sf.saxon.trans.XPathException {
         if (value == null) {
             return null;
@@ -327,29 +347,33 @@ public class SaxonXQuery implements XQuery {
         return type;
     }
 
-    public void release() {
-        if (_cur != null) {
-            _cur.release();
-            _cur = null;
-        }
-    }
-
-
-    private Cur loadNode(Locale locale, Node node) {
-        Locale.LoadContext context = new Cur.CurLoadContext(locale, _options);
+    private Cur loadNode(Locale locale, Object node, XmlOptions options) {
+        Locale.LoadContext context = new Cur.CurLoadContext(locale, options);
 
         try {
             loadNodeHelper(locale, node, context);
             Cur c = context.finish();
-            Locale.associateSourceName(c, _options);
-            Locale.autoTypeDocument(c, null, _options);
+            Locale.associateSourceName(c, options);
+            Locale.autoTypeDocument(c, null, options);
             return c;
         } catch (Exception e) {
             throw new XmlRuntimeException(e.getMessage(), e);
         }
     }
 
-    private void loadNodeHelper(Locale locale, Node node, Locale.LoadContext context) {
+    private void loadNodeHelper(Locale locale, Object result, Locale.LoadContext context) {
+        if (result instanceof StoreNodeInfo) {
+            // nodes of the queried document are copied directly from the store
+            Cur pos = ((StoreNodeInfo) result).tempCur();
+            try {
+                locale.loadCur(pos, context);
+            } finally {
+                pos.release();
+            }
+            return;
+        }
+
+        Node node = (Node) result;
         if (node.getNodeType() == Node.ATTRIBUTE_NODE) {
             QName attName = new QName(node.getNamespaceURI(),
                 node.getLocalName(),
@@ -34,7 +34,7 @@ import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Collection;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ValidatingXMLStreamReaderTests {
     private final static String URI_NUMERALS = "http://openuri.org/testNumerals";
@@ -64,6 +64,39 @@ public class ValidatingXMLStreamReaderTests {
         assertTrue(valXsr.isValid(), "File '" + file.getName() + "' is invalid.");
     }
 
+    @Test
+    void testValidateCollapsedText() throws Exception {
+        String doc = "<doc xmlns='" + URI_NUMERALS + "'><int>\n  5\t</int><boolean> true </boolean>" +
+            "<dateTime>\r\n2001-01-01T00:00:00 </dateTime><string> a \n b </string></doc>";
+        Collection<XmlError> errors = new ArrayList<>();
+        assertTrue(validate(doc, errors), errors.toString());
+        assertTrue(errors.isEmpty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void testValidateInvalidContent(boolean withListener) throws Exception {
+        String doc = "<doc xmlns='" + URI_NUMERALS + "'><int>5</int><other/><int> 5 5 </int></doc>";
+        Collection<XmlError> errors = withListener ? new ArrayList<>() : null;
+        assertFalse(validate(doc, errors));
+        if (withListener) {
+            assertFalse(errors.isEmpty());
+        }
+    }
+
+    private static boolean validate(String doc, Collection<XmlError> errors) throws Exception {
+        XMLStreamReader xsr = XmlObject.Factory.parse(doc).newXMLStreamReader();
+        ValidatingXMLStreamReader valXsr = new ValidatingXMLStreamReader();
+        valXsr.init(xsr, true, null,
+            XmlBeans.typeLoaderForClassLoader(ValidatingXMLStreamReader.class.getClassLoader()),
+            null, errors);
+
+        while (valXsr.hasNext()) {
+            valXsr.next();
+        }
+        return valXsr.isValid();
+    }
+
     @Test
     void testValidateGlobalAtt1() throws XMLStreamException {
         XmlObject xo = XmlObject.Factory.newInstance();
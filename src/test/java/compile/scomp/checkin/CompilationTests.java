@@ -315,6 +315,42 @@ public class CompilationTests {
         assertTrue(outputjar.exists(), "Cannot find " + outputjar);
     }
 
+    @Test
+    void testPricequoteParallelInProcess() throws IOException {
+        deltree(xbeanOutput("compile/scomp/pricequoteSeq"));
+        deltree(xbeanOutput("compile/scomp/pricequotePar"));
+
+        File srcSeq = xbeanOutput("compile/scomp/pricequoteSeq/src");
+        Parameters params = new Parameters();
+        params.setXsdFiles(xbeanCase("pricequote/PriceQuote.xsd"));
+        params.setSrcDir(srcSeq);
+        params.setClassesDir(xbeanOutput("compile/scomp/pricequoteSeq/classes"));
+        params.setNojavac(true);
+        assertTrue(SchemaCompiler.compile(params), "Build failed " + fwroot);
+
+        File srcPar = xbeanOutput("compile/scomp/pricequotePar/src");
+        File outputjar = xbeanOutput("compile/scomp/pricequotePar/pricequote.jar");
+        params = new Parameters();
+        params.setXsdFiles(xbeanCase("pricequote/PriceQuote.xsd"));
+        params.setSrcDir(srcPar);
+        params.setClassesDir(xbeanOutput("compile/scomp/pricequotePar/classes"));
+        params.setOutputJar(outputjar);
+        params.setParallelism(4);
+        params.setJavacInProcess(true);
+        assertTrue(SchemaCompiler.compile(params), "Build failed " + fwroot);
+        assertTrue(outputjar.exists(), "Cannot find " + outputjar);
+
+        // the generated sources are the same
+        try (Stream<Path> files = Files.walk(srcSeq.toPath())) {
+            List<Path> sources = files.filter(Files::isRegularFile).collect(java.util.stream.Collectors.toList());
+            assertFalse(sources.isEmpty());
+            for (Path source : sources) {
+                Path other = srcPar.toPath().resolve(srcSeq.toPath().relativize(source));
+                assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(other), source.toString());
+            }
+        }
+    }
+
     @Test
     void testBase64Binary() {
         deltree(xbeanOutput("compile/scomp/base64Binary"));
@@ -353,6 +389,56 @@ public class CompilationTests {
         }
     }
 
+    @Test
+    void testParallelCompilation() throws XmlException {
+        // every other schema is invalid, the others have an invalid particle restriction
+        SchemaDocument[] schemas = new SchemaDocument[8];
+        for (int i = 0; i < schemas.length; i++) {
+            schemas[i] = SchemaDocument.Factory.parse(
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='urn:par" + i + "' xmlns:t='urn:par" + i + "'>\n" +
+                "  <xs:complexType name='base'>\n" +
+                "    <xs:sequence><xs:element name='a' type='xs:string'/></xs:sequence>\n" +
+                "  </xs:complexType>\n" +
+                "  <xs:complexType name='rest'>\n" +
+                "    <xs:complexContent>\n" +
+                "      <xs:restriction base='t:base'>\n" +
+                "        <xs:sequence><xs:element name='b' type='xs:string'/></xs:sequence>\n" +
+                "      </xs:restriction>\n" +
+                "    </xs:complexContent>\n" +
+                "  </xs:complexType>\n" +
+                "  <xs:element name='doc' type='t:base'" + (i % 2 == 0 ? "" : " invalid='true'") + "/>\n" +
+                "</xs:schema>\n");
+        }
+
+        List<String> sequential = compileErrors(schemas, 1);
+        assertTrue(sequential.size() >= schemas.length, sequential.toString());
+        assertEquals(sequential, compileErrors(schemas, 4));
+
+        // the valid schemas result in the same type system
+        SchemaDocument valid = SchemaDocument.Factory.parse(validSchemas[0]);
+        SchemaTypeSystem sts1 = XmlBeans.compileXsd(new XmlObject[]{valid}, XmlBeans.getBuiltinTypeSystem(),
+            new XmlOptions().setCompileParallelism(1));
+        SchemaTypeSystem sts4 = XmlBeans.compileXsd(new XmlObject[]{valid}, XmlBeans.getBuiltinTypeSystem(),
+            new XmlOptions().setCompileParallelism(4));
+        assertEquals(sts1.getName(), sts4.getName());
+        assertEquals(sts1.globalTypes().length, sts4.globalTypes().length);
+        for (int i = 0; i < sts1.globalTypes().length; i++) {
+            assertEquals(sts1.globalTypes()[i].getName(), sts4.globalTypes()[i].getName());
+            assertEquals(sts1.globalTypes()[i].getFullJavaName(), sts4.globalTypes()[i].getFullJavaName());
+        }
+    }
+
+    private static List<String> compileErrors(SchemaDocument[] schemas, int parallelism) {
+        List<XmlError> errors = new ArrayList<>();
+        XmlOptions options = new XmlOptions().setErrorListener(errors).setCompileParallelism(parallelism);
+        assertThrows(XmlException.class, () -> XmlBeans.compileXsd(schemas, XmlBeans.getBuiltinTypeSystem(), options));
+        List<String> messages = new ArrayList<>();
+        for (XmlError error : errors) {
+            messages.add(error.toString());
+        }
+        return messages;
+    }
+
     @Test
     void partials() throws InterruptedException, IOException {
         String[] files = {"partials/RootDocument.java", "partials/impl/RootDocumentImpl.java"};
@@ -17,13 +17,16 @@ package compile.scomp.checkin;
 import compile.scomp.common.mockobj.TestFiler;
 import org.apache.xmlbeans.*;
 import org.apache.xmlbeans.impl.schema.SchemaTypeSystemImpl;
+import org.apache.xmlbeans.impl.schema.XsbArchive;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import javax.xml.namespace.QName;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import static common.Common.OUTPUTROOT;
@@ -86,6 +89,40 @@ public class XmlBeansCompCheckinTests {
         MatcherAssert.assertThat(f.getSrcFileVec(), is(expSrcType));
     }
 
+    @Test
+    void test_Filer_archive() throws Exception {
+        XmlObject obj1 = XmlObject.Factory.parse(FOR_XSD);
+        XmlObject[] schemas = new XmlObject[]{obj1};
+
+        TestFiler f = new TestFiler();
+        xm_opts.setCompileXsbArchive();
+        XmlBeans.compileXmlBeans("apiArchive", null, schemas, null, XmlBeans.getBuiltinTypeSystem(), f, xm_opts);
+
+        String base = "org/apache/xmlbeans/metadata/system/apiArchive/";
+        List<String> components = new ArrayList<>();
+        for (String bin : f.getBinFileVec()) {
+            if (bin.startsWith(base)) {
+                components.add(bin);
+            }
+        }
+        // the components and the index are packed, the pointers are still saved individually
+        assertEquals(Arrays.asList(base + XsbArchive.ARCHIVE_NAME), components);
+        assertTrue(f.getBinFileVec().contains("org/apache/xmlbeans/metadata/element/http_3A_2F_2Fbaz/elName.xsb"));
+
+        File classes = new File(OUTPUTROOT, "filer" + File.separator + "classes");
+        XsbArchive archive = XsbArchive.map(new File(classes, base + XsbArchive.ARCHIVE_NAME).toPath());
+        MatcherAssert.assertThat(archive.getHandles(), is(new HashSet<>(Arrays.asList(
+            "atypedb57type", "elname429edoctype", "elnameelement", "index"))));
+        assertEquals(SchemaTypeSystemImpl.DATA_BABE, archive.getBuffer("index").getInt());
+        assertNull(archive.getBuffer("missing"));
+
+        SchemaTypeLoader stl = XmlBeans.typeLoaderForResource(XmlBeans.resourceLoaderForPath(new File[]{classes}));
+        SchemaGlobalElement elt = stl.findElement(new QName("http://baz", "elName"));
+        assertNotNull(elt);
+        assertEquals(new QName("http://baz", "aType"), elt.getType().getName());
+        assertNotNull(stl.findType(new QName("http://baz", "aType")));
+    }
+
     /**
      * Verify Partial SOM cannot be saved to file system
      */
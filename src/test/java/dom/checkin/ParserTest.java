@@ -16,6 +16,8 @@
 
 package dom.checkin;
 
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
 import org.apache.xmlbeans.XmlOptions;
 import org.apache.xmlbeans.impl.common.DocumentHelper;
 import org.apache.xmlbeans.impl.common.SAXHelper;
@@ -117,6 +119,33 @@ public class ParserTest {
         assertThrows(SAXException.class, () -> reader.parse(is));
     }
 
+    @Test
+    void testReaderProfile() {
+        XmlOptions options = new XmlOptions();
+        String defaultProfile = SAXHelper.readerProfile(options);
+        assertEquals(defaultProfile, SAXHelper.readerProfile(new XmlOptions()));
+        options.setDisallowDocTypeDeclaration(true);
+        assertNotEquals(defaultProfile, SAXHelper.readerProfile(options));
+        assertNotEquals(defaultProfile, SAXHelper.readerProfile(new XmlOptions().setEntityExpansionLimit(1)));
+    }
+
+    @Test
+    void testPooledLoaderKeepsOptions() throws Exception {
+        String xmlWithDtd = "<!DOCTYPE foo [<!ELEMENT t ANY><!ENTITY xe \"TEST XXE\"> ]>\n<xml>&xe;</xml>";
+        XmlOptions disallow = new XmlOptions();
+        disallow.setDisallowDocTypeDeclaration(true);
+        XmlOptions smallEntities = new XmlOptions();
+        smallEntities.setLoadEntityBytesLimit(2);
+
+        // alternate the settings, so that pooled loaders are reused with different options
+        for (int i = 0; i < 3; i++) {
+            assertTrue(XmlObject.Factory.parse(xmlWithDtd).xmlText().contains("TEST XXE"));
+            assertThrows(XmlException.class, () -> XmlObject.Factory.parse(xmlWithDtd, disallow));
+            assertThrows(XmlException.class, () -> XmlObject.Factory.parse(xmlWithDtd, smallEntities));
+            assertEquals("<xml/>", XmlObject.Factory.parse("<xml/>").xmlText());
+        }
+    }
+
     @Test
     void testDocumentBuilder() throws Exception {
         XmlOptions options = new XmlOptions();
@@ -15,8 +15,14 @@
 
 package misc.checkin;
 
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
 import org.apache.xmlbeans.impl.store.CharUtil;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import tools.util.JarUtil;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +30,9 @@ import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CharUtilTests {
     private static class Triple {
@@ -44,11 +53,12 @@ public class CharUtilTests {
         return n == 0 ? ' ' : (char) ('a' + n - 1);
     }
 
-    private String randomString() {
+    private String randomString(boolean wide) {
         StringBuilder sb = new StringBuilder();
 
         for (int i = rnd(128); i >= 0; i--) {
-            sb.append(randomChar());
+            // mix in Latin-1 and wider chars
+            sb.append(wide && rnd(17) == 0 ? (rnd(3) == 0 ? '\u20ac' : '\u00e9') : randomChar());
         }
 
         return sb.toString();
@@ -71,9 +81,22 @@ public class CharUtilTests {
     private static class RealCharUtil implements CharUtilTest {
         final List<Triple> _triples = new ArrayList<>();
         final CharUtil _cu = new CharUtil(1024);
+        final boolean _compact;
+
+        RealCharUtil(boolean compact) {
+            _compact = compact;
+        }
 
         public void newText(String s) {
-            _triples.add(new Triple(s, 0, s.length()));
+            if (_compact) {
+                // save the text in chunks, like the parser does
+                int half = s.length() / 2;
+                Object src = _cu.saveChars(s, 0, half, null, 0, 0, true);
+                src = _cu.saveChars(s, half, s.length() - half, src, _cu._offSrc, _cu._cchSrc, true);
+                _triples.add(new Triple(src, _cu._offSrc, _cu._cchSrc));
+            } else {
+                _triples.add(new Triple(s, 0, s.length()));
+            }
         }
 
         public int numTexts() {
@@ -142,15 +165,16 @@ public class CharUtilTests {
         }
     }
 
-    @Test
-    void testCharUtil() throws Exception {
-        RealCharUtil real = new RealCharUtil();
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testCharUtil(boolean compact) throws Exception {
+        RealCharUtil real = new RealCharUtil(compact);
         FakeCharUtil fake = new FakeCharUtil();
 
         for (int iter = 0; iter < 5000; iter++) {
             switch (rnd(4)) {
                 case 0: {
-                    String s = randomString();
+                    String s = randomString(compact);
 
                     real.newText(s);
                     fake.newText(s);
@@ -208,4 +232,49 @@ public class CharUtilTests {
         CharUtil.clearThreadLocals();
         assertNotNull(CharUtil.getThreadLocalCharUtil(), "Should always get a CharUtil from ThreadLocals");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCompactText() throws Exception {
+        CharUtil cu = new CharUtil(16);
+
+        Object src = cu.saveChars("abc \u00e9\u00ff", 0, 6, null, 0, 0, true);
+        assertTrue(src instanceof byte[]);
+        assertEquals("abc \u00e9\u00ff", CharUtil.getString(src, cu._offSrc, cu._cchSrc));
+        assertEquals("c \u00e9", CharUtil.getString(src, cu._offSrc + 2, 3));
+
+        // the appended chars are adjacent in the same block
+        Object next = cu.saveChars("xyz", 0, 3, src, cu._offSrc, cu._cchSrc, true);
+        assertSame(src, next);
+        assertEquals("abc \u00e9\u00ffxyz", CharUtil.getString(next, cu._offSrc, cu._cchSrc));
+
+        Object wide = cu.saveChars("\u20ac 1", 0, 3, null, 0, 0, true);
+        assertTrue(wide instanceof char[]);
+        assertEquals("\u20ac 1", CharUtil.getString(wide, cu._offSrc, cu._cchSrc));
+
+        Object blank = cu.saveChars(" \t\n", 0, 3, null, 0, 0, true);
+        assertTrue(cu.isWhiteSpace(blank, cu._offSrc, cu._cchSrc));
+        assertNull(cu.stripLeft(blank, cu._offSrc, cu._cchSrc));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xbean/xmlcursor/CarLocationMessage.xml", "xbean/xmlobject/easypo1.xml"})
+    void testCompactDocument(String resource) throws Exception {
+        XmlObject expected = XmlObject.Factory.parse(JarUtil.getResourceFromJar(resource));
+        XmlObject compact = XmlObject.Factory.parse(JarUtil.getResourceFromJar(resource),
+            new XmlOptions().setLoadCompactText());
+
+        assertEquals(expected.xmlText(), compact.xmlText());
+        assertTrue(expected.valueEquals(compact));
+
+        // text with chars beyond Latin-1 is kept in chars
+        try (XmlCursor c = compact.newCursor()) {
+            c.toFirstChild();
+            c.toFirstContentToken();
+            c.insertChars("\u00e9\u20ac");
+        }
+        try (XmlCursor c = compact.newCursor()) {
+            c.toFirstChild();
+            assertTrue(c.getTextValue().contains("\u00e9\u20ac"));
+        }
+    }
+}
@@ -15,11 +15,21 @@
 
 package misc.checkin;
 
+import org.apache.xmlbeans.impl.regex.Match;
 import org.apache.xmlbeans.impl.regex.RegularExpression;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RegularExpressionTest {
@@ -31,6 +41,60 @@ public class RegularExpressionTest {
         assertTrue(regex.matches(rnd));
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "[A-Z0-9]+", "\\d{3}-\\d{4}", "(ab|a)*b?c", "[a-z]{1,5}(\\.[a-z]{1,5})*", "\\i\\c*",
+        "x?y{2,3}z*", "[^abc]+", "\\p{L}+\\p{Nd}*", ".*", "(foo|bar|baz){1,3}", "(|a)b", "[\u00e9a-c]{0,4}"
+    })
+    void testSchemaPatternTable(String pattern) {
+        // a Match instance forces the backtracking matcher
+        RegularExpression regex = new RegularExpression(pattern, "X");
+        String chars = "abcxyz019.-+@ AZ\u00e9\n\uD83D\uDE00";
+        Random r = new Random(pattern.hashCode());
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = r.nextInt(10); j > 0; j--) {
+                sb.append(chars.charAt(r.nextInt(chars.length())));
+            }
+            String s = sb.toString();
+            assertEquals(regex.matches(s, new Match()), regex.matches(s), pattern + " / " + s);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "x{0}", "a{0}", "()", "(x{0})"})
+    void testEmptyFlow(String pattern) {
+        RegularExpression regex = new RegularExpression(pattern, "X");
+        assertTrue(regex.matches(""));
+        assertFalse(regex.matches("x"));
+        assertTrue(regex.matches("", new Match()));
+    }
+
+    @Test
+    void testConcurrentMatching() throws Exception {
+        RegularExpression regex = new RegularExpression("[a-z]{1,5}(\\.[a-z]{1,5})*", "X");
+        RegularExpression backtracking = new RegularExpression("(a+)+b\\1", "");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        assertTrue(regex.matches("abc.de.f"));
+                        assertFalse(regex.matches("abc..de"));
+                        assertTrue(backtracking.matches("aaabaaa"));
+                        assertFalse(backtracking.matches("aaac"));
+                    }
+                }));
+            }
+            for (Future<?> f : results) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
 
     private static final String AB = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
     private static final Random rnd = new Random();
@@ -15,14 +15,36 @@
 
 package misc.checkin;
 
+import com.easypo.XmlPurchaseOrderDocumentBean;
+import com.easypo.XmlPurchaseOrderDocumentBean.PurchaseOrder;
+import org.apache.xmlbeans.FilterXmlObject;
+import org.apache.xmlbeans.SchemaType;
 import org.apache.xmlbeans.SchemaTypeLoader;
+import org.apache.xmlbeans.SchemaTypeSystem;
+import org.apache.xmlbeans.ThreadLocalUtil;
 import org.apache.xmlbeans.XmlBeans;
+import org.apache.xmlbeans.XmlCursor;
 import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.apache.xmlbeans.impl.common.GlobalLock;
+import org.apache.xmlbeans.impl.schema.SchemaTypeSystemImpl;
+import org.apache.xmlbeans.impl.util.FilerImpl;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import tools.util.JarUtil;
 
 import javax.xml.namespace.QName;
 import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static xmlcursor.common.BasicCursorTestCase.jobj;
@@ -84,5 +106,244 @@ public class ThreadingTest {
             assertTrue(threads[i].getResult(), "Thread " + i + " didn't succeed");
         }
     }
-}
 
+    @Test
+    void testCrossDocumentCopies() {
+        XmlObject[] docs = new XmlObject[2];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = XmlObject.Factory.newInstance();
+            try (XmlCursor c = docs[i].newCursor()) {
+                c.toNextToken();
+                c.beginElement("doc");
+                c.insertElementWithText("item", "doc" + i);
+                // each thread copies into its own slot of the target document
+                for (int t = 0; t < THREAD_COUNT; t++) {
+                    c.insertElement("slot" + t);
+                }
+            }
+        }
+
+        long fallbacks = GlobalLock.getFallbackCount();
+
+        // half of the threads copy from the first to the second document, the other half
+        // the other way round, so the locks of the same documents are requested in opposite orders
+        assertTimeoutPreemptively(Duration.ofMinutes(1), () -> {
+            ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int i = 0; i < THREAD_COUNT; i++) {
+                    XmlObject source = docs[i % 2];
+                    XmlObject target = docs[(i + 1) % 2];
+                    String slot = "slot" + i;
+                    results.add(pool.submit(() -> {
+                        for (int j = 0; j < 2000; j++) {
+                            try (XmlCursor from = source.newCursor(); XmlCursor to = target.newCursor()) {
+                                assertTrue(from.toFirstChild());
+                                assertTrue(from.toChild("item"));
+                                assertTrue(to.toFirstChild());
+                                assertTrue(to.toChild(slot));
+                                to.toEndToken();
+                                from.copyXml(to);
+
+                                // remove the copy again, so the documents don't grow
+                                to.toStartDoc();
+                                assertTrue(to.toFirstChild());
+                                assertTrue(to.toChild(slot));
+                                assertTrue(to.toFirstChild());
+                                assertTrue(to.removeXml());
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> f : results) {
+                    f.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        });
+
+        for (int i = 0; i < docs.length; i++) {
+            try (XmlCursor c = docs[i].newCursor()) {
+                assertTrue(c.toFirstChild());
+                assertTrue(c.toFirstChild());
+                assertEquals("doc" + i, c.getTextValue());
+                while (c.toNextSibling()) {
+                    assertFalse(c.toFirstChild(), "copies left in " + c.getName());
+                }
+            }
+        }
+
+        // the documents have different lock orders, so the global lock isn't needed
+        assertEquals(fallbacks, GlobalLock.getFallbackCount());
+        assertTrue(GlobalLock.getOrderedCount() > 0);
+    }
+
+    @Test
+    void testSharedContextTypeLoader() throws Exception {
+        SchemaTypeLoader loader = XmlBeans.getContextTypeLoader();
+
+        // new threads with the same context class loader don't build their own type loader
+        ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<SchemaTypeLoader>> results = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                results.add(pool.submit(() -> {
+                    Thread.currentThread().setContextClassLoader(ThreadingTest.class.getClassLoader());
+                    return XmlBeans.getContextTypeLoader();
+                }));
+            }
+            SchemaTypeLoader first = results.get(0).get();
+            for (Future<SchemaTypeLoader> f : results) {
+                assertSame(first, f.get());
+            }
+            if (Thread.currentThread().getContextClassLoader() == ThreadingTest.class.getClassLoader()) {
+                assertSame(loader, first);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // the shared cache releases the loader of the context class loader with the thread locals
+        ThreadLocalUtil.clearAllThreadLocals();
+        SchemaTypeLoader reloaded = XmlBeans.getContextTypeLoader();
+        assertNotSame(loader, reloaded);
+        assertSame(reloaded, XmlBeans.getContextTypeLoader());
+    }
+
+    /**
+     * Compiles a small schema into the directory and returns a new loader for it.
+     * The loader reads the type system again, so none of its handles are resolved yet.
+     */
+    private static SchemaTypeLoader compileToDirectory(Path dir) throws Exception {
+        XmlObject xsd = XmlObject.Factory.parse(
+            "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' xmlns:t='urn:threading' targetNamespace='urn:threading'>" +
+            "<xs:complexType name='item'><xs:sequence><xs:element name='name' type='xs:string'/></xs:sequence></xs:complexType>" +
+            "<xs:element name='items'><xs:complexType><xs:sequence>" +
+            "<xs:element name='item' type='t:item' maxOccurs='unbounded'/>" +
+            "</xs:sequence></xs:complexType></xs:element>" +
+            "</xs:schema>");
+        SchemaTypeSystem sts = XmlBeans.compileXsd(new XmlObject[]{xsd}, XmlBeans.getBuiltinTypeSystem(), null);
+        sts.save(new FilerImpl(dir.toFile(), null, null, false, false));
+
+        return XmlBeans.typeLoaderForResource(XmlBeans.resourceLoaderForPath(new File[]{dir.toFile()}));
+    }
+
+    @Test
+    void testConcurrentHandleResolution(@TempDir Path dir) throws Exception {
+        SchemaTypeLoader loader = compileToDirectory(dir);
+        QName itemName = new QName("urn:threading", "item");
+        QName itemsName = new QName("urn:threading", "items");
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<SchemaType[]>> results = new ArrayList<>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    SchemaType items = loader.findElement(itemsName).getType();
+                    return new SchemaType[]{
+                        loader.findType(itemName), items, items.getElementProperty(new QName("item")).getType()
+                    };
+                }));
+            }
+            start.countDown();
+
+            SchemaType[] first = results.get(0).get();
+            assertNotNull(first[0]);
+            assertSame(first[0], first[2]);
+            for (Future<SchemaType[]> f : results) {
+                SchemaType[] types = f.get();
+                for (int i = 0; i < types.length; i++) {
+                    assertSame(first[i], types[i]);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelWarmUp(@TempDir Path dir) throws Exception {
+        SchemaTypeLoader loader = compileToDirectory(dir);
+        SchemaTypeSystemImpl sts = (SchemaTypeSystemImpl)
+            loader.findElement(new QName("urn:threading", "items")).getTypeSystem();
+
+        // the global and local types, the element and the document type
+        ForkJoinPool pool = new ForkJoinPool(THREAD_COUNT);
+        try {
+            assertTrue(sts.warmUp(pool) >= 3);
+            assertEquals(0, sts.warmUp(pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertSame(sts, loader.findType(new QName("urn:threading", "item")).getTypeSystem());
+    }
+
+    @Test
+    void testFrozenDocument() throws Exception {
+        XmlPurchaseOrderDocumentBean doc = (XmlPurchaseOrderDocumentBean)
+            jobj("xbean/xmlobject/easypo1.xml", new XmlOptions().setLoadFrozen());
+        assertTrue(doc.isFrozen());
+
+        PurchaseOrder order = doc.getPurchaseOrder();
+        assertTrue(order.isFrozen());
+        assertThrows(IllegalStateException.class, () -> order.getCustomer().setName("x"));
+        assertThrows(IllegalStateException.class, order::addNewLineItem);
+        try (XmlCursor c = order.newCursor()) {
+            assertTrue(c.toFirstChild());
+            assertThrows(IllegalStateException.class, () -> c.setTextValue("x"));
+            assertThrows(IllegalStateException.class, c::removeXml);
+        }
+        assertEquals("David Bau", order.getCustomer().getName());
+
+        // a frozen document can't host new documents
+        XmlOptions sameLocale = new XmlOptions().setUseSameLocale(doc);
+        assertThrows(IllegalArgumentException.class, () -> XmlObject.Factory.newInstance(sameLocale));
+
+        // the monitor of a frozen document is still its locale, also through a delegate
+        FilterXmlObject filter = new FilterXmlObject() {
+            @Override
+            public XmlObject underlyingXmlObject() {
+                return doc;
+            }
+        };
+        assertSame(doc.monitor(), filter.monitor());
+        assertSame(doc.monitor(), order.monitor());
+        XmlOptions filterLocale = new XmlOptions().setUseSameLocale(filter);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> XmlObject.Factory.newInstance(filterLocale));
+        assertEquals("Source locale is frozen", e.getMessage());
+
+        assertTimeoutPreemptively(Duration.ofMinutes(1), () -> {
+            ExecutorService pool = Executors.newFixedThreadPool(THREAD_COUNT);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int i = 0; i < THREAD_COUNT; i++) {
+                    results.add(pool.submit(() -> {
+                        for (int j = 0; j < 2000; j++) {
+                            PurchaseOrder po = doc.getPurchaseOrder();
+                            assertEquals(3, po.sizeOfLineItemArray());
+                            assertEquals("Burnham's Celestial Handbook, Vol 2", po.getLineItemArray(1).getDescription());
+                            assertEquals(new BigDecimal("19.89"), po.getLineItemArray(2).getPrice());
+                            assertEquals("UPS", po.getShipper().getName());
+                            if (j % 100 == 0) {
+                                // cursors are serialized by the document lock
+                                try (XmlCursor c = po.newCursor()) {
+                                    assertTrue(c.toFirstChild());
+                                    assertEquals("customer", c.getName().getLocalPart());
+                                }
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> f : results) {
+                    f.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        });
+    }
+}
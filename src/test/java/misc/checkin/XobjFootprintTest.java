@@ -0,0 +1,121 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package misc.checkin;
+
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.impl.values.XmlObjectBase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.lang.reflect.Field;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xmlcursor.common.BasicCursorTestCase.jobj;
+
+/**
+ * Checks that the rarely used parts of the store nodes (embedded cursors, bookmarks, DOM text nodes)
+ * are only allocated while they are in use. The shallow node sizes are measured with JOL.
+ * The nodes are package private, so their links are read via reflection.
+ */
+public class XobjFootprintTest {
+
+    private static Field firstChild;
+    private static Field nextSibling;
+    private static Field parent;
+    private static Field ext;
+    private static long extSize;
+
+    private static class Mark extends XmlCursor.XmlBookmark {
+    }
+
+    @BeforeAll
+    static void initFields() throws Exception {
+        Class<?> xobj = Class.forName("org.apache.xmlbeans.impl.store.Xobj");
+        firstChild = field(xobj, "_firstChild");
+        nextSibling = field(xobj, "_nextSibling");
+        parent = field(xobj, "_parent");
+        ext = field(xobj, "_ext");
+        extSize = ClassLayout.parseClass(Class.forName("org.apache.xmlbeans.impl.store.Xobj$Ext")).instanceSize();
+    }
+
+    private static Field field(Class<?> clazz, String name) throws NoSuchFieldException {
+        Field f = clazz.getDeclaredField(name);
+        f.setAccessible(true);
+        return f;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xbean/xmlcursor/CarLocationMessage.xml", "xbean/xmlobject/easypo1.xml"})
+    void extensionsReleased(String resource) throws Exception {
+        XmlObject doc = jobj(resource);
+        Object root = ((XmlObjectBase) doc).get_store();
+
+        long[] compact = footprint(root);
+        assertTrue(compact[0] > 0);
+        assertEquals(0, compact[2], "no extension expected after parsing");
+
+        // bookmark every token, then remove the bookmarks again
+        try (XmlCursor c = doc.newCursor()) {
+            do {
+                c.setBookmark(new Mark());
+            } while (c.toNextToken() != XmlCursor.TokenType.NONE);
+
+            assertTrue(footprint(root)[2] > 0);
+
+            c.toStartDoc();
+            do {
+                c.clearBookmark(Mark.class);
+            } while (c.toNextToken() != XmlCursor.TokenType.NONE);
+        }
+
+        long[] after = footprint(root);
+        assertEquals(0, after[2], "extensions should be released with the last bookmark");
+        assertEquals(compact[1], after[1]);
+    }
+
+    /**
+     * @return the number of nodes, their shallow size including the extensions and the number of extensions
+     */
+    private static long[] footprint(Object root) throws IllegalAccessException {
+        long[] res = new long[3];
+        for (Object x = root; x != null; x = next(x, root)) {
+            res[0]++;
+            res[1] += ClassLayout.parseClass(x.getClass()).instanceSize();
+            if (ext.get(x) != null) {
+                res[1] += extSize;
+                res[2]++;
+            }
+        }
+        return res;
+    }
+
+    private static Object next(Object x, Object root) throws IllegalAccessException {
+        Object child = firstChild.get(x);
+        if (child != null) {
+            return child;
+        }
+        for (; x != root; x = parent.get(x)) {
+            Object sibling = nextSibling.get(x);
+            if (sibling != null) {
+                return sibling;
+            }
+        }
+        return null;
+    }
+}
@@ -16,12 +16,19 @@
 
 package misc.detailed;
 
+import org.apache.xmlbeans.SchemaTypeLoader;
+import org.apache.xmlbeans.XmlBeans;
+import org.apache.xmlbeans.XmlString;
 import org.apache.xmlbeans.impl.common.SystemCache;
+import org.apache.xmlbeans.impl.schema.SchemaTypeLoaderImpl;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import javax.xml.namespace.QName;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class SystemCacheTests {
     @Test
@@ -62,4 +69,24 @@ public class SystemCacheTests {
         cache.setSaxLoader(saxLoader);
         assertEquals(saxLoader, cache.getSaxLoader());
     }
+
+    @Test
+    void testTypeLoaderCacheStatistics() {
+        SchemaTypeLoaderImpl stl = (SchemaTypeLoaderImpl) SchemaTypeLoaderImpl.build(
+            new SchemaTypeLoader[]{XmlBeans.getBuiltinTypeSystem()}, null, SystemCacheTests.class.getClassLoader());
+        assertEquals(0, stl.getCacheSize());
+
+        // lookups of unknown names are cached as negative entries
+        QName unknown = new QName("urn:unknown", "unknown");
+        assertNull(stl.findElement(unknown));
+        assertNull(stl.findElement(unknown));
+        assertEquals(1, stl.getCacheMisses());
+        assertEquals(1, stl.getCacheNegativeHits());
+
+        assertSame(XmlString.type, stl.findType(XmlString.type.getName()));
+        assertSame(XmlString.type, stl.findType(XmlString.type.getName()));
+        assertEquals(2, stl.getCacheMisses());
+        assertEquals(1, stl.getCacheHits());
+        assertEquals(2, stl.getCacheSize());
+    }
 }
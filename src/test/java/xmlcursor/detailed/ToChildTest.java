@@ -18,6 +18,8 @@ package xmlcursor.detailed;
 
 import org.apache.xmlbeans.XmlCursor;
 import org.apache.xmlbeans.XmlCursor.TokenType;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
 import org.junit.jupiter.api.Test;
 
 import javax.xml.namespace.QName;
@@ -276,4 +278,88 @@ public class ToChildTest {
 			assertEquals(sExpectedValue, m_xc.xmlText());
 		}
 	}
+
+	@Test
+	void testToChildIndexed() throws Exception {
+		StringBuilder sb = new StringBuilder("<foo>");
+		for (int i = 0; i < 20; i++) {
+			sb.append("<bar>").append(i).append("</bar><baz/>");
+		}
+		sb.append("</foo>");
+
+		XmlOptions opts = new XmlOptions().setChildIndexThreshold(4);
+		XmlObject xo = XmlObject.Factory.parse(sb.toString(), opts);
+		QName bar = new QName("bar");
+
+		try (XmlCursor m_xc = xo.newCursor()) {
+			m_xc.toFirstChild();
+			// positions beyond the threshold build the index
+			assertTrue(m_xc.toChild(bar, 15));
+			assertEquals("15", m_xc.getTextValue());
+			m_xc.toParent();
+			assertTrue(m_xc.toChild(bar, 3));
+			assertEquals("3", m_xc.getTextValue());
+			m_xc.toParent();
+			assertFalse(m_xc.toChild(bar, 20));
+			assertTrue(m_xc.toChild(39));
+			assertEquals("baz", m_xc.getName().getLocalPart());
+
+			// structural changes invalidate the index
+			m_xc.toParent();
+			assertTrue(m_xc.toChild(bar, 0));
+			m_xc.removeXml();
+			m_xc.toParent();
+			assertTrue(m_xc.toChild(bar, 15));
+			assertEquals("16", m_xc.getTextValue());
+			m_xc.toParent();
+			assertFalse(m_xc.toChild(bar, 19));
+
+			m_xc.toEndToken();
+			m_xc.insertElementWithText("bar", "new");
+			m_xc.toParent();
+			assertTrue(m_xc.toChild(bar, 19));
+			assertEquals("new", m_xc.getTextValue());
+		}
+	}
+
+	@Test
+	void testToChildIndexedAlternating() throws Exception {
+		StringBuilder sb = new StringBuilder("<foo>");
+		for (String parent : new String[]{"a", "b"}) {
+			sb.append("<").append(parent).append(">");
+			for (int i = 0; i < 20; i++) {
+				sb.append("<bar>").append(parent).append(i).append("</bar>");
+			}
+			sb.append("</").append(parent).append(">");
+		}
+		sb.append("</foo>");
+
+		XmlOptions opts = new XmlOptions().setChildIndexThreshold(4);
+		XmlObject xo = XmlObject.Factory.parse(sb.toString(), opts);
+		QName bar = new QName("bar");
+
+		// both parents keep their index, while the children are accessed in turns
+		try (XmlCursor a = xo.newCursor(); XmlCursor b = xo.newCursor()) {
+			a.toFirstChild();
+			a.toFirstChild();
+			b.toFirstChild();
+			b.toLastChild();
+			for (int i = 19; i >= 0; i--) {
+				assertTrue(a.toChild(bar, i));
+				assertEquals("a" + i, a.getTextValue());
+				a.toParent();
+				assertTrue(b.toChild(bar, i));
+				assertEquals("b" + i, b.getTextValue());
+				b.toParent();
+			}
+
+			a.toFirstChild();
+			a.removeXml();
+			assertTrue(b.toChild(bar, 19));
+			assertEquals("b19", b.getTextValue());
+			assertTrue(a.toParent());
+			assertTrue(a.toChild(bar, 18));
+			assertEquals("a19", a.getTextValue());
+		}
+	}
 }
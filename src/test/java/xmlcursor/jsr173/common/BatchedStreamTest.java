@@ -0,0 +1,198 @@
+/*   Copyright 2004 The Apache Software Foundation
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package xmlcursor.jsr173.common;
+
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ConcurrentModificationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static xmlcursor.common.BasicCursorTestCase.jobj;
+
+/**
+ * Compares the batched stream reader with the event by event reader
+ */
+public class BatchedStreamTest {
+
+    private static XmlCursor cur() {
+        XmlCursor cur = XmlObject.Factory.newInstance().newCursor();
+        cur.toNextToken();
+
+        cur.insertComment(" some comment ");
+        cur.beginElement(new QName("foo.org", "foo", ""));
+        cur.insertNamespace("pre", "foons.bar.org");
+        cur.insertAttributeWithValue(new QName("foons.bar.org", "at0", "pre"), "val0");
+        cur.insertAttributeWithValue("at1", "val1");
+        cur.insertChars("some text");
+        cur.insertElementWithText("foo2", "more text");
+        cur.toNextToken();
+        cur.insertProcInst("xml-stylesheet", "http://foobar");
+        cur.insertChars("\t");
+        cur.toStartDoc();
+
+        return cur;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 64})
+    void testSameEvents(int batchSize) throws Exception {
+        try (XmlCursor cur = cur()) {
+            XMLStreamReader expected = cur.newXMLStreamReader();
+            XMLStreamReader actual = cur.newXMLStreamReader(new XmlOptions().setStreamBatchSize(batchSize));
+            assertSameEvents(expected, actual);
+        }
+
+        XmlObject po = jobj("xbean/xmlobject/easypo1.xml");
+        assertSameEvents(po.newXMLStreamReader(), po.newXMLStreamReader(new XmlOptions().setStreamBatchSize(batchSize)));
+    }
+
+    @Test
+    void testAccessors() throws Exception {
+        try (XmlCursor cur = cur()) {
+            XMLStreamReader xs = cur.newXMLStreamReader(new XmlOptions().setStreamBatchSize(2));
+
+            assertEquals(XMLStreamConstants.START_DOCUMENT, xs.getEventType());
+            assertThrows(IllegalStateException.class, xs::getTextLength);
+            assertThrows(IllegalStateException.class, xs::getName);
+
+            assertEquals(XMLStreamConstants.COMMENT, xs.next());
+            assertEquals(" some comment ", text(xs));
+
+            assertEquals(XMLStreamConstants.START_ELEMENT, xs.next());
+            assertEquals(new QName("foo.org", "foo"), xs.getName());
+            assertEquals(2, xs.getAttributeCount());
+            assertEquals("val0", xs.getAttributeValue("foons.bar.org", "at0"));
+            assertEquals("val1", xs.getAttributeValue("", "at1"));
+            assertNull(xs.getAttributeValue("", "at0"));
+            assertThrows(IndexOutOfBoundsException.class, () -> xs.getAttributeName(2));
+            assertEquals(1, xs.getNamespaceCount());
+            assertEquals("pre", xs.getNamespacePrefix(0));
+            assertEquals("foons.bar.org", xs.getNamespaceURI(0));
+
+            // resolved at the position of the current event
+            assertEquals("foons.bar.org", xs.getNamespaceURI("pre"));
+            assertEquals("foons.bar.org", xs.getNamespaceContext().getNamespaceURI("pre"));
+
+            assertEquals(XMLStreamConstants.CHARACTERS, xs.next());
+            assertEquals("some text", xs.getText());
+            char[] buf = new char[4];
+            assertEquals(4, xs.getTextCharacters(5, buf, 0, 4));
+            assertEquals("text", new String(buf));
+            assertFalse(xs.isWhiteSpace());
+
+            assertEquals(XMLStreamConstants.START_ELEMENT, xs.next());
+            assertEquals("more text", xs.getElementText());
+            assertEquals(XMLStreamConstants.END_ELEMENT, xs.getEventType());
+
+            assertEquals(XMLStreamConstants.END_ELEMENT, xs.next());
+            assertEquals("foo", xs.getLocalName());
+            assertEquals(1, xs.getNamespaceCount());
+            assertThrows(IllegalStateException.class, xs::getAttributeCount);
+
+            assertEquals(XMLStreamConstants.PROCESSING_INSTRUCTION, xs.next());
+            assertEquals("xml-stylesheet", xs.getPITarget());
+            assertEquals("http://foobar", xs.getPIData());
+
+            assertEquals(XMLStreamConstants.CHARACTERS, xs.next());
+            assertTrue(xs.isWhiteSpace());
+
+            assertEquals(XMLStreamConstants.END_DOCUMENT, xs.next());
+            assertFalse(xs.hasNext());
+            assertThrows(IllegalStateException.class, xs::next);
+        }
+    }
+
+    @Test
+    void testChangeDetectedWithNextBatch() throws Exception {
+        try (XmlCursor cur = cur()) {
+            XMLStreamReader xs = cur.newXMLStreamReader(new XmlOptions().setStreamBatchSize(3));
+            assertEquals(XMLStreamConstants.COMMENT, xs.next());
+
+            cur.toEndDoc();
+            cur.insertComment("changed");
+
+            // the buffered events are still served
+            assertEquals(XMLStreamConstants.START_ELEMENT, xs.next());
+            assertEquals("foo", xs.getLocalName());
+            assertThrows(ConcurrentModificationException.class, () -> xs.getNamespaceURI("pre"));
+            assertEquals(XMLStreamConstants.CHARACTERS, xs.next());
+            assertThrows(ConcurrentModificationException.class, xs::next);
+        }
+    }
+
+    @Test
+    void testFrozen() throws Exception {
+        XmlObject expected = jobj("xbean/xmlobject/easypo1.xml");
+        XmlObject po = jobj("xbean/xmlobject/easypo1.xml");
+        po.freeze();
+
+        // frozen documents are read in batches by default
+        assertSameEvents(expected.newXMLStreamReader(), po.newXMLStreamReader());
+        assertSameEvents(po.newXMLStreamReader(new XmlOptions().setStreamBatchSize(1)), po.newXMLStreamReader());
+    }
+
+    private static void assertSameEvents(XMLStreamReader expected, XMLStreamReader actual) throws Exception {
+        for (; ; ) {
+            int type = expected.getEventType();
+            assertEquals(type, actual.getEventType());
+            assertEquals(expected.hasName(), actual.hasName());
+            assertEquals(expected.hasText(), actual.hasText());
+
+            if (expected.hasName()) {
+                assertEquals(expected.getName(), actual.getName());
+                assertEquals(expected.getPrefix(), actual.getPrefix());
+                assertEquals(expected.getNamespaceCount(), actual.getNamespaceCount());
+                for (int i = 0; i < expected.getNamespaceCount(); i++) {
+                    assertEquals(expected.getNamespacePrefix(i), actual.getNamespacePrefix(i));
+                    assertEquals(expected.getNamespaceURI(i), actual.getNamespaceURI(i));
+                }
+            }
+            if (type == XMLStreamConstants.START_ELEMENT) {
+                assertEquals(expected.getAttributeCount(), actual.getAttributeCount());
+                for (int i = 0; i < expected.getAttributeCount(); i++) {
+                    assertEquals(expected.getAttributeName(i), actual.getAttributeName(i));
+                    assertEquals(expected.getAttributeValue(i), actual.getAttributeValue(i));
+                }
+            }
+            if (expected.hasText()) {
+                assertEquals(expected.getText(), actual.getText());
+                assertEquals(text(expected), text(actual));
+            }
+            if (type == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+                assertEquals(expected.getPITarget(), actual.getPITarget());
+                assertEquals(expected.getPIData(), actual.getPIData());
+            }
+
+            assertEquals(expected.hasNext(), actual.hasNext());
+            if (!expected.hasNext()) {
+                return;
+            }
+            assertEquals(expected.next(), actual.next());
+        }
+    }
+
+    private static String text(XMLStreamReader xs) {
+        return new String(xs.getTextCharacters(), xs.getTextStart(), xs.getTextLength());
+    }
+}
@@ -16,8 +16,12 @@
 package xmlcursor.xpath.complex.checkin;
 
 import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlOptions;
+import org.apache.xmlbeans.impl.xpath.Path;
+import org.apache.xmlbeans.impl.xpath.XPathFactory;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static xmlcursor.common.BasicCursorTestCase.cur;
 
 public class XPathTestsMisc {
@@ -36,4 +40,54 @@ public class XPathTestsMisc {
         }
     }
 
+    @Test
+    void testSaxonPathCached() throws Exception {
+        XmlOptions options = new XmlOptions().setXPathUseSaxon();
+        Path path = XPathFactory.getCompiledPath("$this//a[1]", options);
+        assertSame(path, XPathFactory.getCompiledPath("$this//a[1]", options));
+
+        XmlOptions otherVar = new XmlOptions(options).setXqueryCurrentNodeVar("cur");
+        assertNotSame(path, XPathFactory.getCompiledPath("$this//a[1]", otherVar));
+
+        // the cached path is held strongly, even if only the cache refers to it
+        int hash = System.identityHashCode(path);
+        path = null;
+        System.gc();
+        assertEquals(hash, System.identityHashCode(XPathFactory.getCompiledPath("$this//a[1]", options)));
+
+        // the compiled expression is reused for every selection
+        for (int i = 0; i < 3; i++) {
+            try (XmlCursor xc = cur(XPathTest.XML)) {
+                xc.selectPath("$this//a[1]", options);
+                assertEquals(2, xc.getSelectionCount());
+            }
+        }
+    }
+
+    @Test
+    void testSaxonMixedContentOrder() throws Exception {
+        XmlOptions options = new XmlOptions().setXPathUseSaxon();
+        String xml = "<r a=\"1\" xmlns:p=\"urn:p\">t1<p:b>x</p:b>t2<!--c--><?pi d?></r>";
+        XmlCursor.TokenType[] expected = {
+            XmlCursor.TokenType.ATTR, XmlCursor.TokenType.TEXT, XmlCursor.TokenType.START,
+            XmlCursor.TokenType.TEXT, XmlCursor.TokenType.COMMENT, XmlCursor.TokenType.PROCINST
+        };
+
+        try (XmlCursor xc = cur(xml)) {
+            // the union is sorted into document order
+            xc.selectPath("$this/r/node() | $this/r/@a", options);
+            assertEquals(expected.length, xc.getSelectionCount());
+            for (XmlCursor.TokenType tt : expected) {
+                assertTrue(xc.toNextSelection());
+                assertEquals(tt, xc.currentTokenType());
+            }
+        }
+
+        try (XmlCursor xc = cur(xml)) {
+            xc.selectPath("declare namespace p='urn:p'; $this/r/p:b/following-sibling::text()", options);
+            assertEquals(1, xc.getSelectionCount());
+            assertTrue(xc.toNextSelection());
+            assertEquals("t2", xc.getChars());
+        }
+    }
 }
@@ -15,9 +15,12 @@
 package xmlcursor.xquery.checkin;
 
 import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.apache.xmlbeans.impl.xpath.XPathFactory;
+import org.apache.xmlbeans.impl.xpath.XQuery;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class QueryEngineTests {
     // Execute repeated queries to test picking up of the query engine from classpath
@@ -29,4 +32,24 @@ public class QueryEngineTests {
         String expectedRes = "<b/>";
         assertEquals(expectedRes, res[0].xmlText());
     }
+
+    @Test
+    void testCompiledQueryCache() throws Exception {
+        String query = "$this//b";
+        XQuery compiled = XPathFactory.getCompiledQuery(query, null);
+        long hits = XPathFactory.getQueryCacheHits();
+        assertSame(compiled, XPathFactory.getCompiledQuery(query, null));
+        assertTrue(XPathFactory.getQueryCacheHits() > hits);
+
+        XmlOptions otherVar = new XmlOptions().setXqueryCurrentNodeVar("cur");
+        assertNotSame(compiled, XPathFactory.getCompiledQuery("$cur//b", otherVar));
+
+        // cached queries keep no state between executions
+        XmlObject o = XmlObject.Factory.parse("<foo><a><b/><b/></a></foo>");
+        for (int i = 0; i < 3; i++) {
+            XmlObject[] res = o.execQuery(query);
+            assertEquals(2, res.length);
+            assertEquals("<b/>", res[1].xmlText());
+        }
+    }
 }
@@ -174,6 +174,22 @@ public class XQueryTest {
         }
     }
 
+    @Test
+    void testStoreNodesCopied() throws Exception {
+        String input = "<foo><a x=\"1\">t<!--c--><?pi d?><b/></a>tail</foo>";
+        XmlObject o = XmlObject.Factory.parse(input);
+
+        try (XmlCursor c = o.newCursor()) {
+            try (XmlCursor cur = c.execQuery("//a")) {
+                cur.toFirstContentToken();
+                assertEquals("<a x=\"1\">t<!--c--><?pi d?><b/></a>", cur.xmlText());
+            }
+            try (XmlCursor cur = c.execQuery("//a/text()")) {
+                assertEquals("t", cur.getTextValue());
+            }
+        }
+    }
+
     @Test
     @Disabled
     public void testMultiDocJoin() throws XmlException, IOException {
@@ -21,13 +21,17 @@ import com.easypo.XmlPurchaseOrderDocumentBean;
 import org.apache.xmlbeans.XmlCursor;
 import org.apache.xmlbeans.XmlException;
 import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
 import org.apache.xmlbeans.XmlTime;
 import org.apache.xmlbeans.impl.xb.xsdschema.SchemaDocument;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import xint.test.PositionDocument;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -115,6 +119,97 @@ public class AssortedTests {
         assertEquals(BigInteger.valueOf(4), xdoc.getPurchaseOrder().getLineItemArray(2).getQuantity());
     }
 
+    @Test
+    void testBulkArraySetter() throws XmlException {
+        XmlPurchaseOrderDocumentBean xdoc = XmlPurchaseOrderDocumentBean.Factory.parse(
+            "<purchase-order xmlns='http://openuri.org/easypo'>" +
+            "<customer><name>David Bau</name><address>100 Main Street</address></customer>" +
+            "<date>2003-05-18T11:50:00</date>" +
+            "<line-item><description>Red Candy</description></line-item>" +
+            "<line-item><description>Blue Candy</description></line-item>" +
+            "<shipper><name>UPS</name></shipper>" +
+            "</purchase-order>");
+        XmlPurchaseOrderDocumentBean.PurchaseOrder po = xdoc.getPurchaseOrder();
+
+        // grow the array
+        XmlLineItemBean[] items = new XmlLineItemBean[1000];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = XmlLineItemBean.Factory.newInstance();
+            items[i].setDescription("item " + i);
+        }
+        po.setLineItemArray(items);
+        assertEquals(1000, po.sizeOfLineItemArray());
+        for (int i = 0; i < items.length; i++) {
+            assertEquals("item " + i, po.getLineItemArray(i).getDescription());
+        }
+        assertShipperLast(po);
+
+        // shrink it with a mix of existing and new items
+        XmlLineItemBean newItem = XmlLineItemBean.Factory.newInstance();
+        newItem.setDescription("new");
+        po.setLineItemArray(new XmlLineItemBean[]{po.getLineItemArray(998), newItem, po.getLineItemArray(3)});
+        assertEquals(3, po.sizeOfLineItemArray());
+        assertEquals("item 998", po.getLineItemArray(0).getDescription());
+        assertEquals("new", po.getLineItemArray(1).getDescription());
+        assertEquals("item 3", po.getLineItemArray(2).getDescription());
+        assertShipperLast(po);
+
+        // clear it
+        po.setLineItemArray(new XmlLineItemBean[0]);
+        assertEquals(0, po.sizeOfLineItemArray());
+        assertEquals("UPS", po.getShipper().getName());
+        assertShipperLast(po);
+    }
+
+    @Test
+    void testBuildMode() throws XmlException {
+        String expected = buildPurchaseOrder(null).xmlText();
+        XmlPurchaseOrderDocumentBean xdoc = buildPurchaseOrder(new XmlOptions().setBuildMode());
+        assertEquals(expected, xdoc.xmlText());
+        assertTrue(xdoc.validate());
+
+        // the document stays usable while it's built
+        XmlPurchaseOrderDocumentBean.PurchaseOrder po = xdoc.getPurchaseOrder();
+        try (XmlCursor c = po.getLineItemArray(1).newCursor()) {
+            XmlLineItemBean item = po.insertNewLineItem(1);
+            item.setDescription("inserted");
+            assertEquals("item 1", ((XmlLineItemBean) c.getObject()).getDescription());
+        }
+        assertEquals(101, po.sizeOfLineItemArray());
+        assertEquals("inserted", po.getLineItemArray(1).getDescription());
+        assertShipperLast(po);
+
+        xdoc.freeze();
+        assertThrows(IllegalStateException.class, po::addNewLineItem);
+    }
+
+    private static XmlPurchaseOrderDocumentBean buildPurchaseOrder(XmlOptions options) {
+        XmlPurchaseOrderDocumentBean xdoc = XmlPurchaseOrderDocumentBean.Factory.newInstance(options);
+        XmlPurchaseOrderDocumentBean.PurchaseOrder po = xdoc.addNewPurchaseOrder();
+        XmlCustomerBean customer = po.addNewCustomer();
+        customer.setName("David Bau");
+        customer.setAddress("100 Main Street");
+        po.setDate(new GregorianCalendar(2003, Calendar.MAY, 18, 11, 50));
+        // the shipper comes first, so the line items are inserted before it
+        po.addNewShipper().setName("UPS");
+        po.getShipper().setPerOunceRate(BigDecimal.ONE);
+        for (int i = 0; i < 100; i++) {
+            XmlLineItemBean item = po.addNewLineItem();
+            item.setDescription("item " + i);
+            item.setPerUnitOunces(BigDecimal.ONE);
+            item.setPrice(BigDecimal.TEN);
+            item.setQuantity(BigInteger.valueOf(i));
+        }
+        return xdoc;
+    }
+
+    private static void assertShipperLast(XmlPurchaseOrderDocumentBean.PurchaseOrder po) {
+        try (XmlCursor c = po.newCursor()) {
+            assertTrue(c.toLastChild());
+            assertEquals("shipper", c.getName().getLocalPart());
+        }
+    }
+
     // bug 45338
     @Test
     void testComplexGetter() throws Exception {
@@ -20,11 +20,16 @@ import com.easypo.XmlPurchaseOrderDocumentBean.PurchaseOrder;
 import org.apache.xmlbeans.XmlException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static xmlcursor.common.BasicCursorTestCase.jobj;
@@ -61,6 +66,44 @@ public class EasyPoTests {
         assertEquals(3, order.sizeOfLineItemArray());
     }
 
+    @Test
+    void testParseBytes(@TempDir Path dir) throws Exception {
+        String xml = "<?xml version='1.0' encoding='ISO-8859-1'?>" +
+            "<purchase-order xmlns='http://openuri.org/easypo'>" +
+            "<customer><name>J\u00fcrgen</name><address>M\u00fcnchen</address></customer>" +
+            "</purchase-order>";
+        byte[] doc = xml.getBytes(StandardCharsets.ISO_8859_1);
+
+        // the document within a larger array
+        byte[] bytes = new byte[doc.length + 8];
+        System.arraycopy(doc, 0, bytes, 4, doc.length);
+        assertCustomer(XmlPurchaseOrderDocumentBean.Factory.parse(bytes, 4, doc.length));
+
+        ByteBuffer heap = ByteBuffer.wrap(bytes, 4, doc.length);
+        assertCustomer(XmlPurchaseOrderDocumentBean.Factory.parse(heap));
+        assertEquals(4, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(doc.length);
+        direct.put(doc).flip();
+        assertCustomer(XmlPurchaseOrderDocumentBean.Factory.parse(direct));
+        assertEquals(0, direct.position());
+
+        Path file = dir.resolve("easypo.xml");
+        Files.write(file, doc);
+        XmlPurchaseOrderDocumentBean mapped = XmlPurchaseOrderDocumentBean.Factory.parse(file);
+        assertCustomer(mapped);
+        assertEquals(file.toUri().normalize().toString(), mapped.documentProperties().getSourceName());
+
+        Path broken = dir.resolve("broken.xml");
+        Files.write(broken, "<purchase-order xmlns='http://openuri.org/easypo'>".getBytes(StandardCharsets.UTF_8));
+        assertThrows(XmlException.class, () -> XmlPurchaseOrderDocumentBean.Factory.parse(broken));
+    }
+
+    private static void assertCustomer(XmlPurchaseOrderDocumentBean doc) {
+        assertEquals("J\u00fcrgen", doc.getPurchaseOrder().getCustomer().getName());
+        assertEquals("M\u00fcnchen", doc.getPurchaseOrder().getCustomer().getAddress());
+    }
+
     @Test
     void testAutoValidationOk() {
         Assertions.assertDoesNotThrow(() -> XmlPurchaseOrderDocumentBean.Factory.parse(
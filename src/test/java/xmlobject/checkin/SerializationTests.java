@@ -32,6 +32,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -128,6 +129,42 @@ public class SerializationTests {
         assertEquals(new BigDecimal("0.74"), neworder.getShipper().getPerOunceRate());
     }
 
+    @Test
+    void testSaveToOutputStream() throws Exception {
+        StringBuilder sb = new StringBuilder("<doc a=\"&lt;&quot;\u00e9\"><!--c\u20ac--><?pi x?>");
+        // long text to cross the chunk boundaries of the saver, with surrogate pairs in between
+        for (int i = 0; i < 3000; i++) {
+            sb.append("<e>a&amp;\u00fc\u20ac\uD83D\uDE00</e>");
+        }
+        sb.append("</doc>");
+        XmlObject doc = XmlObject.Factory.parse(sb.toString());
+
+        for (String enc : new String[]{null, "UTF-8", "US-ASCII", "ISO-8859-1", "UTF-16"}) {
+            for (boolean pretty : new boolean[]{false, true}) {
+                XmlOptions opts = new XmlOptions();
+                if (enc != null) {
+                    opts.setCharacterEncoding(enc);
+                }
+                if (pretty) {
+                    opts.setSavePrettyPrint();
+                }
+
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                try (InputStream is = doc.newInputStream(opts)) {
+                    byte[] buf = new byte[1000];
+                    for (int n; (n = is.read(buf)) >= 0; ) {
+                        expected.write(buf, 0, n);
+                    }
+                }
+
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                doc.save(actual, opts);
+
+                assertArrayEquals(expected.toByteArray(), actual.toByteArray(), enc + " / " + pretty);
+            }
+        }
+    }
+
     @Test
     void testWsdlSerialization() throws IOException, XmlException {
         // test for TextSaver
@@ -24,12 +24,15 @@ import org.openuri.xstypes.test.CustomerDocument;
 import org.openuri.xstypes.test.Person;
 
 import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 import static xmlcursor.common.BasicCursorTestCase.jobj;
 
 public class SchemaTypesTests {
@@ -138,6 +141,65 @@ public class SchemaTypesTests {
         //assertEquals("GIF", person.getNotationAtt().toString());
     }
 
+    @Test
+    void testBinaryStreams() throws Exception {
+        CustomerDocument doc = getDoc();
+        Person person = doc.getCustomer();
+
+        // read the parsed text
+        assertEquals("EGIQTWYZJ", new String(readAll(person.xgetHex().getByteStreamValue()), UTF_8));
+        assertEquals("This string is base64Binary encoded!", new String(readAll(person.xgetBase64().getByteStreamValue()), UTF_8));
+
+        byte[] data = new byte[100_000];
+        new Random(4711).nextBytes(data);
+
+        XmlBase64Binary base64 = person.xgetBase64();
+        base64.setByteStreamValue(new ByteArrayInputStream(data));
+        assertArrayEquals(data, readAll(base64.getByteStreamValue()));
+        assertArrayEquals(data, person.getBase64());
+        ByteBuffer bb = base64.getByteBufferValue();
+        assertTrue(bb.isReadOnly());
+        assertEquals(ByteBuffer.wrap(data), bb);
+
+        XmlHexBinary hex = person.xgetHex();
+        hex.setByteStreamValue(new ByteArrayInputStream(data));
+        assertArrayEquals(data, readAll(hex.getByteStreamValue()));
+        assertArrayEquals(data, person.getHex());
+        assertEquals(ByteBuffer.wrap(data), hex.getByteBufferValue());
+
+        // the streamed values are saved and reparsed unchanged
+        Person copy = CustomerDocument.Factory.parse(doc.xmlText()).getCustomer();
+        assertArrayEquals(data, copy.getBase64());
+        assertArrayEquals(data, readAll(copy.xgetHex().getByteStreamValue()));
+
+        // a value set as bytes is streamed without the store text
+        person.setHex("hex encoding".getBytes(UTF_8));
+        assertEquals("hex encoding", new String(readAll(person.xgetHex().getByteStreamValue()), UTF_8));
+
+        // malformed text fails while reading
+        try (XmlCursor c = hex.newCursor()) {
+            c.setTextValue("0A1");
+        }
+        assertThrows(IOException.class, () -> readAll(hex.getByteStreamValue()));
+
+        // only whitespace is skipped in base64 text
+        try (XmlCursor c = base64.newCursor()) {
+            c.setTextValue(" VGhp\n cyBp\tcw== ");
+            assertEquals("This is", new String(readAll(base64.getByteStreamValue()), UTF_8));
+            c.setTextValue("VGhp!!!cyBpcw==");
+        }
+        assertThrows(IOException.class, () -> readAll(base64.getByteStreamValue()));
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buf = new byte[1000];
+        for (int n; (n = is.read(buf)) != -1; ) {
+            bos.write(buf, 0, n);
+        }
+        return bos.toByteArray();
+    }
+
     @Test
     void testStoreWrite() throws Exception {
         CustomerDocument doc = getDoc();